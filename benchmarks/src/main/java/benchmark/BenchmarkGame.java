@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import data.Game;
+import persistence.Main;
+import persistence.PersistenceManager;
+import playing.GamePlayer;
+
+/**
+ * A freshly created test adventure from {@link Main}, played by a
+ * {@link GamePlayer} with a {@link HeadlessInputOutput}. The game db is
+ * created in a temporary directory for each trial.
+ * 
+ * @author Satia
+ */
+@State(Scope.Thread)
+public class BenchmarkGame {
+
+	/**
+	 * The directory of the game db.
+	 */
+	private Path directory;
+
+	/**
+	 * The persistence manager connected to the game db.
+	 */
+	PersistenceManager persistenceManager;
+
+	/**
+	 * The game player.
+	 */
+	GamePlayer gamePlayer;
+
+	/**
+	 * The IO of the game player.
+	 */
+	HeadlessInputOutput io;
+
+	/**
+	 * The game.
+	 */
+	Game game;
+
+	/**
+	 * Creates the test adventure and starts a new game.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("tam-benchmark");
+		String db = directory.resolve("Test-Adventure").toString();
+		Main.createTestAdventure(db);
+
+		persistenceManager = new PersistenceManager();
+		persistenceManager.connect(db, false);
+		gamePlayer = new GamePlayer(persistenceManager, gameRunning -> {
+			throw new IllegalStateException("The game must not show the menu.");
+		}, HeadlessInputOutput::new);
+		io = (HeadlessInputOutput) gamePlayer.getIo();
+		game = persistenceManager.getGameManager().getGame();
+		gamePlayer.setGame(game);
+		gamePlayer.start();
+	}
+
+	/**
+	 * Stops the game and deletes the game db.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		gamePlayer.stop();
+		FileUtils.deleteDirectory(directory.toFile());
+	}
+}
@@ -0,0 +1,134 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.InventoryItem;
+import data.Location;
+
+/**
+ * Measures typing a command, from parsing to the printed answer and the
+ * deferred commit, for each command type.
+ * 
+ * The commands are chosen so that playing them repeatedly does not change the
+ * outcome. Forbidden actions are as expensive to find out as allowed ones,
+ * since the same objects have to be looked up.
+ * 
+ * @author Satia
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+
+	/**
+	 * The location the game starts in.
+	 */
+	private Location flat;
+
+	/**
+	 * Remembers the start location and adds a stone to the inventory, which
+	 * cannot be combined with the knife.
+	 * 
+	 * @param game
+	 *            the game
+	 */
+	@Setup
+	public void setUp(BenchmarkGame game) {
+		flat = game.game.getPlayer().getLocation();
+		game.game.getPlayer().addInventoryItem(new InventoryItem("Stone", "A boring stone."));
+	}
+
+	/**
+	 * Moves to the balcony. Going back is forbidden in the test adventure, so
+	 * the player is put back directly.
+	 */
+	@Benchmark
+	public String move(BenchmarkGame game) {
+		game.io.type("go out");
+		game.game.getPlayer().setLocation(flat);
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Tries to take the television, which is too heavy.
+	 */
+	@Benchmark
+	public String take(BenchmarkGame game) {
+		game.io.type("take tv");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Tries to take the television with an additional command.
+	 */
+	@Benchmark
+	public String takeAdditionalCommand(BenchmarkGame game) {
+		game.io.type("lift tv");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Tries to use the television.
+	 */
+	@Benchmark
+	public String use(BenchmarkGame game) {
+		game.io.type("use tv");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Uses the knife from the inventory with a person.
+	 */
+	@Benchmark
+	public String useWith(BenchmarkGame game) {
+		game.io.type("use knife with chick");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Tries to combine the knife with the stone in the inventory.
+	 */
+	@Benchmark
+	public String combine(BenchmarkGame game) {
+		game.io.type("combine knife with stone");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Talks to a person whose conversation ends right after the greeting.
+	 */
+	@Benchmark
+	public String talkTo(BenchmarkGame game) {
+		game.io.type("talk to chick");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Inspects a person.
+	 */
+	@Benchmark
+	public String inspect(BenchmarkGame game) {
+		game.io.type("look at gremlin");
+		return game.io.getLastOutput();
+	}
+
+	/**
+	 * Types something that is no command.
+	 */
+	@Benchmark
+	public String noCommand(BenchmarkGame game) {
+		game.io.type("dance with the gremlin");
+		return game.io.getLastOutput();
+	}
+}
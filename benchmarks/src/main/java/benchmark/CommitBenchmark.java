@@ -0,0 +1,80 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.Item;
+import exception.DBClosedException;
+import exception.DBIncompatibleException;
+
+/**
+ * Measures committing the changes of a command to the game db.
+ * 
+ * @author Satia
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommitBenchmark {
+
+	/**
+	 * The item that is changed.
+	 */
+	private Item tv;
+
+	/**
+	 * The number of commits so far.
+	 */
+	private long commits;
+
+	/**
+	 * Finds the item to change.
+	 * 
+	 * @param game
+	 *            the game
+	 */
+	@Setup
+	public void setUp(BenchmarkGame game) throws DBClosedException, DBIncompatibleException {
+		tv = (Item) game.persistenceManager.getInspectableObjectManager().getInspectable("tv");
+	}
+
+	/**
+	 * Changes one text of an item and commits.
+	 */
+	@Benchmark
+	public void changedItem(BenchmarkGame game) {
+		tv.setDescription("There is a television in the corner. " + (commits++ % 2));
+		game.persistenceManager.updateChanges();
+	}
+
+	/**
+	 * Commits without any changes.
+	 */
+	@Benchmark
+	public void nothingChanged(BenchmarkGame game) {
+		game.persistenceManager.updateChanges();
+	}
+
+	/**
+	 * Changes one text of an item and commits only if enough changes have been
+	 * deferred, as after a command.
+	 */
+	@Benchmark
+	public void changedItemDeferred(BenchmarkGame game) {
+		tv.setDescription("There is a television in the corner. " + (commits++ % 2));
+		game.persistenceManager.updateChangesDeferred();
+	}
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import java.util.List;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import playing.InputOutput;
+
+/**
+ * An IO without a screen. The output is only counted and the last line kept,
+ * so that playing a game can be measured without a terminal.
+ * 
+ * @author Satia
+ */
+public class HeadlessInputOutput implements InputOutput {
+
+	/**
+	 * The io manager for this session.
+	 */
+	private final GeneralIOManager ioManager;
+
+	/**
+	 * The option io manager if currently in option mode, {@code null}
+	 * otherwise.
+	 */
+	private OptionIOManager optionIOManager;
+
+	/**
+	 * The options currently displayed.
+	 */
+	private List<String> options;
+
+	/**
+	 * The last printed line.
+	 */
+	private String lastOutput;
+
+	/**
+	 * The number of printed lines.
+	 */
+	private long printedLines;
+
+	/**
+	 * @param ioManager
+	 *            the ioManager for this session
+	 */
+	public HeadlessInputOutput(GeneralIOManager ioManager) {
+		this.ioManager = ioManager;
+	}
+
+	/**
+	 * Handles the text as if the player had typed it and pressed enter.
+	 * 
+	 * @param text
+	 *            the typed text
+	 */
+	public void type(String text) {
+		if (optionIOManager != null) {
+			throw new IllegalStateException("In option mode.");
+		}
+		if (ioManager.handleText(text)) {
+			ioManager.updateState();
+		}
+	}
+
+	@Override
+	public void exitIO() {
+	}
+
+	@Override
+	public void println(String output) {
+		lastOutput = output;
+		printedLines++;
+	}
+
+	@Override
+	public void println(String output, Color bgColor, Color fgColor) {
+		lastOutput = output;
+		printedLines++;
+	}
+
+	@Override
+	public void clear() {
+	}
+
+	@Override
+	public void enterOptionMode(OptionIOManager optionIOManager, List<String> options) {
+		this.optionIOManager = optionIOManager;
+		this.options = options;
+	}
+
+	@Override
+	public void exitOptionMode() {
+		this.optionIOManager = null;
+		this.options = null;
+	}
+
+	@Override
+	public void setOptions(List<String> options) {
+		this.options = options;
+	}
+
+	/**
+	 * Chooses an option as if the player had selected it.
+	 * 
+	 * @param index
+	 *            the index of the option
+	 */
+	public void choose(int index) {
+		if (optionIOManager == null) {
+			throw new IllegalStateException("Not in option mode.");
+		}
+		optionIOManager.chooseOption(index);
+		ioManager.updateState();
+	}
+
+	/**
+	 * @return the options currently displayed or {@code null}, if not in
+	 *         option mode.
+	 */
+	public List<String> getOptions() {
+		return options;
+	}
+
+	/**
+	 * @return the last printed line
+	 */
+	public String getLastOutput() {
+		return lastOutput;
+	}
+
+	/**
+	 * @return the number of printed lines
+	 */
+	public long getPrintedLines() {
+		return printedLines;
+	}
+}
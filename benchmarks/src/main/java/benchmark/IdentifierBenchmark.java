@@ -0,0 +1,48 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.interfaces.Inspectable;
+import exception.DBClosedException;
+import exception.DBIncompatibleException;
+
+/**
+ * Measures finding the object the player refers to among everything in the
+ * location and the inventory.
+ * 
+ * @author Satia
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IdentifierBenchmark {
+
+	/**
+	 * An object in the location, one in the inventory and one that does not
+	 * exist.
+	 */
+	@Param({ "tv", "hot chick", "knife", "unicorn" })
+	public String identifier;
+
+	/**
+	 * Looks up the identifier.
+	 */
+	@Benchmark
+	public Inspectable getInspectable(BenchmarkGame game) throws DBClosedException, DBIncompatibleException {
+		return game.persistenceManager.getInspectableObjectManager().getInspectable(identifier);
+	}
+}
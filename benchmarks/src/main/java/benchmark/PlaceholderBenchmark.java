@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.Game;
+import playing.PlaceholderReplacer;
+
+/**
+ * Measures replacing the placeholders in the texts of the game.
+ * 
+ * @author Satia
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlaceholderBenchmark {
+
+	/**
+	 * A message using every kind of placeholder.
+	 */
+	private static final String ALL_PLACEHOLDERS = "You typed <INPUT> (<pattern|<input>||>). "
+			+ "<Name> is no <identifier> and <NAME2> no <Identifier2>.";
+
+	/**
+	 * The replacer.
+	 */
+	private PlaceholderReplacer replacer;
+
+	/**
+	 * Texts of the game, as they would be printed.
+	 */
+	private String[] messages;
+
+	/**
+	 * Sets up the replacer as if the player had typed a use with command.
+	 * 
+	 * @param benchmarkGame
+	 *            the game
+	 */
+	@Setup
+	public void setUp(BenchmarkGame benchmarkGame) {
+		Game game = benchmarkGame.game;
+		messages = new String[] { game.getNoSuchItemText(), game.getNoSuchInventoryItemText(),
+				game.getNotUsableWithText(), game.getUsedWithText(), game.getInvalidCommandText(),
+				game.getNoCommandText() };
+
+		replacer = new PlaceholderReplacer();
+		replacer.setInput("use knife with hot chick");
+		replacer.setPattern("use (?<o0>.+?) with (?<o1>.+?)");
+		replacer.setIdentifier("knife");
+		replacer.setIdentifier2("hot chick");
+		replacer.setName("Knife");
+		replacer.setName2("Hot chick");
+	}
+
+	/**
+	 * Replaces the placeholders in the texts of the game.
+	 */
+	@Benchmark
+	public int gameTexts() {
+		int length = 0;
+		for (String message : messages) {
+			length += replacer.replacePlaceholders(message).length();
+		}
+		return length;
+	}
+
+	/**
+	 * Replaces the placeholders in a message using all of them.
+	 */
+	@Benchmark
+	public String allPlaceholders() {
+		return replacer.replacePlaceholders(ALL_PLACEHOLDERS);
+	}
+}
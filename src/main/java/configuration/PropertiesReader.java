@@ -31,6 +31,27 @@ public class PropertiesReader {
 	
 	public static final String LOG_CONSOLE_PROPERTY = "LogToConsole";
 	public static final String LOG_CONSOLE_DEFAULT = "false";
+	
+	public static final String WRITE_BEHIND_COMMANDS_PROPERTY = "WriteBehindCommands";
+	public static final String WRITE_BEHIND_COMMANDS_DEFAULT = "20";
+	
+	public static final String WRITE_BEHIND_MILLIS_PROPERTY = "WriteBehindMillis";
+	public static final String WRITE_BEHIND_MILLIS_DEFAULT = "5000";
+
+	public static final String PLAY_IN_MEMORY_PROPERTY = "PlayInMemory";
+	public static final String PLAY_IN_MEMORY_DEFAULT = "true";
+
+	public static final String JOURNAL_SNAPSHOT_COMMANDS_PROPERTY = "JournalSnapshotCommands";
+	public static final String JOURNAL_SNAPSHOT_COMMANDS_DEFAULT = "100";
+
+	public static final String SCROLLBACK_LINES_PROPERTY = "ScrollbackLines";
+	public static final String SCROLLBACK_LINES_DEFAULT = "1000";
+
+	public static final String INSTRUMENTATION_PROPERTY = "Instrumentation";
+	public static final String INSTRUMENTATION_DEFAULT = "true";
+
+	public static final String METRICS_DUMP_SECONDS_PROPERTY = "MetricsDumpSeconds";
+	public static final String METRICS_DUMP_SECONDS_DEFAULT = "0";
 	//***********************************
 
 	/**
@@ -163,6 +184,13 @@ public class PropertiesReader {
 		props.setProperty(SWING_TERMINAL_ROWS_PROPERTY, SWING_TERMINAL_ROWS_DEFAULT);
 		props.setProperty(SWING_TERMINAL_COLS_PROPERTY, SWING_TERMINAL_COLS_DEFAULT);
 		props.setProperty(LOG_CONSOLE_PROPERTY, LOG_CONSOLE_DEFAULT);
+		props.setProperty(WRITE_BEHIND_COMMANDS_PROPERTY, WRITE_BEHIND_COMMANDS_DEFAULT);
+		props.setProperty(WRITE_BEHIND_MILLIS_PROPERTY, WRITE_BEHIND_MILLIS_DEFAULT);
+		props.setProperty(PLAY_IN_MEMORY_PROPERTY, PLAY_IN_MEMORY_DEFAULT);
+		props.setProperty(JOURNAL_SNAPSHOT_COMMANDS_PROPERTY, JOURNAL_SNAPSHOT_COMMANDS_DEFAULT);
+		props.setProperty(SCROLLBACK_LINES_PROPERTY, SCROLLBACK_LINES_DEFAULT);
+		props.setProperty(INSTRUMENTATION_PROPERTY, INSTRUMENTATION_DEFAULT);
+		props.setProperty(METRICS_DUMP_SECONDS_PROPERTY, METRICS_DUMP_SECONDS_DEFAULT);
 		return props;
 	}
 
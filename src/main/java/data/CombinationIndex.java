@@ -0,0 +1,371 @@
+package data;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import data.interfaces.Combinable;
+import data.interfaces.HasId;
+import data.interfaces.PassivelyUsable;
+import data.interfaces.UsableWithSomething;
+
+/**
+ * The information for combining inventory items and for using them with
+ * other objects, in tables keyed by the ids of both partners.
+ *
+ * Looking up a pair neither navigates the maps of the inventory items nor
+ * creates missing information, so that it does not allocate anything. A pair
+ * without information behaves like new information would: disabled, without
+ * texts, commands and actions.
+ *
+ * The information is shared with the inventory items, so that changing it,
+ * e.g. with a {@link data.action.ChangeCombineInformationAction}, needs no new
+ * index. A new index is needed whenever
+ * {@link InventoryItem#getCombinationsVersion()} changes. Pairs with objects
+ * not yet written to the DB, which have no id, are not contained.
+ *
+ * @author Satia
+ */
+public final class CombinationIndex {
+
+	/**
+	 * The information for combining two inventory items, stored once for
+	 * both orders.
+	 */
+	private final IdPairTable<CombineInformation> combinations;
+
+	/**
+	 * The additional commands for combining an inventory item with another
+	 * one.
+	 */
+	private final IdPairTable<CombineCommands> combineCommands;
+
+	/**
+	 * The information for using an inventory item with an object.
+	 */
+	private final IdPairTable<UseWithInformation> usages;
+
+	/**
+	 * Builds the index.
+	 *
+	 * @param inventoryItems
+	 *            all inventory items
+	 */
+	public CombinationIndex(Collection<InventoryItem> inventoryItems) {
+		this.combinations = new IdPairTable<>();
+		this.combineCommands = new IdPairTable<>();
+		this.usages = new IdPairTable<>();
+		for (InventoryItem inventoryItem : inventoryItems) {
+			inventoryItem.addTo(this);
+		}
+	}
+
+	/**
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @param combination
+	 *            the information for combining both
+	 */
+	void putCombination(InventoryItem item1, InventoryItem item2, CombineInformation combination) {
+		combinations.put(symmetricKey(item1, item2), combination);
+	}
+
+	/**
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @param commands
+	 *            the additional commands for combining the first with the
+	 *            second
+	 */
+	void putCombineCommands(InventoryItem item1, InventoryItem item2, CombineCommands commands) {
+		combineCommands.put(key(item1, item2), commands);
+	}
+
+	/**
+	 * @param usable
+	 *            the inventory item
+	 * @param object
+	 *            the object
+	 * @param usage
+	 *            the information for using the inventory item with the object
+	 */
+	void putUsage(InventoryItem usable, HasId object, UseWithInformation usage) {
+		usages.put(key(usable, object), usage);
+	}
+
+	/**
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @return if combining both is enabled
+	 */
+	public boolean isCombiningEnabled(Combinable<?> item1, Combinable<?> item2) {
+		CombineInformation combination = combinations.get(symmetricKey(item1, item2));
+		return combination != null && combination.enabled;
+	}
+
+	/**
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @return the text for successfully combining both or {@code null} for
+	 *         the default text
+	 */
+	public String getCombineWithSuccessfulText(Combinable<?> item1, Combinable<?> item2) {
+		CombineInformation combination = combinations.get(symmetricKey(item1, item2));
+		return combination == null ? null : combination.combineWithSuccessfulText;
+	}
+
+	/**
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @return the text for trying to combine both, if disabled, or
+	 *         {@code null} for the default text
+	 */
+	public String getCombineWithForbiddenText(Combinable<?> item1, Combinable<?> item2) {
+		CombineInformation combination = combinations.get(symmetricKey(item1, item2));
+		return combination == null ? null : combination.combineWithForbiddenText;
+	}
+
+	/**
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @return the additional commands for combining the first with the
+	 *         second. Must not be modified.
+	 */
+	public List<String> getAdditionalCombineCommands(Combinable<?> item1, Combinable<?> item2) {
+		CombineCommands commands = combineCommands.get(key(item1, item2));
+		return commands == null ? Collections.emptyList() : commands.commands;
+	}
+
+	/**
+	 * Combines two items, like {@link InventoryItem#combineWith(Combinable, Game)}
+	 * would, but without creating missing information.
+	 *
+	 * @param item1
+	 *            the first item
+	 * @param item2
+	 *            the second item
+	 * @param game
+	 *            the game
+	 */
+	public void combine(Combinable<InventoryItem> item1, Combinable<InventoryItem> item2, Game game) {
+		CombineInformation combination = combinations.get(symmetricKey(item1, item2));
+		if (combination != null && item1 instanceof InventoryItem) {
+			((InventoryItem) item1).combineWith(item2, combination, game);
+		}
+	}
+
+	/**
+	 * @param usable
+	 *            the usable object
+	 * @param object
+	 *            the object to use it with
+	 * @return if using both is enabled
+	 */
+	public boolean isUsingEnabled(UsableWithSomething usable, PassivelyUsable object) {
+		UseWithInformation usage = usages.get(key(usable, object));
+		return usage != null && usage.enabled;
+	}
+
+	/**
+	 * @param usable
+	 *            the usable object
+	 * @param object
+	 *            the object to use it with
+	 * @return the text for successfully using both or {@code null} for the
+	 *         default text
+	 */
+	public String getUseWithSuccessfulText(UsableWithSomething usable, PassivelyUsable object) {
+		UseWithInformation usage = usages.get(key(usable, object));
+		return usage == null ? null : usage.useWithSuccessfulText;
+	}
+
+	/**
+	 * @param usable
+	 *            the usable object
+	 * @param object
+	 *            the object to use it with
+	 * @return the text for trying to use both, if disabled, or {@code null}
+	 *         for the default text
+	 */
+	public String getUseWithForbiddenText(UsableWithSomething usable, PassivelyUsable object) {
+		UseWithInformation usage = usages.get(key(usable, object));
+		return usage == null ? null : usage.useWithForbiddenText;
+	}
+
+	/**
+	 * @param usable
+	 *            the usable object
+	 * @param object
+	 *            the object to use it with
+	 * @return the additional commands for using both. Must not be modified.
+	 */
+	public List<String> getAdditionalUseWithCommands(UsableWithSomething usable, PassivelyUsable object) {
+		UseWithInformation usage = usages.get(key(usable, object));
+		return usage == null ? Collections.emptyList() : usage.additionalUseWithCommands;
+	}
+
+	/**
+	 * Uses an object with another, like
+	 * {@link InventoryItem#useWith(PassivelyUsable, Game)} would, but without
+	 * creating missing information.
+	 *
+	 * @param usable
+	 *            the usable object
+	 * @param object
+	 *            the object to use it with
+	 * @param game
+	 *            the game
+	 */
+	public void useWith(UsableWithSomething usable, PassivelyUsable object, Game game) {
+		UseWithInformation usage = usages.get(key(usable, object));
+		if (usage != null && usable instanceof InventoryItem) {
+			((InventoryItem) usable).useWith(object, usage, game);
+		}
+	}
+
+	/**
+	 * @param first
+	 *            the first object
+	 * @param second
+	 *            the second object
+	 * @return the key of both objects in this order
+	 */
+	private static long key(HasId first, HasId second) {
+		return ((long) first.getId() << 32) | (second.getId() & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @param first
+	 *            the first object
+	 * @param second
+	 *            the second object
+	 * @return the key of both objects in any order
+	 */
+	private static long symmetricKey(HasId first, HasId second) {
+		return first.getId() <= second.getId() ? key(first, second) : key(second, first);
+	}
+
+	/**
+	 * A hash table from pairs of ids to values, with open addressing. Keys
+	 * with an id of 0 are never contained.
+	 *
+	 * @param <V>
+	 *            the type of the values
+	 */
+	private static final class IdPairTable<V> {
+
+		/**
+		 * The keys, 0 for free slots.
+		 */
+		private long[] keys = new long[16];
+
+		/**
+		 * The values of the keys.
+		 */
+		private Object[] values = new Object[16];
+
+		/**
+		 * The number of slots minus 1.
+		 */
+		private int mask = 15;
+
+		/**
+		 * The number of entries.
+		 */
+		private int size;
+
+		/**
+		 * @param key
+		 *            the key
+		 * @return the first slot to look for the key
+		 */
+		private int slot(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+
+		/**
+		 * @param key
+		 *            the key
+		 * @return if no id of the key is 0
+		 */
+		private static boolean isValid(long key) {
+			return (key >>> 32) != 0 && (int) key != 0;
+		}
+
+		/**
+		 * Stores a value, unless the key is already contained.
+		 *
+		 * @param key
+		 *            the key
+		 * @param value
+		 *            the value
+		 */
+		void put(long key, V value) {
+			if (!isValid(key)) {
+				return;
+			}
+			int slot = slot(key);
+			while (keys[slot] != 0) {
+				if (keys[slot] == key) {
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			values[slot] = value;
+			// At most half of the slots are used
+			if (++size * 2 > keys.length) {
+				grow();
+			}
+		}
+
+		/**
+		 * Doubles the number of slots.
+		 */
+		@SuppressWarnings("unchecked")
+		private void grow() {
+			long[] oldKeys = keys;
+			Object[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new Object[oldKeys.length * 2];
+			mask = keys.length - 1;
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) {
+					put(oldKeys[i], (V) oldValues[i]);
+				}
+			}
+		}
+
+		/**
+		 * @param key
+		 *            the key
+		 * @return the value or {@code null}, if the key is not contained
+		 */
+		@SuppressWarnings("unchecked")
+		V get(long key) {
+			if (!isValid(key)) {
+				return null;
+			}
+			for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					return (V) values[slot];
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -14,8 +14,10 @@ import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OrderColumn;
+import javax.persistence.Transient;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.action.AddInventoryItemsAction;
 import data.interfaces.HasId;
 
@@ -49,6 +51,12 @@ class CombineInformation implements HasId {
 	@OrderColumn
 	List<AbstractAction> additionalCombineWithActions;
 
+	/**
+	 * The additional combine with actions, compiled.
+	 */
+	@Transient
+	ActionProgram additionalCombineWithProgram;
+
 	/**
 	 * The text displayed when combining is disabled but the user tries to
 	 * trigger the connection or suggests the default text to be displayed if
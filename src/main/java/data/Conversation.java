@@ -16,6 +16,7 @@ import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -53,6 +54,11 @@ public class Conversation extends NamedObject {
 	 */
 	private List<AbstractAction> additionalActions;
 
+	/**
+	 * The additional actions, compiled.
+	 */
+	private ActionProgram additionalProgram;
+
 	/**
 	 * All layers belonging to this conversation. A layer can only belong to one
 	 * conversation.
@@ -267,6 +273,7 @@ public class Conversation extends NamedObject {
 	 */
 	public void addAdditionalAction(AbstractAction action) {
 		additionalActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	/**
@@ -277,6 +284,19 @@ public class Conversation extends NamedObject {
 	 */
 	public void removeAdditionalAction(AbstractAction action) {
 		additionalActions.remove(action);
+		ActionProgram.invalidateAll();
+	}
+
+	/**
+	 * Triggers all additional actions. Called when the conversation is
+	 * started.
+	 * 
+	 * @param game
+	 *            the game
+	 */
+	public void triggerAdditionalActions(Game game) {
+		additionalProgram = ActionProgram.of(additionalProgram, additionalActions);
+		additionalProgram.trigger(game);
 	}
 
 }
@@ -20,6 +20,7 @@ import javax.persistence.OrderColumn;
 import javax.persistence.Transient;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.action.AbstractAction.Enabling;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -41,6 +42,11 @@ public class ConversationOption extends NamedObject {
 	 * All additional actions.
 	 */
 	private List<AbstractAction> additionalActions;
+
+	/**
+	 * The additional actions, compiled.
+	 */
+	private ActionProgram additionalProgram;
 	
 	/**
 	 * The answer the player gets when choosing that option.
@@ -168,6 +174,7 @@ public class ConversationOption extends NamedObject {
 	 */
 	public void addAdditionalAction(AbstractAction action) {
 		additionalActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	/**
@@ -188,9 +195,8 @@ public class ConversationOption extends NamedObject {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Choosing {0}", this);
 		disableAction.triggerAction(game);
 		// Trigger additional actions
-		for (AbstractAction abstractAction : additionalActions) {
-			abstractAction.triggerAction(game);
-		}
+		additionalProgram = ActionProgram.of(additionalProgram, additionalActions);
+		additionalProgram.trigger(game);
 	}
 
 	/**
@@ -300,6 +306,7 @@ public class ConversationOption extends NamedObject {
 	 */
 	public void removeAdditionalAction(AbstractAction action) {
 		additionalActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 	
 	/**
@@ -17,6 +17,8 @@ import javax.persistence.ManyToMany;
 import javax.persistence.OrderColumn;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
+import data.interfaces.IdentifiablesListener;
 import data.interfaces.Inspectable;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -42,11 +44,21 @@ public abstract class InspectableObject extends NamedDescribedObject implements
 	 */
 	private List<AbstractAction> additionalInspectActions;
 
+	/**
+	 * The additional inspect actions, compiled.
+	 */
+	private ActionProgram additionalInspectProgram;
+
 	/**
 	 * All identifiers. Must be lowercase.
 	 */
 	private List<String> identifiers;
 
+	/**
+	 * Notified when the identifiers change. Not persisted.
+	 */
+	private IdentifiablesListener identifiablesListener;
+
 	/**
 	 * It is being displayed when the named object is inspected or suggests the
 	 * default text to be displayed if {@code null}.
@@ -81,6 +93,7 @@ public abstract class InspectableObject extends NamedDescribedObject implements
 	@Override
 	public void addAdditionalInspectAction(AbstractAction action) {
 		additionalInspectActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	/**
@@ -89,6 +102,9 @@ public abstract class InspectableObject extends NamedDescribedObject implements
 	@Override
 	public final void addIdentifier(String name) {
 		identifiers.add(name.toLowerCase());
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiersChanged(this);
+		}
 	}
 
 	@Override
@@ -116,6 +132,14 @@ public abstract class InspectableObject extends NamedDescribedObject implements
 	@Override
 	public void setIdentifiers(List<String> identifiers) {
 		this.identifiers = identifiers;
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiersChanged(this);
+		}
+	}
+
+	@Override
+	public void setIdentifiablesListener(IdentifiablesListener listener) {
+		this.identifiablesListener = listener;
 	}
 
 	@Override
@@ -135,19 +159,21 @@ public abstract class InspectableObject extends NamedDescribedObject implements
 	public void inspect(Game game) {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Inspecting {0}", this);
 
-		for (AbstractAction abstractAction : additionalInspectActions) {
-			abstractAction.triggerAction(game);
-		}
+		additionalInspectProgram = ActionProgram.of(additionalInspectProgram, additionalInspectActions);
+		additionalInspectProgram.trigger(game);
 	}
 
 	@Override
 	public void removeAdditionalInspectAction(AbstractAction action) {
 		additionalInspectActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
 	public void removeIdentifier(String name) {
-		identifiers.remove(name);
+		if (identifiers.remove(name) && identifiablesListener != null) {
+			identifiablesListener.identifiersChanged(this);
+		}
 	}
 
 	@Override
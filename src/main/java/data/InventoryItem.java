@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,6 +21,7 @@ import javax.persistence.OneToMany;
 import javax.persistence.Transient;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.action.RemoveInventoryItemAction;
 import data.interfaces.Combinable;
 import data.interfaces.PassivelyUsable;
@@ -34,6 +36,12 @@ import data.interfaces.UsableWithSomething;
 @Access(AccessType.PROPERTY)
 public class InventoryItem extends UsableObject implements UsableWithSomething, Combinable<InventoryItem> {
 
+	/**
+	 * Increased whenever information for combining or using inventory items
+	 * is added.
+	 */
+	private static final AtomicInteger COMBINATIONS_VERSION = new AtomicInteger();
+
 	/**
 	 * An inventory item can be combined with others. For each inventory item
 	 * there is additional information about the usability, etc. The method
@@ -132,11 +140,13 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 	@Override
 	public void addAdditionalActionToCombineWith(Combinable<InventoryItem> partner, AbstractAction action) {
 		getCombineInformation(partner).additionalCombineWithActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
 	public void addAdditionalActionToUseWith(PassivelyUsable object, AbstractAction action) {
 		getUseWithInformation(object).additionalUseWithActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -154,12 +164,38 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 		getUseWithInformation(object).additionalUseWithCommands.add(command);
 	}
 
+	/**
+	 * Used to find out if a {@link CombinationIndex} is outdated. Loading
+	 * inventory items does not change the version.
+	 * 
+	 * @return a number that changes whenever information for combining or
+	 *         using inventory items is added.
+	 */
+	public static int getCombinationsVersion() {
+		return COMBINATIONS_VERSION.get();
+	}
+
 	@Override
 	public void combineWith(Combinable<InventoryItem> partner, Game game) {
-		CombineInformation combination = getCombineInformation(partner);
+		combineWith(partner, getCombineInformation(partner), game);
+	}
+
+	/**
+	 * Combines this item with another.
+	 * 
+	 * @param partner
+	 *            the partner
+	 * @param combination
+	 *            the information for combining both
+	 * @param game
+	 *            the game
+	 */
+	void combineWith(Combinable<InventoryItem> partner, CombineInformation combination, Game game) {
 		if (combination.enabled) {
-			Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Combining {0} with {1}",
-					new Object[] { this, partner });
+			Logger logger = Logger.getLogger(this.getClass().getName());
+			if (logger.isLoggable(Level.FINE)) {
+				logger.log(Level.FINE, "Combining {0} with {1}", new Object[] { this, partner });
+			}
 
 			// Add new inventory items
 			combination.addInventoryItemsAction.triggerAction(game);
@@ -180,9 +216,9 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 			}
 		}
 		// Trigger all additional actions
-		for (AbstractAction abstractAction : combination.additionalCombineWithActions) {
-			abstractAction.triggerAction(game);
-		}
+		combination.additionalCombineWithProgram = ActionProgram.of(combination.additionalCombineWithProgram,
+				combination.additionalCombineWithActions);
+		combination.additionalCombineWithProgram.trigger(game);
 	}
 
 	@Override
@@ -195,6 +231,7 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 	@Transient
 	public void setAdditionalActionsFromCombineWith(Combinable<InventoryItem> partner, List<AbstractAction> actions) {
 		getCombineInformation(partner).additionalCombineWithActions = actions;
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -207,6 +244,7 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 	@Transient
 	public void setAdditionalActionsFromUseWith(PassivelyUsable object, List<AbstractAction> actions) {
 		getUseWithInformation(object).additionalUseWithActions = actions;
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -277,11 +315,13 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 	@Override
 	public void removeAdditionalActionFromCombineWith(Combinable<InventoryItem> partner, AbstractAction action) {
 		getCombineInformation(partner).additionalCombineWithActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
 	public void removeAdditionalActionFromUseWith(PassivelyUsable object, AbstractAction action) {
 		getUseWithInformation(object).additionalUseWithActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -342,14 +382,30 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 
 	@Override
 	public void useWith(PassivelyUsable object, Game game) {
+		useWith(object, getUseWithInformation(object), game);
+	}
+
+	/**
+	 * Uses this item with an object.
+	 * 
+	 * @param object
+	 *            the object
+	 * @param information
+	 *            the information for using this item with the object
+	 * @param game
+	 *            the game
+	 */
+	void useWith(PassivelyUsable object, UseWithInformation information, Game game) {
 		// There is no "primary" action, so no "isEnabled" check
-		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Using {0} with {1}",
-				new Object[] { this, object });
+		Logger logger = Logger.getLogger(this.getClass().getName());
+		if (logger.isLoggable(Level.FINE)) {
+			logger.log(Level.FINE, "Using {0} with {1}", new Object[] { this, object });
+		}
 
 		// Trigger all additional actions
-		for (AbstractAction abstractAction : getUseWithInformation(object).additionalUseWithActions) {
-			abstractAction.triggerAction(game);
-		}
+		information.additionalUseWithProgram = ActionProgram.of(information.additionalUseWithProgram,
+				information.additionalUseWithActions);
+		information.additionalUseWithProgram.trigger(game);
 	}
 
 	/**
@@ -370,6 +426,7 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 				combineInformation.put((InventoryItem) item, result = new CombineInformation());
 				// And synchronize other map
 				((InventoryItem) item).combineInformation.put(this, result);
+				COMBINATIONS_VERSION.incrementAndGet();
 			}
 			return result;
 		} else {
@@ -394,6 +451,7 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 			if (result == null) {
 				// Create a new mapping
 				additionalCombineCommands.put((InventoryItem) item, result = new CombineCommands());
+				COMBINATIONS_VERSION.incrementAndGet();
 			}
 			return result;
 		} else {
@@ -420,6 +478,7 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 			if (result == null) {
 				// Cast to NamedDescribedObject.
 				useWithInformation.put((NamedDescribedObject) object, result = new UseWithInformation());
+				COMBINATIONS_VERSION.incrementAndGet();
 			}
 		} else {
 			Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
@@ -477,6 +536,24 @@ public class InventoryItem extends UsableObject implements UsableWithSomething,
 		return new ArrayList<>(combineInformation.keySet());
 	}
 
+	/**
+	 * Adds the information for combining and using this item to an index.
+	 * 
+	 * @param index
+	 *            the index
+	 */
+	void addTo(CombinationIndex index) {
+		for (Map.Entry<InventoryItem, CombineInformation> entry : combineInformation.entrySet()) {
+			index.putCombination(this, entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<InventoryItem, CombineCommands> entry : additionalCombineCommands.entrySet()) {
+			index.putCombineCommands(this, entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<NamedDescribedObject, UseWithInformation> entry : useWithInformation.entrySet()) {
+			index.putUsage(this, entry.getKey(), entry.getValue());
+		}
+	}
+
 	/**
 	 * Initializes the fields.
 	 */
@@ -20,6 +20,7 @@ import javax.persistence.PreRemove;
 import javax.persistence.Transient;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.action.AddInventoryItemsAction;
 import data.action.ChangeItemAction;
 import data.interfaces.HasLocation;
@@ -57,6 +58,11 @@ public class Item extends UsableObject implements Takeable, HasLocation, Passive
 	 */
 	private List<AbstractAction> additionalTakeActions;
 
+	/**
+	 * The additional take actions, compiled.
+	 */
+	private ActionProgram additionalTakeProgram;
+
 	/**
 	 * All additional take commands.
 	 */
@@ -153,6 +159,7 @@ public class Item extends UsableObject implements Takeable, HasLocation, Passive
 	@Override
 	public void addAdditionalTakeAction(AbstractAction action) {
 		additionalTakeActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -239,6 +246,7 @@ public class Item extends UsableObject implements Takeable, HasLocation, Passive
 	@Override
 	public void removeAdditionalTakeAction(AbstractAction action) {
 		additionalTakeActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -312,9 +320,8 @@ public class Item extends UsableObject implements Takeable, HasLocation, Passive
 			addInventoryItemsAction.triggerAction(game);
 			removeAction.triggerAction(game);
 		}
-		for (AbstractAction abstractAction : additionalTakeActions) {
-			abstractAction.triggerAction(game);
-		}
+		additionalTakeProgram = ActionProgram.of(additionalTakeProgram, additionalTakeActions);
+		additionalTakeProgram.trigger(game);
 	}
 
 	/**
@@ -2,6 +2,7 @@ package data;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.Access;
 import javax.persistence.AccessType;
@@ -14,6 +15,8 @@ import javax.persistence.PreRemove;
 import javax.persistence.Transient;
 
 import data.interfaces.HasLocation;
+import data.interfaces.Identifiable;
+import data.interfaces.IdentifiablesListener;
 import data.interfaces.Inspectable;
 
 /**
@@ -27,6 +30,12 @@ import data.interfaces.Inspectable;
 @Access(AccessType.PROPERTY)
 public class Location extends NamedDescribedObject {
 
+	/**
+	 * Increased whenever a location is created or deleted or a way is added
+	 * to or removed from a location.
+	 */
+	private static final AtomicInteger WAYS_VERSION = new AtomicInteger();
+
 	/**
 	 * The items located here.
 	 */
@@ -61,6 +70,12 @@ public class Location extends NamedDescribedObject {
 	 */
 	private double yCoordinate;
 
+	/**
+	 * Notified when persons, items or ways out are added, removed or
+	 * reordered. Not persisted.
+	 */
+	private IdentifiablesListener identifiablesListener;
+
 	/**
 	 * No-arg constructor for the database.
 	 *
@@ -80,6 +95,20 @@ public class Location extends NamedDescribedObject {
 	public Location(String name, String description) {
 		super(name, description);
 		init();
+		WAYS_VERSION.incrementAndGet();
+	}
+
+	/**
+	 * Used to find out if lookup structures built from the ways of all
+	 * locations are outdated. Loading locations and ways does not change the
+	 * version.
+	 * 
+	 * @return the version of the ways, which changes whenever a location is
+	 *         created or deleted or a way is added to or removed from a
+	 *         location.
+	 */
+	public static int getWaysVersion() {
+		return WAYS_VERSION.get();
 	}
 
 	/**
@@ -92,6 +121,7 @@ public class Location extends NamedDescribedObject {
 	void addItem(Item item) {
 		if (!this.items.contains(item)) {
 			this.items.add(item);
+			notifyAdded(item);
 		}
 	}
 
@@ -105,6 +135,7 @@ public class Location extends NamedDescribedObject {
 	void addPerson(Person person) {
 		if (!this.persons.contains(person)) {
 			this.persons.add(person);
+			notifyAdded(person);
 		}
 	}
 
@@ -118,6 +149,7 @@ public class Location extends NamedDescribedObject {
 	void addWayIn(Way wayIn) {
 		if (!this.waysIn.contains(wayIn)) {
 			this.waysIn.add(wayIn);
+			WAYS_VERSION.incrementAndGet();
 		}
 	}
 
@@ -131,6 +163,8 @@ public class Location extends NamedDescribedObject {
 	void addWayOut(Way wayOut) {
 		if (!this.waysOut.contains(wayOut)) {
 			this.waysOut.add(wayOut);
+			WAYS_VERSION.incrementAndGet();
+			notifyAdded(wayOut);
 		}
 	}
 
@@ -249,6 +283,7 @@ public class Location extends NamedDescribedObject {
 	public void updateItems(List<Item> newItems) {
 		items.clear();
 		items.addAll(newItems);
+		notifyReordered();
 	}
 
 	/**
@@ -271,6 +306,7 @@ public class Location extends NamedDescribedObject {
 	public void updatePersons(List<Person> newPersons) {
 		persons.clear();
 		persons.addAll(newPersons);
+		notifyReordered();
 	}
 
 	/**
@@ -293,6 +329,7 @@ public class Location extends NamedDescribedObject {
 	public void updateWaysOut(List<Way> newWays) {
 		waysOut.clear();
 		waysOut.addAll(newWays);
+		notifyReordered();
 	}
 
 	/**
@@ -324,6 +361,7 @@ public class Location extends NamedDescribedObject {
 	@Deprecated
 	private void setItems(List<Item> items) {
 		this.items = items;
+		notifyReordered();
 	}
 
 	/**
@@ -333,6 +371,7 @@ public class Location extends NamedDescribedObject {
 	@Deprecated
 	private void setPersons(List<Person> persons) {
 		this.persons = persons;
+		notifyReordered();
 	}
 
 	/**
@@ -351,6 +390,7 @@ public class Location extends NamedDescribedObject {
 	@Deprecated
 	private void setWaysOut(List<Way> waysOut) {
 		this.waysOut = waysOut;
+		notifyReordered();
 	}
 
 	/**
@@ -371,7 +411,9 @@ public class Location extends NamedDescribedObject {
 	 *            the item
 	 */
 	void removeItem(Item item) {
-		this.items.remove(item);
+		if (this.items.remove(item)) {
+			notifyRemoved(item);
+		}
 	}
 
 	/**
@@ -382,7 +424,9 @@ public class Location extends NamedDescribedObject {
 	 *            the person
 	 */
 	void removePerson(Person person) {
-		this.persons.remove(person);
+		if (this.persons.remove(person)) {
+			notifyRemoved(person);
+		}
 	}
 
 	/**
@@ -393,7 +437,9 @@ public class Location extends NamedDescribedObject {
 	 *            the way
 	 */
 	void removeWayIn(Way wayIn) {
-		this.waysIn.remove(wayIn);
+		if (this.waysIn.remove(wayIn)) {
+			WAYS_VERSION.incrementAndGet();
+		}
 	}
 
 	/**
@@ -404,7 +450,54 @@ public class Location extends NamedDescribedObject {
 	 *            the way
 	 */
 	void removeWayOut(Way wayOut) {
-		this.waysOut.remove(wayOut);
+		if (this.waysOut.remove(wayOut)) {
+			WAYS_VERSION.incrementAndGet();
+			notifyRemoved(wayOut);
+		}
+	}
+
+	/**
+	 * Sets the listener to be notified when persons, items or ways out are
+	 * added, removed or reordered. There can only be one listener at a time.
+	 * 
+	 * @param listener
+	 *            the listener or {@code null}
+	 */
+	public void setIdentifiablesListener(IdentifiablesListener listener) {
+		this.identifiablesListener = listener;
+	}
+
+	/**
+	 * Notifies the listener, if any, about an added object.
+	 * 
+	 * @param identifiable
+	 *            the object
+	 */
+	private void notifyAdded(Identifiable identifiable) {
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiableAdded(identifiable);
+		}
+	}
+
+	/**
+	 * Notifies the listener, if any, about a removed object.
+	 * 
+	 * @param identifiable
+	 *            the object
+	 */
+	private void notifyRemoved(Identifiable identifiable) {
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiableRemoved(identifiable);
+		}
+	}
+
+	/**
+	 * Notifies the listener, if any, that the lists have been reordered.
+	 */
+	private void notifyReordered() {
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiablesReordered();
+		}
 	}
 
 	/**
@@ -425,6 +518,7 @@ public class Location extends NamedDescribedObject {
 		for(Way w : waysOut) {
 			w.setOriginDeleted();
 		}
+		WAYS_VERSION.incrementAndGet();
 	}
 
 }
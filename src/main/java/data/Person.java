@@ -12,7 +12,6 @@ import javax.persistence.ManyToOne;
 import javax.persistence.PreRemove;
 import javax.persistence.Transient;
 
-import data.action.AbstractAction;
 import data.interfaces.HasConversation;
 import data.interfaces.HasLocation;
 import data.interfaces.PassivelyUsable;
@@ -200,10 +199,7 @@ public class Person extends InspectableObject implements HasLocation, HasConvers
 			Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Talking to {0}", this);
 		}
 		if (conversation != null) {
-			// Trigger additional actions
-			for (AbstractAction abstractAction : conversation.getAdditionalActions()) {
-				abstractAction.triggerAction(game);
-			}
+			conversation.triggerAdditionalActions(game);
 		}
 	}
 
@@ -1,19 +1,24 @@
 package data;
 
 import data.interfaces.HasId;
+import data.interfaces.IdentifiablesListener;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.persistence.CascadeType;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.Transient;
 
 /**
  * A player. There is exactly one player per game.
@@ -49,12 +54,26 @@ public class Player implements HasId {
 	@JoinColumn(nullable = true)
 	private Location location;
 
+	/**
+	 * The ids of the locations the player has been to and left. Ids instead of
+	 * the locations, so that locations can still be deleted in the editor.
+	 */
+	@ElementCollection
+	private final Set<Integer> visitedLocations;
+
+	/**
+	 * Notified when inventory items are added or removed or the player moves.
+	 */
+	@Transient
+	private IdentifiablesListener identifiablesListener;
+
 	/**
 	 * Creates a player with no location yet. It will be transferred to the
 	 * game's starting location if a new game is started.
 	 */
 	public Player() {
 		inventory = new ArrayList<>();
+		visitedLocations = new HashSet<>();
 	}
 
 	/**
@@ -67,6 +86,9 @@ public class Player implements HasId {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Adding inventory item {0}", item);
 
 		this.inventory.add(item);
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiableAdded(item);
+		}
 	}
 
 	@Override
@@ -88,6 +110,16 @@ public class Player implements HasId {
 		return location;
 	}
 
+	/**
+	 * @param location
+	 *            the location
+	 * @return if the player is or has been at the location. Moves before
+	 *         this was recorded are not known.
+	 */
+	public boolean hasVisited(Location location) {
+		return location == this.location || visitedLocations.contains(location.getId());
+	}
+
 	/**
 	 * Removes an item from the inventory.
 	 *
@@ -96,7 +128,20 @@ public class Player implements HasId {
 	 */
 	public void removeInventoryItem(InventoryItem item) {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Removing inventory item {0}", item);
-		this.inventory.remove(item);
+		if (this.inventory.remove(item) && identifiablesListener != null) {
+			identifiablesListener.identifiableRemoved(item);
+		}
+	}
+
+	/**
+	 * Sets the listener to be notified when inventory items are added or
+	 * removed or the player moves. There can only be one listener at a time.
+	 * 
+	 * @param listener
+	 *            the listener or {@code null}
+	 */
+	public void setIdentifiablesListener(IdentifiablesListener listener) {
+		this.identifiablesListener = listener;
 	}
 
 	/**
@@ -105,7 +150,15 @@ public class Player implements HasId {
 	 */
 	public void setLocation(Location location) {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Moving player to {0}", location);
+		// The current location counts as visited anyway. It is recorded when
+		// leaving it, since it may not have been persisted and have no id yet.
+		if (this.location != null && this.location.getId() != 0) {
+			visitedLocations.add(this.location.getId());
+		}
 		this.location = location;
+		if (identifiablesListener != null) {
+			identifiablesListener.identifiablesReordered();
+		}
 	}
 
 	/**
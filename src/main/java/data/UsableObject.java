@@ -17,6 +17,7 @@ import javax.persistence.ManyToMany;
 import javax.persistence.OrderColumn;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.interfaces.Usable;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -42,6 +43,11 @@ public abstract class UsableObject extends InspectableObject implements Usable {
 	 */
 	private List<AbstractAction> additionalUseActions;
 
+	/**
+	 * The additional use actions, compiled.
+	 */
+	private ActionProgram additionalUseProgram;
+
 	/**
 	 * All additional use commands.
 	 */
@@ -95,6 +101,7 @@ public abstract class UsableObject extends InspectableObject implements Usable {
 	@Override
 	public void addAdditionalUseAction(AbstractAction action) {
 		additionalUseActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -171,6 +178,7 @@ public abstract class UsableObject extends InspectableObject implements Usable {
 	@Override
 	public void removeAdditionalUseAction(AbstractAction action) {
 		additionalUseActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -198,9 +206,8 @@ public abstract class UsableObject extends InspectableObject implements Usable {
 		// There is no "primary" action, so no "isEnabled" check
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Using {0}", this);
 
-		for (AbstractAction abstractAction : additionalUseActions) {
-			abstractAction.triggerAction(game);
-		}
+		additionalUseProgram = ActionProgram.of(additionalUseProgram, additionalUseActions);
+		additionalUseProgram.trigger(game);
 	}
 
 	/**
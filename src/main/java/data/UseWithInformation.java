@@ -13,8 +13,10 @@ import javax.persistence.Id;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.OrderColumn;
+import javax.persistence.Transient;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.interfaces.HasId;
 import data.interfaces.PassivelyUsable;
 
@@ -40,6 +42,12 @@ class UseWithInformation implements HasId {
 	@OrderColumn
 	List<AbstractAction> additionalUseWithActions;
 
+	/**
+	 * The additional use with actions, compiled.
+	 */
+	@Transient
+	ActionProgram additionalUseWithProgram;
+
 	/**
 	 * All additional useWith commands.
 	 */
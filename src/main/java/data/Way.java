@@ -19,9 +19,11 @@ import javax.persistence.PreRemove;
 import javax.persistence.Transient;
 
 import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.action.MoveAction;
 import data.interfaces.PassivelyUsable;
 import data.interfaces.Travelable;
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
@@ -42,6 +44,11 @@ public class Way extends InspectableObject implements Travelable, PassivelyUsabl
 	 */
 	private List<AbstractAction> additionalMoveActions;
 
+	/**
+	 * The additional move actions, compiled.
+	 */
+	private ActionProgram additionalMoveProgram;
+
 	/**
 	 * All additional move commands.
 	 */
@@ -127,6 +134,7 @@ public class Way extends InspectableObject implements Travelable, PassivelyUsabl
 	@Override
 	public void addAdditionalMoveAction(AbstractAction action) {
 		additionalMoveActions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -190,6 +198,13 @@ public class Way extends InspectableObject implements Travelable, PassivelyUsabl
 	public boolean isMovingEnabled() {
 		return moveAction.getEnabled();
 	}
+
+	/**
+	 * @return the moving enabled property
+	 */
+	public BooleanProperty movingEnabledProperty() {
+		return moveAction.enabledProperty();
+	}
 	
 	/**
 	 * @return the move forbidden text property
@@ -208,6 +223,7 @@ public class Way extends InspectableObject implements Travelable, PassivelyUsabl
 	@Override
 	public void removeAdditionalMoveAction(AbstractAction action) {
 		additionalMoveActions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	@Override
@@ -300,8 +316,7 @@ public class Way extends InspectableObject implements Travelable, PassivelyUsabl
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Travelling (if enabled) over {0}", this);
 
 		moveAction.triggerAction(game);
-		for (AbstractAction abstractAction : additionalMoveActions) {
-			abstractAction.triggerAction(game);
-		}
+		additionalMoveProgram = ActionProgram.of(additionalMoveProgram, additionalMoveActions);
+		additionalMoveProgram.trigger(game);
 	}
 }
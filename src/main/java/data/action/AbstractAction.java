@@ -14,6 +14,8 @@ import data.Game;
 import data.NamedObject;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import logging.Instrumentation;
+import logging.Instrumentation.Stage;
 
 /**
  * Any action that changes something in the game (if enabled).
@@ -141,7 +143,12 @@ public abstract class AbstractAction extends NamedObject {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Triggering action {0}", this);
 
 		if (enabled.get()) {
-			doAction(game);
+			long start = Instrumentation.enter(Stage.ACTIONS);
+			try {
+				doAction(game);
+			} finally {
+				Instrumentation.exit(Stage.ACTIONS, start);
+			}
 		}
 	}
 
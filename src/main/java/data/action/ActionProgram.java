@@ -0,0 +1,186 @@
+package data.action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import data.Game;
+import logging.Instrumentation;
+import logging.Instrumentation.Stage;
+
+/**
+ * A list of actions compiled into a flat sequence of steps, so that
+ * triggering them does not need to navigate the embedded actions of
+ * {@link MultiAction}s again.
+ *
+ * Triggering the program has the same effect as triggering each action of
+ * the list: the actions of the list are only executed if they are enabled,
+ * while the embedded actions of a multi action are executed no matter if
+ * they are enabled. The enabled state is not compiled, so that changing it,
+ * e.g. with a {@link ChangeActionAction}, needs no recompilation.
+ *
+ * Adding actions to or removing them from a list or a multi action, or
+ * reordering a list in place, must call {@link #invalidateAll()}. Then all
+ * programs are compiled again when they are triggered next. The setters of
+ * the lists do not, since the DB calls them whenever an object is loaded, and
+ * a program is compiled again anyway, if its list was replaced.
+ *
+ * @author Satia
+ */
+public final class ActionProgram {
+
+	/**
+	 * Increased whenever the structure of any actions changes.
+	 */
+	private static final AtomicInteger GENERATION = new AtomicInteger();
+
+	/**
+	 * The list the program was compiled from.
+	 */
+	private final List<AbstractAction> source;
+
+	/**
+	 * The generation the program was compiled in.
+	 */
+	private final int generation;
+
+	/**
+	 * The actions of the list, whose enabled states decide if their steps are
+	 * executed.
+	 */
+	private final AbstractAction[] guards;
+
+	/**
+	 * The index after the last step of each guard.
+	 */
+	private final int[] stepsEnd;
+
+	/**
+	 * The actions actually executed, without multi actions.
+	 */
+	private final AbstractAction[] steps;
+
+	/**
+	 * Compiles a list of actions.
+	 *
+	 * @param source
+	 *            the actions
+	 */
+	private ActionProgram(List<AbstractAction> source) {
+		this.source = source;
+		this.generation = GENERATION.get();
+		this.guards = source.toArray(new AbstractAction[source.size()]);
+		this.stepsEnd = new int[guards.length];
+
+		List<AbstractAction> steps = new ArrayList<>(guards.length);
+		Set<AbstractAction> path = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (int i = 0; i < guards.length; i++) {
+			addSteps(guards[i], steps, path);
+			stepsEnd[i] = steps.size();
+		}
+		this.steps = steps.toArray(new AbstractAction[steps.size()]);
+	}
+
+	/**
+	 * Adds the steps executing an action.
+	 *
+	 * @param action
+	 *            the action
+	 * @param steps
+	 *            the steps so far
+	 * @param path
+	 *            the multi actions currently being compiled
+	 */
+	private static void addSteps(AbstractAction action, List<AbstractAction> steps, Set<AbstractAction> path) {
+		if (!(action instanceof MultiAction)) {
+			steps.add(action);
+			return;
+		}
+		if (!path.add(action)) {
+			Logger.getLogger(ActionProgram.class.getName()).log(Level.WARNING,
+					"{0} contains itself. The repeated actions are left out.", action);
+			return;
+		}
+		for (AbstractAction embedded : ((MultiAction) action).getActions()) {
+			addSteps(embedded, steps, path);
+		}
+		path.remove(action);
+	}
+
+	/**
+	 * Obtains a program for a list of actions, reusing the previous program
+	 * if it is still up to date.
+	 *
+	 * @param program
+	 *            the previous program for the list or {@code null}
+	 * @param actions
+	 *            the actions
+	 * @return the program
+	 */
+	public static ActionProgram of(ActionProgram program, List<AbstractAction> actions) {
+		if (program != null && program.source == actions && program.generation == GENERATION.get()
+				&& program.guards.length == actions.size()) {
+			return program;
+		}
+		return new ActionProgram(actions);
+	}
+
+	/**
+	 * Marks all programs as outdated. Must be called whenever actions are
+	 * added to or removed from a list of actions or a multi action.
+	 */
+	public static void invalidateAll() {
+		GENERATION.incrementAndGet();
+	}
+
+	/**
+	 * Triggers the actions, like {@link AbstractAction#triggerAction(Game)}
+	 * would trigger each of them.
+	 *
+	 * @param game
+	 *            a reference to the game, needed for some actions.
+	 */
+	public void trigger(Game game) {
+		if (guards.length == 0) {
+			return;
+		}
+		Logger logger = Logger.getLogger(ActionProgram.class.getName());
+		boolean logging = logger.isLoggable(Level.FINE);
+		long start = Instrumentation.enter(Stage.ACTIONS);
+		try {
+			int step = 0;
+			for (int i = 0; i < guards.length; i++) {
+				// Enabling is decided once, before any step of the action
+				if (guards[i].enabled.get()) {
+					if (logging) {
+						logger.log(Level.FINE, "Triggering action {0}", guards[i]);
+					}
+					for (; step < stepsEnd[i]; step++) {
+						steps[step].doAction(game);
+					}
+				}
+				step = stepsEnd[i];
+			}
+		} finally {
+			Instrumentation.exit(Stage.ACTIONS, start);
+		}
+	}
+
+	/**
+	 * Executes all steps, no matter if the actions are enabled, like
+	 * {@link MultiAction} executes its embedded actions.
+	 *
+	 * @param game
+	 *            a reference to the game, needed for some actions.
+	 */
+	void execute(Game game) {
+		for (AbstractAction step : steps) {
+			step.doAction(game);
+		}
+	}
+}
@@ -34,6 +34,11 @@ public class MultiAction extends AbstractAction {
 	 */
 	private List<AbstractAction> actions;
 
+	/**
+	 * The embedded actions, compiled.
+	 */
+	private ActionProgram program;
+
 	/**
 	 * No-arg constructor for the database.
 	 * 
@@ -87,6 +92,7 @@ public class MultiAction extends AbstractAction {
 	 */
 	public void addAction(AbstractAction action) {
 		actions.add(action);
+		ActionProgram.invalidateAll();
 	}
 
 	/**
@@ -97,6 +103,7 @@ public class MultiAction extends AbstractAction {
 	 */
 	public void removeAction(AbstractAction action) {
 		actions.remove(action);
+		ActionProgram.invalidateAll();
 	}
 
 	/**
@@ -112,13 +119,12 @@ public class MultiAction extends AbstractAction {
 
 	@Override
 	protected void doAction(Game game) {
-		for (AbstractAction action : actions) {
-			// doAction instead of triggerAction:
-			// like this enabled/disabled does not matter and
-			// if the action IDs of triggered actions are saved
-			// there are no multiple entries
-			action.doAction(game);
-		}
+		// The embedded actions are executed, not triggered:
+		// like this enabled/disabled does not matter and
+		// if the action IDs of triggered actions are saved
+		// there are no multiple entries
+		program = ActionProgram.of(program, actions);
+		program.execute(game);
 	}
 
 	/**
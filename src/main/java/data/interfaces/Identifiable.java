@@ -33,4 +33,13 @@ public interface Identifiable extends HasName {
 	 *            the name
 	 */
 	public void removeIdentifier(String name);
+
+	/**
+	 * Sets the listener to be notified when the identifiers change. There can
+	 * only be one listener at a time.
+	 * 
+	 * @param listener
+	 *            the listener or {@code null}
+	 */
+	public void setIdentifiablesListener(IdentifiablesListener listener);
 }
\ No newline at end of file
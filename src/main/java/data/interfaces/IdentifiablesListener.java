@@ -0,0 +1,40 @@
+package data.interfaces;
+
+/**
+ * Gets notified when identifiable objects are added to or removed from a
+ * container (a location or the inventory) or when the identifiers of an
+ * identifiable object change. Used to keep lookup structures up to date.
+ * 
+ * @author Satia
+ */
+public interface IdentifiablesListener {
+
+	/**
+	 * An identifiable object was added at the end of a container.
+	 * 
+	 * @param identifiable
+	 *            the added object
+	 */
+	public void identifiableAdded(Identifiable identifiable);
+
+	/**
+	 * An identifiable object was removed from a container.
+	 * 
+	 * @param identifiable
+	 *            the removed object
+	 */
+	public void identifiableRemoved(Identifiable identifiable);
+
+	/**
+	 * The identifiers of an identifiable object were changed.
+	 * 
+	 * @param identifiable
+	 *            the changed object
+	 */
+	public void identifiersChanged(Identifiable identifiable);
+
+	/**
+	 * The contents of a container were reordered or replaced.
+	 */
+	public void identifiablesReordered();
+}
@@ -22,6 +22,8 @@ import data.Item;
 import data.Location;
 import data.Person;
 import data.Way;
+import data.action.AbstractAction;
+import data.action.ActionProgram;
 import data.action.AddInventoryItemsAction;
 import data.action.ChangeActionAction;
 import data.action.ChangeCombineInformationAction;
@@ -694,6 +696,23 @@ public abstract class GameDataController {
 		});
 	}
 
+	/**
+	 * Wraps a setter for a list of actions, so that all compiled
+	 * {@link ActionProgram}s are outdated when the list is reordered here. The
+	 * setters themselves do not do that, since the DB calls them whenever an
+	 * object is loaded.
+	 * 
+	 * @param setter
+	 *            the setter
+	 * @return the setter outdating the programs
+	 */
+	protected Consumer<List<AbstractAction>> reorderingActions(Consumer<List<AbstractAction>> setter) {
+		return (actions) -> {
+			setter.accept(actions);
+			ActionProgram.invalidateAll();
+		};
+	}
+
 	/**
 	 * Saves the index of the TabPane
 	 * 
@@ -2,6 +2,7 @@ package gui;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,6 +18,7 @@ import gui.toplevel.LocationsController;
 import gui.toplevel.OverviewController;
 import gui.toplevel.PersonsController;
 import gui.toplevel.WaysController;
+import gui.utility.BackgroundLoader;
 import gui.window.NavbarController;
 import gui.window.SidebarController;
 import javafx.application.Platform;
@@ -27,12 +29,15 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextArea;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Window;
 import javafx.util.Callback;
 import logic.CurrentGameManager;
+import logic.Finding;
+import logic.GameAnalyzer;
 import logic.JARCreator;
 import persistence.PersistenceManager;
 import playing.menu.LoadSaveManager;
@@ -52,6 +57,9 @@ public class MainWindowController {
 	/** The current game manager. */
 	private CurrentGameManager currentGameManager;
 
+	/** Loads the objects of the views in the background. */
+	private BackgroundLoader backgroundLoader;
+
 	// All controllers that can be loaded dynamically
 	private GameDetailsController gameDetailsController;
 	private OverviewController overviewController;
@@ -87,6 +95,9 @@ public class MainWindowController {
 	@FXML
 	private MenuItem playMenuItem;
 
+	@FXML
+	private MenuItem analyzeMenuItem;
+
 	@FXML
 	private VBox centerPane;
 
@@ -98,6 +109,7 @@ public class MainWindowController {
 	 */
 	public MainWindowController() {
 		currentGameManager = new CurrentGameManager();
+		backgroundLoader = new BackgroundLoader(currentGameManager.getPersistenceManager());
 	}
 
 	@FXML
@@ -110,6 +122,7 @@ public class MainWindowController {
 
 		gameMenu.setDisable(true);
 		playMenuItem.setOnAction((e) -> this.play());
+		analyzeMenuItem.setOnAction((e) -> this.analyze());
 
 		aboutMenuItem.setOnAction((e) -> about());
 	}
@@ -124,6 +137,13 @@ public class MainWindowController {
 		this.window = window;
 	}
 
+	/**
+	 * @return the loader for the objects of the views
+	 */
+	public BackgroundLoader getBackgroundLoader() {
+		return backgroundLoader;
+	}
+
 	/**
 	 * Load the view given by the fxml into the center of the main window's
 	 * border pane. With that fxml must be associated a controller implementing
@@ -144,6 +164,9 @@ public class MainWindowController {
 			throw new DetachedEntityException("An item seems to be detached from the database.");
 		}
 
+		// The previous view no longer needs its objects
+		backgroundLoader.cancelAll();
+
 		try {
 			// Load layout from fxml file.
 			FXMLLoader loader = new FXMLLoader();
@@ -174,6 +197,7 @@ public class MainWindowController {
 	 * Puts the GUI in a state like no game was loaded.
 	 */
 	private void unloadGameRelatedGUI() {
+		backgroundLoader.reset();
 		borderPane.setLeft(null);
 		borderPane.setCenter(null);
 		borderPane.setBottom(null);
@@ -415,6 +439,7 @@ public class MainWindowController {
 			}
 
 			try {
+				backgroundLoader.reset();
 				currentGameManager.open(file, creatingNew);
 			} catch (IOException | DBIncompatibleException e) {
 				String header = e instanceof IOException ? "Propably the file is already opened by another application."
@@ -463,10 +488,13 @@ public class MainWindowController {
 		// Ensure JARCReator does not crash if the Game-missing-db file is not
 		// present.
 		if (file != null) {
+			File snapshot = null;
 			try {
-				currentGameManager.disconnectDoReconnect(() -> {
-					JARCreator.copyGameDBIntoGameJAR(currentGameManager.getOpenFile(), file);
-				});
+				// Export the latest state, without closing the game file
+				snapshot = File.createTempFile("tam", LoadSaveManager.H2_ENDING);
+				backgroundLoader.awaitIdle();
+				currentGameManager.copyOpenFile(snapshot);
+				JARCreator.copyGameDBIntoGameJAR(snapshot, file);
 				// Show a success message.
 				Alert alert = new TAMAlert(AlertType.INFORMATION);
 				alert.setTitle("Export Successful");
@@ -483,11 +511,11 @@ public class MainWindowController {
 				alert.setContentText("Make sure that the file \"Game_missing_db.jar\" is present "
 						+ "in the same folder as the executable of TextAdventureMaker.");
 				alert.showAndWait();
+			} finally {
+				if (snapshot != null) {
+					snapshot.delete();
+				}
 			}
-			// After that, the DB has been reconnected and the GUI is
-			// in a detached state.
-			// Therefore, we reset the GUI state.
-			resetCenterGUI();
 		}
 	}
 
@@ -496,6 +524,7 @@ public class MainWindowController {
 	 */
 	private void play() {
 		try {
+			backgroundLoader.awaitIdle();
 			currentGameManager.playGame();
 		} catch (IOException e) {
 			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not copy db file.", e);
@@ -506,10 +535,81 @@ public class MainWindowController {
 			alert.setContentText(e.getMessage());
 			alert.showAndWait();
 		}
-		// After that, the DB has been reconnected and the GUI is
-		// in a detached state.
-		// Therefore, we reset the GUI state.
-		resetCenterGUI();
+	}
+
+	/**
+	 * Analyzes the latest state of the loaded game in the background and
+	 * shows the problems found.
+	 */
+	private void analyze() {
+		File snapshot;
+		try {
+			snapshot = File.createTempFile("tam", LoadSaveManager.H2_ENDING);
+			backgroundLoader.awaitIdle();
+			currentGameManager.copyOpenFile(snapshot);
+		} catch (IOException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not copy db file.", e);
+			showAnalysisError(e);
+			return;
+		}
+
+		analyzeMenuItem.setDisable(true);
+		Thread t = new Thread(() -> {
+			try {
+				List<Finding> findings = GameAnalyzer.analyze(snapshot.toURI().toURL());
+				Platform.runLater(() -> showFindings(findings));
+			} catch (IOException | DBIncompatibleException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not analyze the game.", e);
+				Platform.runLater(() -> showAnalysisError(e));
+			} finally {
+				snapshot.delete();
+				Platform.runLater(() -> analyzeMenuItem.setDisable(false));
+			}
+		}, "Game analyzer");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * Shows the problems found in the game.
+	 * 
+	 * @param findings
+	 *            the problems
+	 */
+	private void showFindings(List<Finding> findings) {
+		Alert alert = new TAMAlert(AlertType.INFORMATION);
+		alert.setTitle("Game analysis");
+		if (findings.isEmpty()) {
+			alert.setHeaderText("No problems found.");
+		} else {
+			alert.setHeaderText(findings.size() + " problems found.");
+			alert.setContentText("Players might not be able to finish the game.");
+
+			StringBuilder text = new StringBuilder();
+			for (Finding finding : findings) {
+				text.append(finding).append('\n');
+			}
+			TextArea textArea = new TextArea(text.toString());
+			textArea.setEditable(false);
+			textArea.setWrapText(true);
+			alert.getDialogPane().setExpandableContent(textArea);
+			alert.getDialogPane().setExpanded(true);
+		}
+		alert.showAndWait();
+	}
+
+	/**
+	 * Shows that the game could not be analyzed.
+	 * 
+	 * @param e
+	 *            the reason
+	 */
+	private void showAnalysisError(Exception e) {
+		Alert alert = new TAMAlert(AlertType.ERROR);
+		alert.setTitle("Could not analyze the game");
+		alert.setHeaderText("While analyzing the game, an error ocurred:");
+		alert.setContentText(e.getMessage());
+		alert.showAndWait();
 	}
 
 	/**
@@ -528,6 +628,7 @@ public class MainWindowController {
 	 * Called when the main window is closed. Cleans up and then exits.
 	 */
 	public void close() {
+		backgroundLoader.reset();
 		currentGameManager.close();
 		Platform.exit();
 	}
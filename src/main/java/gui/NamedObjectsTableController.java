@@ -11,8 +11,10 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
@@ -67,15 +69,24 @@ public abstract class NamedObjectsTableController<E extends NamedObject> extends
 
 		// Get all objects and store in observable list, unless the list is
 		// already propagated
-		try {
+		if (getObjectsType() != null) {
 			if (objectsOL == null) {
-				objectsOL = FXCollections.observableArrayList(getAllObjects());
+				objectsOL = FXCollections.observableArrayList();
 			} else {
-				objectsOL.setAll(getAllObjects());
+				objectsOL.clear();
+			}
+			loadObjects();
+		} else {
+			try {
+				if (objectsOL == null) {
+					objectsOL = FXCollections.observableArrayList(getAllObjects());
+				} else {
+					objectsOL.setAll(getAllObjects());
+				}
+			} catch (DBClosedException e1) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Abort: DB closed");
+				return;
 			}
-		} catch (DBClosedException e1) {
-			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Abort: DB closed");
-			return;
 		}
 
 		// Filter
@@ -106,7 +117,40 @@ public abstract class NamedObjectsTableController<E extends NamedObject> extends
 	}
 
 	/**
-	 * Get a list of all objects to display in the table
+	 * Loads the objects to display in the background, adding them to the
+	 * table page by page. Until all are loaded, the progress is shown instead
+	 * of an empty table, and the table is disabled and no objects can be
+	 * created, so that no objects are opened and changed while the DB is
+	 * used in the background.
+	 */
+	private void loadObjects() {
+		Task<List<E>> task = mwController.getBackgroundLoader().load(getObjectsType(), this::getAllObjects,
+				objectsOL::addAll, (objects) -> {
+					table.setPlaceholder(null);
+					table.setDisable(false);
+					newButton.setDisable(false);
+				});
+		ProgressIndicator progress = new ProgressIndicator();
+		progress.progressProperty().bind(task.progressProperty());
+		table.setPlaceholder(progress);
+		table.setDisable(true);
+		newButton.setDisable(true);
+	}
+
+	/**
+	 * The type of the objects, if {@link #getAllObjects()} obtains all
+	 * objects of that type from the DB. Then they are loaded in the background
+	 * and shared with other views.
+	 * 
+	 * @return the type or {@code null}, if the objects are obtained directly
+	 */
+	protected Class<? super E> getObjectsType() {
+		return null;
+	}
+
+	/**
+	 * Get a list of all objects to display in the table. Called in the
+	 * background, if {@link #getObjectsType()} is not {@code null}.
 	 * 
 	 * @return the objects.
 	 * @throws DBClosedException
@@ -8,6 +8,7 @@ import javafx.beans.binding.DoubleBinding;
 import javafx.event.EventHandler;
 import javafx.scene.Cursor;
 import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
@@ -59,6 +60,16 @@ public class LocationRectangle extends StackPane {
 	 */
 	private Location location;
 
+	/**
+	 * The rectangle
+	 */
+	private Rectangle rectangle;
+
+	/**
+	 * Shown if the location cannot be reached from the start location.
+	 */
+	private Tooltip unreachableTooltip = new Tooltip("Not reachable from the start location");
+
 	/**
 	 * The center on the X axis.
 	 */
@@ -153,7 +164,7 @@ public class LocationRectangle extends StackPane {
 		this.rectangleAsDestination = rectangleAsDestination;
 
 		// The rectangle
-		Rectangle rectangle = new Rectangle(RECT_DIM, RECT_DIM);
+		rectangle = new Rectangle(RECT_DIM, RECT_DIM);
 		rectangle.setFill(Color.LIGHTGRAY);
 		rectangle.setStroke(Color.BLACK);
 
@@ -237,6 +248,23 @@ public class LocationRectangle extends StackPane {
 		getStyleClass().remove("selectedmapelement");
 	}
 
+	/**
+	 * Marks the rectangle if its location cannot be reached from the start
+	 * location.
+	 * 
+	 * @param reachable
+	 *            if the location can be reached
+	 */
+	public void setReachable(boolean reachable) {
+		if (reachable) {
+			rectangle.setFill(Color.LIGHTGRAY);
+			Tooltip.uninstall(this, unreachableTooltip);
+		} else {
+			rectangle.setFill(Color.LIGHTPINK);
+			Tooltip.install(this, unreachableTooltip);
+		}
+	}
+
 	/**
 	 * @return the centerX
 	 */
@@ -56,7 +56,7 @@ public class InspectableObjectController extends GameDataController {
 
 		inspectActionsListView.initialize(object.getAdditionalInspectActions(),
 				this.currentGameManager.getPersistenceManager().getActionManager()::getAllActions,
-				object::setAdditionalInspectActions, this::objectSelected, object::addAdditionalInspectAction,
+				reorderingActions(object::setAdditionalInspectActions), this::objectSelected, object::addAdditionalInspectAction,
 				object::removeAdditionalInspectAction);
 	}
 
@@ -83,7 +83,7 @@ public class UsableObjectController extends GameDataController {
 
 		useActionsListView.initialize(object.getAdditionalUseActions(),
 				this.currentGameManager.getPersistenceManager().getActionManager()::getAllActions,
-				object::setAdditionalUseActions, this::objectSelected, object::addAdditionalUseAction,
+				reorderingActions(object::setAdditionalUseActions), this::objectSelected, object::addAdditionalUseAction,
 				object::removeAdditionalUseAction);
 	}
 
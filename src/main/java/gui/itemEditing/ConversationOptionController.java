@@ -93,7 +93,7 @@ public class ConversationOptionController extends GameDataController {
 
 		actionsListView.initialize(option.getAdditionalActions(),
 				this.currentGameManager.getPersistenceManager().getActionManager()::getAllActions,
-				option::setAdditionalActions, this::objectSelected, option::addAdditionalAction,
+				reorderingActions(option::setAdditionalActions), this::objectSelected, option::addAdditionalAction,
 				option::removeAdditionalAction);
 	}
 
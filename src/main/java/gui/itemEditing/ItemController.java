@@ -125,7 +125,7 @@ public class ItemController extends GameDataController {
 
 		takeActionsListView.initialize(item.getAdditionalTakeActions(),
 				this.currentGameManager.getPersistenceManager().getActionManager()::getAllActions,
-				item::setAdditionalTakeActions, this::objectSelected, item::addAdditionalTakeAction,
+				reorderingActions(item::setAdditionalTakeActions), this::objectSelected, item::addAdditionalTakeAction,
 				item::removeAdditionalTakeAction);
 
 		takeCommandsLabel.setText("Additional commands for taking " + item.getName());
@@ -117,7 +117,7 @@ public class WayController extends GameDataController {
 
 		moveActionsListView.initialize(way.getAdditionalMoveActions(),
 				this.currentGameManager.getPersistenceManager().getActionManager()::getAllActions,
-				way::setAdditionalMoveActions, this::objectSelected, way::addAdditionalMoveAction,
+				reorderingActions(way::setAdditionalMoveActions), this::objectSelected, way::addAdditionalMoveAction,
 				way::removeAdditionalMoveAction);
 
 		saveTabIndex(tabPane);
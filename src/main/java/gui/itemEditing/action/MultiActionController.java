@@ -44,7 +44,7 @@ public class MultiActionController extends ActionController<MultiAction> {
 			List<AbstractAction> allActions = this.currentGameManager.getPersistenceManager().getActionManager().getAllActions();
 			// Filter out Multiactions to avoid recursion
 			return allActions.stream().filter((a)-> !(a instanceof MultiAction)).collect(Collectors.toList());
-		} , action::setActions, this::objectSelected, action::addAction, action::removeAction);
+		} , reorderingActions(action::setActions), this::objectSelected, action::addAction, action::removeAction);
 	}
 
 	/**
@@ -111,6 +111,11 @@ public class ActionsController extends NamedObjectsTableController<AbstractActio
 		return currentGameManager.getPersistenceManager().getActionManager().getAllActions();
 	}
 
+	@Override
+	protected Class<AbstractAction> getObjectsType() {
+		return AbstractAction.class;
+	}
+
 	@Override
 	protected void createObject() {
 		new NewActionWizard(currentGameManager).showAndGet().ifPresent(this::trySaveObject);
@@ -30,6 +30,11 @@ public class ConversationsController extends NamedObjectsTableController<Convers
 	protected List<Conversation> getAllObjects() throws DBClosedException {
 		return currentGameManager.getPersistenceManager().getConversationManager().getAllConversations();
 	}
+
+	@Override
+	protected Class<Conversation> getObjectsType() {
+		return Conversation.class;
+	}
 	
 	@Override
 	public boolean isObsolete() {
@@ -39,6 +39,11 @@ public class InventoryItemsController extends NamedDescribedObjectsController<In
 		return currentGameManager.getPersistenceManager().getInventoryItemManager().getAllInventoryItems();
 	}
 
+	@Override
+	protected Class<InventoryItem> getObjectsType() {
+		return InventoryItem.class;
+	}
+
 	@Override
 	public boolean isObsolete() {
 		return false;
@@ -39,6 +39,11 @@ public class ItemsController extends NamedDescribedObjectsController<Item> {
 		return currentGameManager.getPersistenceManager().getItemManager().getAllItems();
 	}
 
+	@Override
+	protected Class<Item> getObjectsType() {
+		return Item.class;
+	}
+
 	@Override
 	public boolean isObsolete() {
 		return false;
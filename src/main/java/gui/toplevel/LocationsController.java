@@ -39,6 +39,11 @@ public class LocationsController extends NamedDescribedObjectsController<Locatio
 		return currentGameManager.getPersistenceManager().getLocationManager().getAllLocations();
 	}
 
+	@Override
+	protected Class<Location> getObjectsType() {
+		return Location.class;
+	}
+
 	
 	@Override
 	public boolean isObsolete() {
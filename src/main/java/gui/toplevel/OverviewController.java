@@ -3,9 +3,11 @@ package gui.toplevel;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -13,15 +15,19 @@ import java.util.stream.Collectors;
 import data.Location;
 import data.Way;
 import exception.DBClosedException;
+import exception.DBIncompatibleException;
 import gui.GameDataController;
 import gui.MainWindowController;
 import gui.customui.LocationRectangle;
 import gui.customui.WayLine;
+import gui.utility.BackgroundLoader;
 import gui.wizards.NewNamedObjectWizard;
 import gui.wizards.NewWayWizard;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.Cursor;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
@@ -76,6 +82,9 @@ public class OverviewController extends GameDataController {
 	@FXML
 	private Button newLocationButton;
 
+	@FXML
+	private ProgressBar loadingProgressBar;
+
 	/**
 	 * @param currentGameManager
 	 *            the game manager
@@ -92,27 +101,39 @@ public class OverviewController extends GameDataController {
 		rectangles.clear();
 		lines.clear();
 
-		// Obtain all objects to display
-		List<Location> locations;
-		List<Way> ways;
-		try {
-			locations = currentGameManager.getPersistenceManager().getLocationManager().getAllLocations();
-			ways = currentGameManager.getPersistenceManager().getWayManager().getAllWays();
-		} catch (DBClosedException e1) {
-			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Abort: DB closed");
-			return;
-		}
-
-		// Create rectangles
-		for (Location l : locations) {
-			LocationRectangle lr = createLocationNode(l);
-			mapPane.getChildren().add(lr);
-		}
-
-		// Create lines
-		for (Way w : ways) {
-			addWayToMap(w);
-		}
+		// Obtain all objects to display in the background, the locations
+		// first, since the lines connect their rectangles
+		BackgroundLoader loader = mwController.getBackgroundLoader();
+		Task<List<Location>> locationsTask = loader.load(Location.class,
+				currentGameManager.getPersistenceManager().getLocationManager()::getAllLocations, (locations) -> {
+					// Create rectangles
+					for (Location l : locations) {
+						LocationRectangle lr = createLocationNode(l);
+						mapPane.getChildren().add(lr);
+					}
+				}, (locations) -> {
+					Task<List<Way>> waysTask = loader.load(Way.class,
+							currentGameManager.getPersistenceManager().getWayManager()::getAllWays, (ways) -> {
+								// Create lines
+								for (Way w : ways) {
+									addWayToMap(w);
+								}
+							}, (ways) -> {
+								markUnreachableLocations();
+								loadingProgressBar.progressProperty().unbind();
+								loadingProgressBar.setVisible(false);
+								mapPane.setDisable(false);
+								newWayButton.setDisable(false);
+								newLocationButton.setDisable(false);
+							});
+					showProgress(waysTask);
+				});
+		showProgress(locationsTask);
+		// Nothing can be moved, opened or created while loading, since that
+		// changes objects while the DB is used in the background
+		mapPane.setDisable(true);
+		newWayButton.setDisable(true);
+		newLocationButton.setDisable(true);
 
 		// The add buttons
 		newWayButton.setOnMouseClicked((e) -> {
@@ -123,6 +144,17 @@ public class OverviewController extends GameDataController {
 		});
 	}
 
+	/**
+	 * Shows the progress of loading the objects next to the buttons.
+	 * 
+	 * @param task
+	 *            the loading task
+	 */
+	private void showProgress(Task<?> task) {
+		loadingProgressBar.progressProperty().bind(task.progressProperty());
+		loadingProgressBar.setVisible(true);
+	}
+
 	@Override
 	public boolean isObsolete() {
 		return false;
@@ -258,6 +290,7 @@ public class OverviewController extends GameDataController {
 			try {
 				saveHasId(way);
 				addWayToMap(way);
+				markUnreachableLocations();
 				// Open new way for editing
 				objectSelected(way);
 			} catch (DBClosedException e) {
@@ -342,6 +375,29 @@ public class OverviewController extends GameDataController {
 	private void addLocationToMap(Location location) {
 		LocationRectangle lr = createLocationNode(location);
 		mapPane.getChildren().add(lr);
+		markUnreachableLocations();
+	}
+
+	/**
+	 * Marks the rectangles of all locations that cannot be reached from the
+	 * start location. Ways that are currently disabled are considered, since
+	 * actions may enable them during the game.
+	 */
+	private void markUnreachableLocations() {
+		List<Location> reachable;
+		try {
+			Location start = currentGameManager.getPersistenceManager().getGameManager().getGame()
+					.getStartLocation();
+			reachable = currentGameManager.getPersistenceManager().getLocationManager().getWorldGraph()
+					.getReachable(start, false);
+		} catch (DBClosedException | DBIncompatibleException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Abort: DB closed", e);
+			return;
+		}
+		Set<Location> reachableSet = new HashSet<>(reachable);
+		for (Map.Entry<Location, LocationRectangle> entry : rectangles.entrySet()) {
+			entry.getValue().setReachable(reachableSet.contains(entry.getKey()));
+		}
 	}
 
 }
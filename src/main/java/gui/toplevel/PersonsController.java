@@ -39,6 +39,11 @@ public class PersonsController extends NamedDescribedObjectsController<Person> {
 		return currentGameManager.getPersistenceManager().getPersonManager().getAllPersons();
 	}
 
+	@Override
+	protected Class<Person> getObjectsType() {
+		return Person.class;
+	}
+
 	@Override
 	public boolean isObsolete() {
 		return false;
@@ -52,6 +52,11 @@ public class WaysController extends NamedObjectsTableController<Way> {
 		return currentGameManager.getPersistenceManager().getWayManager().getAllWays();
 	}
 
+	@Override
+	protected Class<Way> getObjectsType() {
+		return Way.class;
+	}
+
 	
 
 	@Override
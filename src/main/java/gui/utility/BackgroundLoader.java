@@ -0,0 +1,277 @@
+package gui.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import data.interfaces.HasName;
+import gui.customui.ValuesSupplier;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import persistence.PersistenceManager;
+
+/**
+ * Loads the objects of the editor's views in the background, so that the
+ * window stays responsive while large games are read from the DB. The objects
+ * are handed to the views in pages.
+ *
+ * The DB must only be used by one thread at a time. The loads therefore run
+ * one after another on a single thread, and the GUI thread must call
+ * {@link #cancelAll()} or {@link #awaitIdle()} before it uses the DB while
+ * loads may be running. This includes changing loaded objects, so views must
+ * not let the user edit anything until their objects are loaded.
+ *
+ * Views needing the same objects share them, until anything is written to
+ * the DB.
+ *
+ * @author Satia
+ */
+public class BackgroundLoader {
+
+	/**
+	 * The number of objects handed to a view at once.
+	 */
+	public static final int PAGE_SIZE = 500;
+
+	/**
+	 * The persistence manager.
+	 */
+	private final PersistenceManager persistenceManager;
+
+	/**
+	 * Runs the loads.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Held while the DB is used for a load.
+	 */
+	private final ReentrantLock dbLock = new ReentrantLock();
+
+	/**
+	 * The loads not yet finished.
+	 */
+	private final List<Load<?>> tasks = new ArrayList<>();
+
+	/**
+	 * The objects loaded so far, by type. Only used with {@link #dbLock}
+	 * held.
+	 */
+	private final Map<Class<?>, List<?>> loaded = new HashMap<>();
+
+	/**
+	 * The update count of the persistence manager when {@link #loaded} was
+	 * last up to date.
+	 */
+	private long loadedUpdateCount;
+
+	/**
+	 * @param persistenceManager
+	 *            the persistence manager
+	 */
+	public BackgroundLoader(PersistenceManager persistenceManager) {
+		this.persistenceManager = persistenceManager;
+		this.executor = Executors.newSingleThreadExecutor((r) -> {
+			Thread t = new Thread(r, "Editor loader");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Loads objects in the background. Must be called from the GUI thread.
+	 *
+	 * @param type
+	 *            the type of the objects, if the query obtains all objects of
+	 *            that type, so that they can be shared with other views.
+	 *            {@code null} otherwise.
+	 * @param query
+	 *            obtains the objects
+	 * @param pageLoaded
+	 *            called on the GUI thread with each page of objects
+	 * @param allLoaded
+	 *            called on the GUI thread with all objects, after the last
+	 *            page. May be {@code null}.
+	 * @return the task, e.g. to show its progress
+	 */
+	public <E extends HasName> Task<List<E>> load(Class<? super E> type, ValuesSupplier<E> query,
+			Consumer<List<E>> pageLoaded, Consumer<List<E>> allLoaded) {
+		Load<E> task = new Load<>(type, query, pageLoaded);
+		task.setOnSucceeded((e) -> {
+			tasks.remove(task);
+			if (allLoaded != null) {
+				allLoaded.accept(task.getValue());
+			}
+		});
+		task.setOnCancelled((e) -> tasks.remove(task));
+		task.setOnFailed((e) -> {
+			tasks.remove(task);
+			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Abort: could not load objects",
+					task.getException());
+		});
+
+		tasks.add(task);
+		executor.execute(task);
+		return task;
+	}
+
+	/**
+	 * Obtains objects, from the previous loads if possible. Must be called
+	 * with {@link #dbLock} held.
+	 *
+	 * @param type
+	 *            the type of the objects or {@code null}
+	 * @param query
+	 *            obtains the objects
+	 * @return the objects
+	 * @throws Exception
+	 *             if the objects could not be obtained
+	 */
+	@SuppressWarnings("unchecked")
+	private <E extends HasName> List<E> query(Class<? super E> type, ValuesSupplier<E> query) throws Exception {
+		if (persistenceManager.getUpdateCount() != loadedUpdateCount) {
+			// Something was written since
+			loaded.clear();
+		}
+		if (type != null && loaded.containsKey(type)) {
+			return (List<E>) loaded.get(type);
+		}
+
+		List<E> objects = query.get();
+		// The query itself writes pending changes
+		if (persistenceManager.getUpdateCount() != loadedUpdateCount) {
+			loaded.clear();
+			loadedUpdateCount = persistenceManager.getUpdateCount();
+		}
+		if (type != null) {
+			loaded.put(type, objects);
+		}
+		return objects;
+	}
+
+	/**
+	 * Waits until no load uses the DB. Must be called from the GUI thread,
+	 * which can then use the DB until it starts new loads.
+	 */
+	public void awaitIdle() {
+		for (Load<?> task : new ArrayList<>(tasks)) {
+			try {
+				task.queried.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Cancels all loads and waits until the DB is no longer used by them.
+	 * Must be called from the GUI thread, which can then use the DB until it
+	 * starts new loads.
+	 */
+	public void cancelAll() {
+		for (Load<?> task : new ArrayList<>(tasks)) {
+			task.cancel(false);
+		}
+		tasks.clear();
+		// Wait for a running query to finish
+		dbLock.lock();
+		dbLock.unlock();
+	}
+
+	/**
+	 * Cancels all loads and forgets the loaded objects. Must be called when a
+	 * game is closed or opened.
+	 */
+	public void reset() {
+		cancelAll();
+		dbLock.lock();
+		try {
+			loaded.clear();
+			loadedUpdateCount = 0;
+		} finally {
+			dbLock.unlock();
+		}
+	}
+
+	/**
+	 * Obtains objects and hands them to a view in pages.
+	 *
+	 * @param <E>
+	 *            the type of the objects
+	 */
+	private class Load<E extends HasName> extends Task<List<E>> {
+
+		/**
+		 * The type of the objects or {@code null}.
+		 */
+		private final Class<? super E> type;
+
+		/**
+		 * Obtains the objects.
+		 */
+		private final ValuesSupplier<E> query;
+
+		/**
+		 * Called with each page.
+		 */
+		private final Consumer<List<E>> pageLoaded;
+
+		/**
+		 * Released once the load no longer uses the DB.
+		 */
+		private final CountDownLatch queried = new CountDownLatch(1);
+
+		/**
+		 * @param type
+		 *            the type of the objects or {@code null}
+		 * @param query
+		 *            obtains the objects
+		 * @param pageLoaded
+		 *            called with each page
+		 */
+		private Load(Class<? super E> type, ValuesSupplier<E> query, Consumer<List<E>> pageLoaded) {
+			this.type = type;
+			this.query = query;
+			this.pageLoaded = pageLoaded;
+		}
+
+		@Override
+		protected List<E> call() throws Exception {
+			List<E> objects;
+			dbLock.lock();
+			try {
+				if (isCancelled()) {
+					return null;
+				}
+				objects = query(type, query);
+			} finally {
+				dbLock.unlock();
+				queried.countDown();
+			}
+
+			// Hand out the pages without waiting for the GUI thread, which
+			// may be waiting for other loads.
+			int size = objects.size();
+			for (int from = 0; from < size && !isCancelled(); from += PAGE_SIZE) {
+				int to = Math.min(size, from + PAGE_SIZE);
+				List<E> page = objects.subList(from, to);
+				Platform.runLater(() -> {
+					if (!isCancelled()) {
+						pageLoaded.accept(page);
+						updateProgress(to, size);
+					}
+				});
+			}
+			return objects;
+		}
+	}
+}
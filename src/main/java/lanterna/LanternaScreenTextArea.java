@@ -8,7 +8,6 @@ import com.googlecode.lanterna.terminal.Terminal.Color;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
 
@@ -17,6 +16,10 @@ import java.util.Stack;
  * area of the screen. This class will only update the screen, if it handles the
  * input itself.
  * 
+ * Only lines that have changed since they were last printed are written to the
+ * screen. Lanterna then only sends the changed characters to the terminal when
+ * the screen is refreshed.
+ * 
  * @author Satia Herfert
  */
 public class LanternaScreenTextArea {
@@ -84,15 +87,67 @@ public class LanternaScreenTextArea {
 		}
 	}
 
+	/**
+	 * A line on the screen: a range of a text that has been wrapped.
+	 * 
+	 * @author Satia Herfert
+	 */
+	private static class WrappedLine {
+		private final ColoredText source;
+		private final int start;
+		private final int end;
+
+		/**
+		 * @param source
+		 *            the wrapped text
+		 * @param start
+		 *            the index of the first character, included
+		 * @param end
+		 *            the index of the last character, excluded
+		 */
+		WrappedLine(ColoredText source, int start, int end) {
+			this.source = source;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * The number of lines kept by {@link #LanternaScreenTextArea(Screen)}.
+	 */
+	public static final int DEFAULT_SCROLLBACK = 1000;
+
 	/**
 	 * The screen to use.
 	 */
 	private final Screen screen;
 
 	/**
-	 * The lines, which are printed.
+	 * The lines, which are printed, as a ring buffer. Only the newest lines
+	 * that fit into the area are visible, the others are kept to be wrapped
+	 * again if the width changes.
 	 */
-	private final List<ColoredText> lines;
+	private final WrappedLine[] lines;
+
+	/**
+	 * The index of the oldest line in {@link #lines}.
+	 */
+	private int firstLine;
+
+	/**
+	 * The number of lines in {@link #lines}.
+	 */
+	private int lineCount;
+
+	/**
+	 * The number of columns the lines were wrapped for.
+	 */
+	private int wrapColumns;
+
+	/**
+	 * Used to print a line without creating intermediate strings.
+	 */
+	private char[] rowBuffer;
 
 	/**
 	 * If {@code true}, prints from top to bottom, if {@code false}, prints from
@@ -168,20 +223,27 @@ public class LanternaScreenTextArea {
 	 */
 	private int stackPointer = -1;
 
-	/**
-	 * Points to the line to print next in linesToPrint.
-	 */
-	private int printPointer;
-
 	/**
 	 * The current-text based index of the cursor. This is not identically to
 	 * the on-screen cursor position, as the text can be longer than the screen.
 	 */
 	private int currentTextCursorIndex;
 
+	/**
+	 * The first row that has changed since it was last printed, included.
+	 */
+	private int dirtyFrom;
+
+	/**
+	 * The last row that has changed since it was last printed, excluded. No
+	 * row has changed, if this is not greater than {@link #dirtyFrom}.
+	 */
+	private int dirtyTo;
+
 	/**
 	 * Construct a new TextArea, that uses the full screen, starts printing on
-	 * top, and includes no input line. Default colors.
+	 * top, and includes no input line. Default colors. Keeps
+	 * {@value #DEFAULT_SCROLLBACK} lines.
 	 * 
 	 * @param screen
 	 *            the screen to use
@@ -189,7 +251,7 @@ public class LanternaScreenTextArea {
 	public LanternaScreenTextArea(Screen screen) {
 		this(screen, true, false, Color.DEFAULT, Color.DEFAULT, Color.DEFAULT,
 				Color.DEFAULT, 0, screen.getTerminalSize().getColumns(), 0,
-				screen.getTerminalSize().getRows(), null);
+				screen.getTerminalSize().getRows(), null, DEFAULT_SCROLLBACK);
 	}
 
 	/**
@@ -221,11 +283,14 @@ public class LanternaScreenTextArea {
 	 *            the y ending coordinate, excluded
 	 * @param textHandler
 	 *            the text handler or {@code null}, if the text can be ignored
+	 * @param scrollback
+	 *            the number of lines and typed commands to keep. Older ones
+	 *            are dropped.
 	 */
 	public LanternaScreenTextArea(Screen screen, boolean printTop,
 			boolean includeInputLine, Color textBgColor, Color textFgColor,
 			Color inputBgColor, Color inputFgColor, int fromX, int toX,
-			int fromY, int toY, TextHandler textHandler) {
+			int fromY, int toY, TextHandler textHandler, int scrollback) {
 		this.screen = screen;
 		this.printTop = printTop;
 		this.includeInputLine = includeInputLine;
@@ -238,7 +303,8 @@ public class LanternaScreenTextArea {
 		this.fromY = fromY;
 		this.toY = toY;
 		this.textHandler = textHandler;
-		this.lines = new LinkedList<>();
+		this.lines = new WrappedLine[Math.max(1, scrollback)];
+		this.rowBuffer = new char[0];
 		this.currentText = new StringBuilder();
 		this.lastCommands = new Stack<>();
 
@@ -247,7 +313,8 @@ public class LanternaScreenTextArea {
 	}
 
 	/**
-	 * This method applies new dimensions. Behavior not 100 %-ly defined.
+	 * This method applies new dimensions. If the width has changed, the lines
+	 * are wrapped again before they are printed.
 	 * 
 	 * @param fromX
 	 *            the x starting coordinate, included
@@ -264,32 +331,8 @@ public class LanternaScreenTextArea {
 		this.fromY = fromY;
 		this.toY = toY;
 
-		// Set printPointer
-		if (!this.printTop || areaFull()) {
-			printPointer = rows() - 1;
-		}
-
-		// Stack new empty elements into list...
-		for (int i = fromY + lines.size(); i < toY; i++) {
-			lines.add(new ColoredText("", textBgColor, textFgColor));
-		}
-		// .. or remove.
-		for (int i = rows(); i < lines.size();) {
-			if (printTop) {
-				// If the last lines are empty, remove these, otherwise remove
-				// the first line, but always keep the last line (input line) empty
-				if (lines.get(lines.size() - 2).text.isEmpty()) {
-					lines.remove(lines.size() - 2);
-				} else {
-					lines.remove(0);
-				}
-			} else {
-				// When printing from bottom to top, just remove the first lines
-				lines.remove(0);
-			}
-		}
-
 		// Print
+		markAllDirty();
 		print();
 	}
 
@@ -308,12 +351,25 @@ public class LanternaScreenTextArea {
 	}
 
 	/**
-	 * @return whether the printPointer points to a line that cannot be printed
-	 *         to, that means, the area is full.
+	 * @return the number of rows used for text, without the input line
+	 */
+	private int textRows() {
+		return includeInputLine ? rows() - 1 : rows();
+	}
+
+	/**
+	 * @return the number of lines currently visible
+	 */
+	private int visibleLines() {
+		return Math.max(0, Math.min(lineCount, textRows()));
+	}
+
+	/**
+	 * @return whether all rows for text are used, that means, printing another
+	 *         line will scroll the text up.
 	 */
 	public boolean areaFull() {
-		return (includeInputLine && printPointer >= rows() - 1)
-				|| (!includeInputLine && printPointer >= rows());
+		return lineCount >= textRows();
 	}
 
 	/**
@@ -321,22 +377,15 @@ public class LanternaScreenTextArea {
 	 * method is final, as called in the constructor.
 	 */
 	public final void clear() {
-		// Set printPointer
-		if (this.printTop) {
-			printPointer = 0;
-		} else {
-			printPointer = rows() - 1;
-		}
-
 		// clear lines
-		lines.clear();
-		// Fill lines with empty strings
-		for (int i = fromY; i < toY; i++) {
-			lines.add(new ColoredText("", textBgColor, textFgColor));
-		}
+		Arrays.fill(lines, null);
+		firstLine = 0;
+		lineCount = 0;
+		wrapColumns = columns();
 		// clear currentText
 		currentText.setLength(0);
 		// print
+		markAllDirty();
 		print();
 	}
 
@@ -350,28 +399,11 @@ public class LanternaScreenTextArea {
 	 * @param fgColor
 	 */
 	public void println(String text, Color bgColor, Color fgColor) {
-		List<String> linesToPrint = new ArrayList<>(Arrays.asList(text
-				.split("\n")));
-		// Split each after length is reached
-		for (int i = 0; i < linesToPrint.size(); i++) {
-			if (linesToPrint.get(i).length() > columns()) {
-				// Split after n chars or the blank before that
-				String before = linesToPrint.get(i);
-				int splitIndex = before.lastIndexOf(' ', columns() - 1) + 1;
-				// Set to the end, if there is no space
-				if (splitIndex == -1) {
-					splitIndex = columns();
-				}
+		ensureWrapped();
+		wrap(new ColoredText(text, bgColor, fgColor));
 
-				linesToPrint.set(i, before.substring(0, splitIndex));
-				// if the next line starts with space, trim that
-				linesToPrint.add(i + 1, before.substring(splitIndex).trim());
-			}
-		}
-		// Include each Text line
-		for (String line : linesToPrint) {
-			includeTextLine(line, bgColor, fgColor);
-		}
+		// Now we have to print the content to the screen
+		print();
 	}
 
 	/**
@@ -386,51 +418,175 @@ public class LanternaScreenTextArea {
 	}
 
 	/**
-	 * This method includes a line of text, which has no line breaks and is
-	 * guaranteed to fit in one line.
+	 * Wraps a text into lines that fit into the columns and includes them. A
+	 * line is split after the last blank that fits, or after the last
+	 * character that fits, if there is none. Blanks at the beginning of the
+	 * following line are skipped.
+	 * 
+	 * @param text
+	 *            the text
+	 */
+	private void wrap(ColoredText text) {
+		String s = text.text;
+		int columns = Math.max(1, columns());
+
+		// Like String.split, trailing empty lines are omitted
+		int end = s.length();
+		while (end > 0 && s.charAt(end - 1) == '\n') {
+			end--;
+		}
+		if (end == 0 && !s.isEmpty()) {
+			return;
+		}
+
+		for (int lineStart = 0; lineStart <= end;) {
+			int lineEnd = s.indexOf('\n', lineStart);
+			if (lineEnd == -1 || lineEnd > end) {
+				lineEnd = end;
+			}
+			int start = lineStart;
+			while (lineEnd - start > columns) {
+				int splitIndex = s.lastIndexOf(' ', start + columns - 1) + 1;
+				// Split after n chars, if there is no space
+				if (splitIndex <= start) {
+					splitIndex = start + columns;
+				}
+				includeTextLine(new WrappedLine(text, start, splitIndex));
+				// If the next line starts with spaces, skip them
+				start = splitIndex;
+				while (start < lineEnd && s.charAt(start) == ' ') {
+					start++;
+				}
+			}
+			includeTextLine(new WrappedLine(text, start, lineEnd));
+			lineStart = lineEnd + 1;
+		}
+	}
+
+	/**
+	 * This method includes a line of text, which is guaranteed to fit in one
+	 * line. If the scrollback is full, the oldest line is dropped.
 	 * 
 	 * @param line
 	 *            the line
 	 */
-	private void includeTextLine(String line, Color bgColor, Color fgColor) {
-		// If the area is full, we have to shift input up
-		if (areaFull()) {
-			shiftUp();
+	private void includeTextLine(WrappedLine line) {
+		int visibleBefore = visibleLines();
+
+		if (lineCount < lines.length) {
+			lines[(firstLine + lineCount) % lines.length] = line;
+			lineCount++;
+		} else {
+			lines[firstLine] = line;
+			firstLine = (firstLine + 1) % lines.length;
+		}
+
+		if (printTop && visibleBefore < textRows()) {
+			// The line is printed below the others
+			markDirty(visibleBefore);
+		} else {
+			// Lanterna cannot scroll, so all lines must be printed again
+			markAllDirty();
+		}
+	}
+
+	/**
+	 * @param index
+	 *            the index, 0 being the oldest line
+	 * @return the line
+	 */
+	private WrappedLine getLine(int index) {
+		return lines[(firstLine + index) % lines.length];
+	}
+
+	/**
+	 * Wraps all lines again, if the number of columns has changed since they
+	 * were wrapped.
+	 */
+	private void ensureWrapped() {
+		if (wrapColumns == columns()) {
+			return;
+		}
+		wrapColumns = columns();
+
+		// The texts of the lines, the first one may be cut off
+		List<ColoredText> texts = new ArrayList<>();
+		for (int i = 0; i < lineCount; i++) {
+			ColoredText text = getLine(i).source;
+			if (texts.isEmpty() || texts.get(texts.size() - 1) != text) {
+				texts.add(text);
+			}
 		}
 
-		// Append the line at the correct position in lines
-		lines.set(printPointer, new ColoredText(line, bgColor, fgColor));
-		// Increment the printpointer
-		printPointer++;
+		Arrays.fill(lines, null);
+		firstLine = 0;
+		lineCount = 0;
+		for (ColoredText text : texts) {
+			wrap(text);
+		}
+		markAllDirty();
+	}
 
-		// Now we have to print the content to the screen
-		print();
+	/**
+	 * Marks a row as changed.
+	 * 
+	 * @param row
+	 *            the row, relative to the area
+	 */
+	private void markDirty(int row) {
+		if (dirtyFrom >= dirtyTo) {
+			dirtyFrom = row;
+			dirtyTo = row + 1;
+		} else {
+			dirtyFrom = Math.min(dirtyFrom, row);
+			dirtyTo = Math.max(dirtyTo, row + 1);
+		}
 	}
 
 	/**
-	 * Shifts all lines up, decrements the printPointer.
+	 * Marks all rows as changed, e.g. after the dimensions have changed.
 	 */
-	private void shiftUp() {
-		lines.remove(0);
-		lines.add(new ColoredText("", textBgColor, textFgColor));
-		printPointer--;
+	private void markAllDirty() {
+		dirtyFrom = 0;
+		dirtyTo = rows();
 	}
 
 	/**
-	 * Prints the current lines content to the screen. When called from outside,
-	 * this can be interpreted as a refresh.
+	 * Prints the changed rows and the input line to the screen. The screen has
+	 * to be refreshed afterwards.
 	 */
 	public void print() {
-		for (int linesPointer = 0, screenPointer = fromY; linesPointer < lines
-				.size(); linesPointer++, screenPointer++) {
-			// Create blank string to fill the rest
-			String blanks = blankString(columns()
-					- lines.get(linesPointer).text.length());
+		ensureWrapped();
 
-			screen.putString(fromX, screenPointer, lines.get(linesPointer).text
-					+ blanks, lines.get(linesPointer).fgColor,
-					lines.get(linesPointer).bgColor);
+		int visible = visibleLines();
+		// The row of the first visible line
+		int firstRow = printTop ? 0 : textRows() - visible;
+		// The row of the input line
+		int inputRow = printTop ? visible : rows() - 1;
+
+		if (rowBuffer.length < columns()) {
+			rowBuffer = new char[columns()];
+		}
+		for (int row = Math.max(0, dirtyFrom); row < Math.min(dirtyTo, rows()); row++) {
+			if (includeInputLine && row == inputRow) {
+				continue;
+			}
+			int index = row - firstRow;
+			if (index >= 0 && index < visible) {
+				WrappedLine line = getLine(lineCount - visible + index);
+				int length = Math.min(line.end - line.start, columns());
+				line.source.text.getChars(line.start, line.start + length, rowBuffer, 0);
+				// Fill the rest with blanks
+				Arrays.fill(rowBuffer, length, columns(), ' ');
+				screen.putString(fromX, fromY + row, new String(rowBuffer, 0, columns()),
+						line.source.fgColor, line.source.bgColor);
+			} else {
+				screen.putString(fromX, fromY + row, blankString(columns()),
+						textFgColor, textBgColor);
+			}
 		}
+		dirtyFrom = 0;
+		dirtyTo = 0;
 
 		// When there's an input line, print it
 		if (includeInputLine) {
@@ -442,7 +598,7 @@ public class LanternaScreenTextArea {
 				toPrint = currentText.toString()
 						+ blankString(columns() - currentText.length());
 				screen.setCursorPosition(fromX + currentTextCursorIndex,
-						Math.min(fromY + printPointer, toY - 1));
+						fromY + inputRow);
 			} else {
 				// does not fit
 				int startIndex = Math.max(0, currentTextCursorIndex
@@ -455,12 +611,14 @@ public class LanternaScreenTextArea {
 								+ (currentTextCursorIndex == currentText
 										.length() ? 0 : 1));
 				toPrint = currentText.substring(startIndex, endindex);
+				// The line below the input is not printed again
+				toPrint += blankString(Math.max(0, columns() - toPrint.length()));
 
 				screen.setCursorPosition(fromX + currentTextCursorIndex
-						- startIndex, Math.min(fromY + printPointer, toY - 1));
+						- startIndex, fromY + inputRow);
 
 			}
-			screen.putString(fromX, fromY + printPointer, toPrint,
+			screen.putString(fromX, fromY + inputRow, toPrint,
 					inputFgColor, inputBgColor);
 		}
 	}
@@ -582,6 +740,9 @@ public class LanternaScreenTextArea {
 
 		// Save last used command
 		lastCommands.push(currentText.toString());
+		if (lastCommands.size() > lines.length) {
+			lastCommands.remove(0);
+		}
 		// Reset stackPointer
 		stackPointer = -1;
 
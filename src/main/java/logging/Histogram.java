@@ -0,0 +1,171 @@
+package logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values with a bounded relative error, like an
+ * HDR histogram. Each power of two is divided into {@value #SUB_BUCKETS}
+ * buckets, so that percentiles are precise to about 3%, no matter if the
+ * values are nanoseconds or counts.
+ *
+ * Values can be recorded from many threads at once without locking.
+ *
+ * @author Satia
+ */
+public class Histogram implements HistogramMXBean {
+
+	/**
+	 * The number of bits distinguishing the buckets of one power of two.
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/**
+	 * The number of buckets per power of two.
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Larger values are recorded as this value. In nanoseconds, this is more
+	 * than 18 minutes.
+	 */
+	private static final long MAX_VALUE = (1L << 40) - 1;
+
+	/**
+	 * The count of values per bucket.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(bucketIndex(MAX_VALUE) + 1);
+
+	/**
+	 * The number of values recorded.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * The sum of all values recorded.
+	 */
+	private final AtomicLong sum = new AtomicLong();
+
+	/**
+	 * The largest value recorded.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param value
+	 *            a value between 0 and {@link #MAX_VALUE}
+	 * @return the index of the bucket of the value
+	 */
+	private static int bucketIndex(long value) {
+		int highestBit = 63 - Long.numberOfLeadingZeros(value);
+		if (highestBit < SUB_BUCKET_BITS) {
+			// Small values have a bucket each
+			return (int) value;
+		}
+		int shift = highestBit - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	/**
+	 * @param index
+	 *            the index of a bucket
+	 * @return the largest value recorded in the bucket
+	 */
+	private static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 *
+	 * @param value
+	 *            the value
+	 */
+	public void record(long value) {
+		value = Math.min(Math.max(value, 0), MAX_VALUE);
+		buckets.incrementAndGet(bucketIndex(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long currentMax;
+		while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+			// Try again
+		}
+	}
+
+	/**
+	 * Obtains the value at a percentile. The result is the highest value of
+	 * the bucket containing the value, so it is never too low.
+	 *
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the value at the percentile, 0 if no values were recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+		// Nearest rank
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), max.get());
+			}
+		}
+		// Values recorded while iterating
+		return max.get();
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public double getMean() {
+		long total = count.get();
+		return total == 0 ? 0 : sum.get() / (double) total;
+	}
+
+	@Override
+	public long getMax() {
+		return max.get();
+	}
+
+	@Override
+	public long get50thPercentile() {
+		return getValueAtPercentile(50);
+	}
+
+	@Override
+	public long get90thPercentile() {
+		return getValueAtPercentile(90);
+	}
+
+	@Override
+	public long get99thPercentile() {
+		return getValueAtPercentile(99);
+	}
+
+	@Override
+	public long get999thPercentile() {
+		return getValueAtPercentile(99.9);
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < buckets.length(); i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+}
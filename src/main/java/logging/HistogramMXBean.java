@@ -0,0 +1,50 @@
+package logging;
+
+/**
+ * The view of a {@link Histogram} via JMX. The unit of the values is part of
+ * the object name.
+ *
+ * @author Satia
+ */
+public interface HistogramMXBean {
+
+	/**
+	 * @return the number of values recorded
+	 */
+	long getCount();
+
+	/**
+	 * @return the mean of the values recorded
+	 */
+	double getMean();
+
+	/**
+	 * @return the largest value recorded
+	 */
+	long getMax();
+
+	/**
+	 * @return the median
+	 */
+	long get50thPercentile();
+
+	/**
+	 * @return the 90th percentile
+	 */
+	long get90thPercentile();
+
+	/**
+	 * @return the 99th percentile
+	 */
+	long get99thPercentile();
+
+	/**
+	 * @return the 99.9th percentile
+	 */
+	long get999thPercentile();
+
+	/**
+	 * Discards all values recorded so far.
+	 */
+	void reset();
+}
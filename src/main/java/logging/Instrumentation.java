@@ -0,0 +1,439 @@
+package logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import configuration.PropertiesReader;
+
+/**
+ * Measures the time needed by each stage of the commands typed by players,
+ * and the SQL statements executed for them. Each measurement is recorded in a
+ * {@link Histogram}.
+ *
+ * A command is measured from {@link #beginCommand()} to
+ * {@link #endCommand()}. The time of a stage is summed up over the command,
+ * and recorded once per command in which the stage occurred. Stages may
+ * contain others, e.g. the execution contains the actions and placeholders.
+ * Stages occurring outside of a command, like screen refreshes, are recorded
+ * by themselves. Commands are tracked per thread, so that many games may be
+ * played at once.
+ *
+ * The histograms are registered via JMX under {@value #JMX_DOMAIN}, and may
+ * periodically be dumped into {@value #DUMP_FILE} in the logs directory.
+ *
+ * @author Satia
+ */
+public final class Instrumentation {
+
+	/**
+	 * The measured stages of a command.
+	 */
+	public enum Stage {
+		/**
+		 * Trimming the input and removing punctuation.
+		 */
+		NORMALIZATION,
+		/**
+		 * Matching the input against the patterns of the commands.
+		 */
+		MATCHING,
+		/**
+		 * Finding the objects the input refers to.
+		 */
+		OBJECT_LOOKUP,
+		/**
+		 * Executing the command.
+		 */
+		EXECUTION,
+		/**
+		 * Triggering actions, as part of the execution.
+		 */
+		ACTIONS,
+		/**
+		 * Replacing placeholders in texts.
+		 */
+		PLACEHOLDERS,
+		/**
+		 * Committing the changes of the command.
+		 */
+		COMMIT,
+		/**
+		 * Refreshing the screen.
+		 */
+		REFRESH,
+		/**
+		 * The whole command.
+		 */
+		COMMAND
+	}
+
+	/**
+	 * The domain of the JMX object names.
+	 */
+	public static final String JMX_DOMAIN = "textAdventureMaker";
+
+	/**
+	 * The name of the file the histograms are dumped into.
+	 */
+	public static final String DUMP_FILE = "metrics.txt";
+
+	/**
+	 * The measurements of the command currently played by a thread.
+	 */
+	private static class Trace {
+		/**
+		 * If a command is being measured.
+		 */
+		boolean inCommand;
+
+		/**
+		 * When the command began.
+		 */
+		long commandStart;
+
+		/**
+		 * The time per stage in the command so far.
+		 */
+		final long[] stageNanos = new long[Stage.values().length];
+
+		/**
+		 * If a stage occurred in the command so far.
+		 */
+		final boolean[] stageOccurred = new boolean[Stage.values().length];
+
+		/**
+		 * How often each stage is currently entered. Only the outermost
+		 * occurrence is measured.
+		 */
+		final int[] stageDepth = new int[Stage.values().length];
+
+		/**
+		 * The SQL statements executed in the command so far.
+		 */
+		long sqlStatements;
+
+		/**
+		 * The time needed by the SQL statements in the command so far.
+		 */
+		long sqlNanos;
+
+		/**
+		 * When the current SQL statement began.
+		 */
+		long sqlStart;
+	}
+
+	/**
+	 * If anything is measured.
+	 */
+	private static final boolean ENABLED = Boolean
+			.parseBoolean(PropertiesReader.getProperty(PropertiesReader.INSTRUMENTATION_PROPERTY));
+
+	/**
+	 * The time per command of each stage, in nanoseconds.
+	 */
+	private static final Map<Stage, Histogram> STAGES = new EnumMap<>(Stage.class);
+
+	/**
+	 * The number of SQL statements per command.
+	 */
+	private static final Histogram SQL_STATEMENTS = new Histogram();
+
+	/**
+	 * The time needed by SQL statements per command, in nanoseconds.
+	 */
+	private static final Histogram SQL_TIME = new Histogram();
+
+	/**
+	 * The measurements of each thread.
+	 */
+	private static final ThreadLocal<Trace> TRACE = ThreadLocal.withInitial(Trace::new);
+
+	/**
+	 * Static initializer block
+	 */
+	static {
+		for (Stage stage : Stage.values()) {
+			STAGES.put(stage, new Histogram());
+		}
+		if (ENABLED) {
+			registerMBeans();
+			scheduleDump();
+		}
+	}
+
+	/**
+	 * Only static methods.
+	 */
+	private Instrumentation() {
+	}
+
+	/**
+	 * Registers all histograms via JMX.
+	 */
+	private static void registerMBeans() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (Stage stage : Stage.values()) {
+				server.registerMBean(STAGES.get(stage),
+						new ObjectName(JMX_DOMAIN + ":type=Stage,name=" + stage + ",unit=ns"));
+			}
+			server.registerMBean(SQL_STATEMENTS,
+					new ObjectName(JMX_DOMAIN + ":type=Sql,name=StatementsPerCommand,unit=statements"));
+			server.registerMBean(SQL_TIME, new ObjectName(JMX_DOMAIN + ":type=Sql,name=TimePerCommand,unit=ns"));
+		} catch (JMException e) {
+			Logger.getLogger(Instrumentation.class.getName()).log(Level.WARNING,
+					"Could not register the histograms via JMX", e);
+		}
+	}
+
+	/**
+	 * Dumps the histograms periodically, if configured.
+	 */
+	private static void scheduleDump() {
+		long seconds;
+		try {
+			seconds = Long.parseLong(PropertiesReader.getProperty(PropertiesReader.METRICS_DUMP_SECONDS_PROPERTY));
+		} catch (NumberFormatException e) {
+			Logger.getLogger(Instrumentation.class.getName()).log(Level.WARNING,
+					"Metrics dump property faulty. Thus not dumping.", e);
+			return;
+		}
+		if (seconds <= 0) {
+			return;
+		}
+
+		File file = new File(PropertiesReader.DIRECTORY + "logs", DUMP_FILE);
+		file.getParentFile().mkdirs();
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Metrics dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleAtFixedRate(() -> {
+			try {
+				dump(file);
+			} catch (IOException e) {
+				Logger.getLogger(Instrumentation.class.getName()).log(Level.WARNING, "Could not dump the metrics", e);
+			}
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Writes all histograms into a file. The file is replaced only after it
+	 * has been written completely.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void dump(File file) throws IOException {
+		Path target = file.getAbsoluteFile().toPath();
+		Path temp = Files.createTempFile(target.getParent(), "tam", ".tmp");
+		try {
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				dump(writer);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Writes all histograms as a table. Times are in milliseconds.
+	 *
+	 * @param writer
+	 *            where to write to
+	 */
+	public static void dump(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("# " + new Date());
+		out.println(String.format("%-22s %10s %10s %10s %10s %10s %10s %10s", "", "count", "mean", "p50", "p90",
+				"p99", "p99.9", "max"));
+		for (Stage stage : Stage.values()) {
+			dump(out, stage.toString() + " ms", STAGES.get(stage), 1e6);
+		}
+		dump(out, "SQL ms", SQL_TIME, 1e6);
+		dump(out, "SQL statements", SQL_STATEMENTS, 1);
+		out.flush();
+	}
+
+	/**
+	 * Writes one histogram as a row of the table.
+	 *
+	 * @param out
+	 *            where to write to
+	 * @param name
+	 *            the name of the row
+	 * @param histogram
+	 *            the histogram
+	 * @param divisor
+	 *            all values are divided by this
+	 */
+	private static void dump(PrintWriter out, String name, Histogram histogram, double divisor) {
+		out.println(String.format("%-22s %10d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f", name,
+				histogram.getCount(), histogram.getMean() / divisor, histogram.get50thPercentile() / divisor,
+				histogram.get90thPercentile() / divisor, histogram.get99thPercentile() / divisor,
+				histogram.get999thPercentile() / divisor, histogram.getMax() / divisor));
+	}
+
+	/**
+	 * @return if anything is measured
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * @param stage
+	 *            a stage
+	 * @return the histogram of the time per command of the stage, in
+	 *         nanoseconds
+	 */
+	public static Histogram getHistogram(Stage stage) {
+		return STAGES.get(stage);
+	}
+
+	/**
+	 * @return the histogram of the number of SQL statements per command
+	 */
+	public static Histogram getSqlStatements() {
+		return SQL_STATEMENTS;
+	}
+
+	/**
+	 * @return the histogram of the time needed by SQL statements per command,
+	 *         in nanoseconds
+	 */
+	public static Histogram getSqlTime() {
+		return SQL_TIME;
+	}
+
+	/**
+	 * Begins measuring a command in the current thread. A command already
+	 * being measured is discarded.
+	 */
+	public static void beginCommand() {
+		if (!ENABLED) {
+			return;
+		}
+		Trace trace = TRACE.get();
+		trace.inCommand = true;
+		for (int i = 0; i < trace.stageNanos.length; i++) {
+			trace.stageNanos[i] = 0;
+			trace.stageOccurred[i] = false;
+		}
+		trace.sqlStatements = 0;
+		trace.sqlNanos = 0;
+		trace.commandStart = System.nanoTime();
+	}
+
+	/**
+	 * Ends measuring the command of the current thread and records its
+	 * measurements. Does nothing if no command is being measured.
+	 */
+	public static void endCommand() {
+		if (!ENABLED) {
+			return;
+		}
+		Trace trace = TRACE.get();
+		if (!trace.inCommand) {
+			return;
+		}
+		trace.inCommand = false;
+		STAGES.get(Stage.COMMAND).record(System.nanoTime() - trace.commandStart);
+		for (Stage stage : Stage.values()) {
+			if (trace.stageOccurred[stage.ordinal()]) {
+				STAGES.get(stage).record(trace.stageNanos[stage.ordinal()]);
+			}
+		}
+		SQL_STATEMENTS.record(trace.sqlStatements);
+		SQL_TIME.record(trace.sqlNanos);
+	}
+
+	/**
+	 * Enters a stage in the current thread. Must be followed by
+	 * {@link #exit(Stage, long)}, usually in a finally block.
+	 *
+	 * @param stage
+	 *            the stage
+	 * @return the value to pass to {@link #exit(Stage, long)}
+	 */
+	public static long enter(Stage stage) {
+		if (!ENABLED) {
+			return 0;
+		}
+		TRACE.get().stageDepth[stage.ordinal()]++;
+		return System.nanoTime();
+	}
+
+	/**
+	 * Exits a stage in the current thread.
+	 *
+	 * @param stage
+	 *            the stage
+	 * @param start
+	 *            the value returned by {@link #enter(Stage)}
+	 */
+	public static void exit(Stage stage, long start) {
+		if (!ENABLED) {
+			return;
+		}
+		Trace trace = TRACE.get();
+		if (--trace.stageDepth[stage.ordinal()] > 0) {
+			// Only the outermost occurrence is measured
+			return;
+		}
+		long nanos = System.nanoTime() - start;
+		if (trace.inCommand) {
+			trace.stageNanos[stage.ordinal()] += nanos;
+			trace.stageOccurred[stage.ordinal()] = true;
+		} else {
+			STAGES.get(stage).record(nanos);
+		}
+	}
+
+	/**
+	 * Called before a SQL statement is executed in the current thread.
+	 */
+	static void sqlStarted() {
+		TRACE.get().sqlStart = System.nanoTime();
+	}
+
+	/**
+	 * Called after a SQL statement was executed in the current thread.
+	 */
+	static void sqlFinished() {
+		Trace trace = TRACE.get();
+		if (trace.inCommand) {
+			trace.sqlStatements++;
+			trace.sqlNanos += System.nanoTime() - trace.sqlStart;
+		}
+	}
+}
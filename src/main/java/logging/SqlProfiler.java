@@ -0,0 +1,34 @@
+package logging;
+
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.SessionProfiler;
+import org.eclipse.persistence.sessions.SessionProfilerAdapter;
+
+/**
+ * Reports the SQL statements executed by EclipseLink to the
+ * {@link Instrumentation}. Configured as the profiler of the persistence
+ * unit, if instrumentation is enabled.
+ *
+ * @author Satia
+ */
+public class SqlProfiler extends SessionProfilerAdapter {
+
+	@Override
+	public void startOperationProfile(String operationName, DatabaseQuery query, int weight) {
+		if (SessionProfiler.StatementExecute.equals(operationName)) {
+			Instrumentation.sqlStarted();
+		}
+	}
+
+	@Override
+	public void endOperationProfile(String operationName, DatabaseQuery query, int weight) {
+		if (SessionProfiler.StatementExecute.equals(operationName)) {
+			Instrumentation.sqlFinished();
+		}
+	}
+
+	@Override
+	public int getProfileWeight() {
+		return SessionProfiler.ALL;
+	}
+}
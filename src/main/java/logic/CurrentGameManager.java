@@ -2,8 +2,6 @@ package logic;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -108,45 +106,26 @@ public class CurrentGameManager {
 	}
 
 	/**
-	 * Disconnects from the DB, carries out the given action, and reconnects.
+	 * Writes a copy of the open game file, including the latest changes. The
+	 * DB stays connected.
 	 * 
-	 * @param doSth
-	 *            what to do in-between
+	 * @param file
+	 *            the file to write
 	 * @throws IOException
-	 *             if the given action produces an {@link IOException}
+	 *             if the copy cannot be written
 	 */
-	public void disconnectDoReconnect(Do doSth) throws IOException {
+	public void copyOpenFile(File file) throws IOException {
 		// Be sure to commit the latest changes
 		persistenceManager.updateChanges();
-
-		// Disconnect before copying
-		persistenceManager.disconnect();
-
-		try {
-			doSth.doSth();
-		} finally {
-			// Reconnect
-			String fileName = openFile.getAbsolutePath();
-			try {
-				persistenceManager
-						.connect(fileName.substring(0, fileName.length() - LoadSaveManager.H2_ENDING.length()), false);
-			} catch (IOException | DBIncompatibleException e) {
-				// Should never happen at this point
-				Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not open db file.", e);
-			}
-		}
+		persistenceManager.backup(file);
 	}
 
 	/**
 	 * Starts the game from within the TextAdventureMaker.
 	 */
 	public void playGame() throws IOException {
-		disconnectDoReconnect(() -> {
-			Path from = openFile.getAbsoluteFile().toPath();
-			Path to = new File(PropertiesReader.DIRECTORY + gameName + "_temp" + LoadSaveManager.H2_ENDING).toPath();
-			Files.copy(from, to, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-			LoadSaveManager.main(new String[] { gameName + "_temp" });
-		});
+		copyOpenFile(new File(PropertiesReader.DIRECTORY + gameName + "_temp" + LoadSaveManager.H2_ENDING));
+		LoadSaveManager.main(new String[] { gameName + "_temp" });
 	}
 
 }
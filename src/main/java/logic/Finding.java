@@ -0,0 +1,95 @@
+package logic;
+
+/**
+ * A problem in a game found by the {@link GameAnalyzer}.
+ *
+ * @author Satia
+ */
+public class Finding {
+
+	/**
+	 * The kinds of problems.
+	 */
+	public enum Kind {
+		/** A location the player can never enter */
+		UNREACHABLE_LOCATION("Unreachable location"),
+		/** An item with inventory items that can never be taken */
+		UNTAKEABLE_ITEM("Item never takeable"),
+		/** A combination of inventory items that is never enabled */
+		DISABLED_COMBINATION("Combination never enabled"),
+		/** A layer of a conversation without options to choose */
+		EMPTY_CONVERSATION_LAYER("Conversation layer without options"),
+		/** A command that is recognized as an earlier command */
+		SHADOWED_COMMAND("Shadowed command"),
+		/** An identifier that never matches any input */
+		UNMATCHABLE_IDENTIFIER("Identifier never matching");
+
+		/**
+		 * A text describing the kind of problem.
+		 */
+		public final String description;
+
+		/**
+		 * @param description
+		 *            a text describing the kind of problem
+		 */
+		private Kind(String description) {
+			this.description = description;
+		}
+	}
+
+	/**
+	 * The kind of problem.
+	 */
+	private final Kind kind;
+
+	/**
+	 * The object with the problem, or {@code null} for commands.
+	 */
+	private final Object subject;
+
+	/**
+	 * The explanation of the problem.
+	 */
+	private final String message;
+
+	/**
+	 * @param kind
+	 *            the kind of problem
+	 * @param subject
+	 *            the object with the problem, or {@code null} for commands
+	 * @param message
+	 *            the explanation of the problem
+	 */
+	public Finding(Kind kind, Object subject, String message) {
+		this.kind = kind;
+		this.subject = subject;
+		this.message = message;
+	}
+
+	/**
+	 * @return the kind of problem
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the object with the problem, or {@code null} for commands
+	 */
+	public Object getSubject() {
+		return subject;
+	}
+
+	/**
+	 * @return the explanation of the problem
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return kind.description + ": " + message;
+	}
+}
@@ -0,0 +1,871 @@
+package logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import data.Conversation;
+import data.ConversationLayer;
+import data.Game;
+import data.InventoryItem;
+import data.Item;
+import data.Location;
+import data.Person;
+import data.Way;
+import data.action.AbstractAction;
+import data.action.AbstractAction.Enabling;
+import data.action.ChangeCombineInformationAction;
+import data.action.ChangeConversationOptionAction;
+import data.action.ChangeItemAction;
+import data.action.MoveAction;
+import data.interfaces.Identifiable;
+import exception.DBClosedException;
+import exception.DBIncompatibleException;
+import logic.Finding.Kind;
+import persistence.IdentifierIndex;
+import persistence.PersistenceManager;
+import persistence.TempDB;
+import playing.GamePlayer;
+import playing.batch.ScriptedInputOutput;
+import playing.command.Command;
+import playing.parser.CommandMatcher;
+import playing.parser.CommandMatcher.CommandMatch;
+import playing.parser.GeneralParser;
+import playing.parser.PatternGenerator.MultiPattern;
+import utility.CommandRegExConverter;
+
+/**
+ * Finds problems in a game without playing it: locations that cannot be
+ * reached, items that can never be taken, combinations that are never
+ * enabled, conversation layers without options, commands recognized as other
+ * commands and identifiers that never match.
+ *
+ * All objects are loaded first, since the persistence context must only be
+ * used by one thread. Afterwards, the objects are checked in parallel with
+ * fork/join, without any further access to the DB.
+ *
+ * The analysis assumes that every action can be triggered at some point, so
+ * it only reports problems no action can fix. Regular expression identifiers
+ * are only checked to be valid.
+ *
+ * @author Satia
+ */
+public class GameAnalyzer {
+
+	/**
+	 * The number of objects checked by one task without splitting it.
+	 */
+	private static final int OBJECTS_PER_TASK = 256;
+
+	/**
+	 * The parameter values put into commands to obtain example inputs.
+	 */
+	private static final String[] EXAMPLE_PARAMETERS = { "x", "y" };
+
+	/**
+	 * The connected persistence manager of the game.
+	 */
+	private final PersistenceManager persistenceManager;
+
+	/**
+	 * The locations reachable from the start location, or by actions moving
+	 * the player.
+	 */
+	private Set<Location> reachable;
+
+	/**
+	 * The items an action enables taking for.
+	 */
+	private Set<Item> takingEnabledByActions;
+
+	/**
+	 * The items an action moves to a reachable location.
+	 */
+	private Set<Item> movedByActions;
+
+	/**
+	 * The items an action adds inventory items to take to.
+	 */
+	private Set<Item> pickUpItemsAddedByActions;
+
+	/**
+	 * The combinations enabled by an action, see {@link #pair(int, int)}.
+	 */
+	private Set<Long> combinationsEnabledByActions;
+
+	/**
+	 * The ids of the conversation layers with options that are enabled or
+	 * enabled by an action.
+	 */
+	private Set<Integer> layersWithEnabledOptions;
+
+	/**
+	 * The persons, items and ways out of each location.
+	 */
+	private Map<Location, List<List<? extends Identifiable>>> locationContents;
+
+	/**
+	 * The commands in the order they are tried.
+	 */
+	private List<Command> commands;
+
+	/**
+	 * Recognizes the commands.
+	 */
+	private CommandMatcher commandMatcher;
+
+	/**
+	 * Recognizes the commands exiting the game, which are tried first.
+	 */
+	private MultiPattern exitPattern;
+
+	/**
+	 * @param persistenceManager
+	 *            the connected persistence manager of the game. Must not be
+	 *            used by anyone else during the analysis.
+	 */
+	public GameAnalyzer(PersistenceManager persistenceManager) {
+		this.persistenceManager = persistenceManager;
+	}
+
+	/**
+	 * Analyzes a game db. The db is copied, so that it may be in use
+	 * elsewhere.
+	 *
+	 * @param file
+	 *            the game db
+	 * @return the problems found
+	 * @throws IOException
+	 *             if the game cannot be loaded
+	 * @throws DBIncompatibleException
+	 *             if the game db is too new
+	 */
+	public static List<Finding> analyze(URL file) throws IOException, DBIncompatibleException {
+		String db = TempDB.copy(file);
+		PersistenceManager persistenceManager = new PersistenceManager();
+		try {
+			persistenceManager.connect(db, false);
+			return new GameAnalyzer(persistenceManager).analyze();
+		} catch (DBClosedException e) {
+			throw new IOException(e);
+		} finally {
+			persistenceManager.disconnect();
+			TempDB.delete(db);
+		}
+	}
+
+	/**
+	 * Analyzes the game.
+	 *
+	 * @return the problems found, ordered by kind
+	 * @throws DBClosedException
+	 *             if the DB is closed
+	 * @throws DBIncompatibleException
+	 *             if the game cannot be loaded
+	 */
+	public List<Finding> analyze() throws DBClosedException, DBIncompatibleException {
+		long start = System.nanoTime();
+		Game game = persistenceManager.getGameManager().getGame();
+		List<Location> locations = persistenceManager.getLocationManager().getAllLocations();
+		List<Item> items = persistenceManager.getItemManager().getAllItems();
+		List<Person> persons = persistenceManager.getPersonManager().getAllPersons();
+		List<Way> ways = persistenceManager.getWayManager().getAllWays();
+		List<InventoryItem> inventoryItems = persistenceManager.getInventoryItemManager().getAllInventoryItems();
+		List<Conversation> conversations = persistenceManager.getConversationManager().getAllConversations();
+		// Only the actions that can fix problems
+		List<AbstractAction> actions = new ArrayList<>();
+		for (Class<? extends AbstractAction> type : Arrays.asList(MoveAction.class, ChangeItemAction.class,
+				ChangeCombineInformationAction.class, ChangeConversationOptionAction.class)) {
+			actions.addAll(persistenceManager.getActionManager().getAllActions(type));
+		}
+
+		loadActions(game, actions);
+		loadContents(locations, items, persons, ways, inventoryItems, conversations);
+		loadCommands(game);
+
+		List<Identifiable> identifiables = new ArrayList<>(items.size() + persons.size() + ways.size()
+				+ inventoryItems.size());
+		identifiables.addAll(items);
+		identifiables.addAll(persons);
+		identifiables.addAll(ways);
+		identifiables.addAll(inventoryItems);
+		List<CommandPattern> commandPatterns = new ArrayList<>();
+		for (int i = 0; i < commands.size(); i++) {
+			for (String pattern : commands.get(i).getTextualCommands()) {
+				commandPatterns.add(new CommandPattern(i, pattern));
+			}
+			for (String pattern : commands.get(i).getAdditionalTextualCommands()) {
+				commandPatterns.add(new CommandPattern(i, pattern));
+			}
+		}
+		long loaded = System.nanoTime();
+
+		// All checks run at the same time, each split into many tasks
+		List<CheckTask<?>> tasks = new ArrayList<>();
+		tasks.add(new CheckTask<>(locations, this::checkLocation));
+		tasks.add(new CheckTask<>(items, this::checkItem));
+		tasks.add(new CheckTask<>(inventoryItems, this::checkCombinations));
+		tasks.add(new CheckTask<>(conversations, this::checkConversation));
+		tasks.add(new CheckTask<>(commandPatterns, this::checkCommand));
+		tasks.add(new CheckTask<>(identifiables, this::checkIdentifiers));
+		tasks.add(new CheckTask<>(locations, this::checkLocationContents));
+		for (CheckTask<?> task : tasks) {
+			task.fork();
+		}
+		List<Finding> findings = new ArrayList<>();
+		for (CheckTask<?> task : tasks) {
+			findings.addAll(task.join());
+		}
+		Collections.sort(findings, (f1, f2) -> f1.getKind().compareTo(f2.getKind()));
+
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO,
+				"Analyzed {0} objects: loading {1} ms, checking {2} ms, {3} findings",
+				new Object[] { locations.size() + identifiables.size() + conversations.size() + actions.size(),
+						(loaded - start) / 1000000, (System.nanoTime() - loaded) / 1000000, findings.size() });
+		return findings;
+	}
+
+	/**
+	 * Collects what actions can change.
+	 *
+	 * @param game
+	 *            the game
+	 * @param actions
+	 *            all actions
+	 * @throws DBClosedException
+	 *             if the DB is closed
+	 */
+	private void loadActions(Game game, List<AbstractAction> actions) throws DBClosedException {
+		Set<Location> entries = new LinkedHashSet<>();
+		entries.add(game.getStartLocation());
+		for (AbstractAction action : actions) {
+			if (action instanceof MoveAction) {
+				// Hidden move actions of ways are not part of the actions
+				entries.add(((MoveAction) action).getTarget());
+			}
+		}
+		reachable = new HashSet<>(persistenceManager.getLocationManager().getWorldGraph().getReachable(entries, false));
+
+		takingEnabledByActions = new HashSet<>();
+		movedByActions = new HashSet<>();
+		pickUpItemsAddedByActions = new HashSet<>();
+		combinationsEnabledByActions = new HashSet<>();
+		layersWithEnabledOptions = persistenceManager.getConversationOptionManager()
+				.getIdsOfLayersWithEnabledOptions();
+		for (AbstractAction action : actions) {
+			if (action instanceof ChangeItemAction) {
+				ChangeItemAction change = (ChangeItemAction) action;
+				if (change.getEnablingTakeable() == Enabling.ENABLE) {
+					takingEnabledByActions.add(change.getObject());
+				}
+				if (change.getChangeLocation() && reachable.contains(change.getNewLocation())) {
+					movedByActions.add(change.getObject());
+				}
+				if (!change.getPickUpItemsToAdd().isEmpty()) {
+					pickUpItemsAddedByActions.add(change.getObject());
+				}
+			} else if (action instanceof ChangeCombineInformationAction) {
+				ChangeCombineInformationAction change = (ChangeCombineInformationAction) action;
+				if (change.getEnablingCombinable() == Enabling.ENABLE) {
+					combinationsEnabledByActions
+							.add(pair(change.getInventoryItem1().getId(), change.getInventoryItem2().getId()));
+				}
+			} else if (action instanceof ChangeConversationOptionAction) {
+				ChangeConversationOptionAction change = (ChangeConversationOptionAction) action;
+				if (change.getEnabling() == Enabling.ENABLE && change.getOption() != null) {
+					layersWithEnabledOptions.add(change.getOption().getLayer().getId());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads all lists and maps the checks navigate. Lazily loaded lists must
+	 * not be loaded by several threads at once.
+	 *
+	 * @param locations
+	 *            all locations
+	 * @param items
+	 *            all items
+	 * @param persons
+	 *            all persons
+	 * @param ways
+	 *            all ways
+	 * @param inventoryItems
+	 *            all inventory items
+	 * @param conversations
+	 *            all conversations
+	 */
+	private void loadContents(List<Location> locations, List<Item> items, List<Person> persons, List<Way> ways,
+			List<InventoryItem> inventoryItems, List<Conversation> conversations) {
+		locationContents = new IdentityHashMap<>();
+		for (Location location : locations) {
+			// Identifiers are looked up in this order
+			List<List<? extends Identifiable>> contents = new ArrayList<>();
+			contents.add(new ArrayList<>(location.getPersons()));
+			contents.add(new ArrayList<>(location.getItems()));
+			contents.add(new ArrayList<>(location.getWaysOut()));
+			locationContents.put(location, contents);
+		}
+		for (Item item : items) {
+			item.getIdentifiers().size();
+			item.getPickUpItems().size();
+		}
+		for (Person person : persons) {
+			person.getIdentifiers().size();
+		}
+		for (Way way : ways) {
+			way.getIdentifiers().size();
+		}
+		for (InventoryItem inventoryItem : inventoryItems) {
+			inventoryItem.getIdentifiers().size();
+			for (InventoryItem partner : inventoryItem.getInventoryItemsCombinableWith()) {
+				inventoryItem.getNewCombinablesWhenCombinedWith(partner).size();
+			}
+		}
+		for (Conversation conversation : conversations) {
+			conversation.getLayers().size();
+		}
+	}
+
+	/**
+	 * Creates the commands just like a game player would.
+	 *
+	 * @param game
+	 *            the game
+	 */
+	private void loadCommands(Game game) {
+		GamePlayer gamePlayer = new GamePlayer(persistenceManager, null,
+				ioManager -> new ScriptedInputOutput(new StringWriter()));
+		gamePlayer.setGame(game);
+		commands = gamePlayer.getCommands();
+		commandMatcher = gamePlayer.getCommandCache().getCommandMatcher(commands);
+		exitPattern = gamePlayer.getPatternCache().getPattern(game.getExitCommands());
+	}
+
+	/**
+	 * Reports a location that cannot be reached.
+	 *
+	 * @param location
+	 *            the location
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkLocation(Location location, List<Finding> findings) {
+		if (!reachable.contains(location)) {
+			findings.add(new Finding(Kind.UNREACHABLE_LOCATION, location,
+					"No way and no action leads from the start location to " + location.getName() + "."));
+		}
+	}
+
+	/**
+	 * Reports an item giving inventory items, if it can never be taken.
+	 *
+	 * @param item
+	 *            the item
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkItem(Item item, List<Finding> findings) {
+		if (item.getPickUpItems().isEmpty() && !pickUpItemsAddedByActions.contains(item)) {
+			// Nothing to take
+			return;
+		}
+		if (!item.isTakingEnabled() && !takingEnabledByActions.contains(item)) {
+			findings.add(new Finding(Kind.UNTAKEABLE_ITEM, item,
+					"Taking " + item.getName() + " is disabled and no action enables it."));
+		} else if (!reachable.contains(item.getLocation()) && !movedByActions.contains(item)) {
+			findings.add(new Finding(Kind.UNTAKEABLE_ITEM, item, item.getName()
+					+ " is not in a reachable location and no action moves it to one."));
+		}
+	}
+
+	/**
+	 * Reports the combinations of an inventory item with inventory items with
+	 * a higher id, if they would add or remove inventory items, but are never
+	 * enabled. Additional actions are triggered anyway.
+	 *
+	 * @param inventoryItem
+	 *            the inventory item
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkCombinations(InventoryItem inventoryItem, List<Finding> findings) {
+		for (InventoryItem partner : inventoryItem.getInventoryItemsCombinableWith()) {
+			// Both items share the same information
+			if (partner.getId() < inventoryItem.getId() || inventoryItem.isCombiningEnabledWith(partner)
+					|| combinationsEnabledByActions.contains(pair(inventoryItem.getId(), partner.getId()))) {
+				continue;
+			}
+			if (!inventoryItem.getNewCombinablesWhenCombinedWith(partner).isEmpty()
+					|| inventoryItem.getRemoveCombinablesWhenCombinedWith(partner)) {
+				findings.add(new Finding(Kind.DISABLED_COMBINATION, inventoryItem, "Combining "
+						+ inventoryItem.getName() + " with " + partner.getName() + " is disabled and no action enables it."));
+			}
+		}
+	}
+
+	/**
+	 * Reports the layers of a conversation without enabled options.
+	 *
+	 * @param conversation
+	 *            the conversation
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkConversation(Conversation conversation, List<Finding> findings) {
+		List<ConversationLayer> layers = conversation.getLayers();
+		for (int i = 0; i < layers.size(); i++) {
+			if (!layersWithEnabledOptions.contains(layers.get(i).getId())) {
+				findings.add(new Finding(Kind.EMPTY_CONVERSATION_LAYER, conversation, "Layer " + (i + 1) + " of "
+						+ conversation.getName() + " has no enabled options and no action enables one."));
+			}
+		}
+	}
+
+	/**
+	 * Reports a command if inputs it is meant for are recognized as an
+	 * earlier command. Tries the command with and without its optional parts,
+	 * with simple parameters.
+	 *
+	 * @param commandPattern
+	 *            the pattern
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkCommand(CommandPattern commandPattern, List<Finding> findings) {
+		int index = commandPattern.command;
+		String pattern = commandPattern.pattern;
+		String withOptionals = CommandRegExConverter.OPTIONAL_REGEX_PATTERN.matcher(pattern).replaceAll("${op}");
+		for (String regex : new String[] { pattern, withOptionals }) {
+			String input = CommandRegExConverter.convertRegExToReplacementString(regex, EXAMPLE_PARAMETERS[0],
+					EXAMPLE_PARAMETERS[1]);
+			String shadowing = null;
+			if (exitPattern.matcher(input).matches()) {
+				shadowing = "exiting the game";
+			} else {
+				CommandMatch match = commandMatcher.match(input, 0);
+				if (match != null && match.getCommandIndex() < index) {
+					shadowing = "'" + match.getPattern() + "' of "
+							+ commands.get(match.getCommandIndex()).getClass().getSimpleName();
+				}
+			}
+			if (shadowing != null) {
+				findings.add(new Finding(Kind.SHADOWED_COMMAND, null,
+						"'" + pattern + "' of " + commands.get(index).getClass().getSimpleName() + " is recognized as "
+								+ shadowing + " for inputs like '" + input + "'."));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reports the identifiers of an object that are not valid or cannot match
+	 * a normalized input.
+	 *
+	 * @param identifiable
+	 *            the object
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkIdentifiers(Identifiable identifiable, List<Finding> findings) {
+		for (String identifier : identifiable.getIdentifiers()) {
+			if (IdentifierIndex.isLiteral(identifier)) {
+				if (!GeneralParser.normalize(identifier).equals(identifier) || identifier.isEmpty()) {
+					findings.add(new Finding(Kind.UNMATCHABLE_IDENTIFIER, identifiable, "'" + identifier + "' of "
+							+ identifiable.getName()
+							+ " never matches, since inputs are lower case, without punctuation and multiple spaces."));
+				}
+			} else {
+				try {
+					Pattern.compile(identifier);
+				} catch (PatternSyntaxException e) {
+					findings.add(new Finding(Kind.UNMATCHABLE_IDENTIFIER, identifiable, "'" + identifier + "' of "
+							+ identifiable.getName() + " is not a valid regular expression: " + e.getDescription()));
+					continue;
+				}
+				int required = findUnmatchableCharacter(identifier);
+				if (required >= 0) {
+					findings.add(new Finding(Kind.UNMATCHABLE_IDENTIFIER, identifiable,
+							"'" + identifier + "' of " + identifiable.getName() + " never matches, since it requires '"
+									+ (char) required
+									+ "', but inputs are lower case, without punctuation and multiple spaces."));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reports identifiers that never match, since an earlier person, item or
+	 * way of the same kind in a location has the same identifier.
+	 *
+	 * @param location
+	 *            the location
+	 * @param findings
+	 *            the findings to add to
+	 */
+	private void checkLocationContents(Location location, List<Finding> findings) {
+		for (List<? extends Identifiable> identifiables : locationContents.get(location)) {
+			Map<String, Identifiable> first = new HashMap<>();
+			for (Identifiable identifiable : identifiables) {
+				for (String identifier : identifiable.getIdentifiers()) {
+					if (!IdentifierIndex.isLiteral(identifier)) {
+						continue;
+					}
+					Identifiable other = first.putIfAbsent(identifier, identifiable);
+					if (other != null && other != identifiable) {
+						findings.add(new Finding(Kind.UNMATCHABLE_IDENTIFIER, identifiable,
+								"'" + identifier + "' of " + identifiable.getName() + " never matches, since "
+										+ other.getName() + " in " + location.getName() + " has it, too."));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds a character that every match of a regular expression contains,
+	 * but a normalized input never does, such as an upper case letter or
+	 * punctuation. Only characters outside of character classes are
+	 * considered, and none at a level with alternatives or flags.
+	 *
+	 * @param regex
+	 *            a valid regular expression
+	 * @return the character or -1, if none was found
+	 */
+	private static int findUnmatchableCharacter(String regex) {
+		int found = -1;
+		int length = regex.length();
+		int i = 0;
+		while (i < length) {
+			char c = regex.charAt(i++);
+			// The character the atom requires, if it can never be typed
+			int required = -1;
+			switch (c) {
+			case '\\':
+				char escaped = regex.charAt(i++);
+				if (escaped == 'Q') {
+					int end = regex.indexOf("\\E", i);
+					String quoted = regex.substring(i, end < 0 ? length : end);
+					i = end < 0 ? length : end + 2;
+					// Quantifiers only apply to the last quoted character
+					for (int j = 0; j < quoted.length(); j++) {
+						int unmatchable = unmatchable(quoted.charAt(j));
+						if (j < quoted.length() - 1 && found < 0) {
+							found = unmatchable;
+						} else {
+							required = unmatchable;
+						}
+					}
+				} else if (Character.isLetterOrDigit(escaped)) {
+					// Predefined classes, back references and character codes
+					i = skipEscape(regex, escaped, i);
+				} else {
+					required = unmatchable(escaped);
+				}
+				break;
+			case '[':
+				i = skipClass(regex, i);
+				break;
+			case '(':
+				int end = skipGroup(regex, i);
+				String group = regex.substring(i, end - 1);
+				i = end;
+				if (group.startsWith("?=") || group.startsWith("?!") || group.startsWith("?<=")
+						|| group.startsWith("?<!")) {
+					// Lookarounds consume nothing
+					break;
+				} else if (group.startsWith("?:") || group.startsWith("?>")) {
+					group = group.substring(2);
+				} else if (group.startsWith("?<")) {
+					group = group.substring(group.indexOf('>') + 1);
+				} else if (group.startsWith("?")) {
+					// Flags, maybe making the expression case insensitive
+					return -1;
+				}
+				required = findUnmatchableCharacter(group);
+				break;
+			case '|':
+				return -1;
+			case '.':
+			case '^':
+			case '$':
+				break;
+			default:
+				required = unmatchable(c);
+			}
+
+			// Quantifiers may make the atom optional
+			boolean optional = false;
+			if (i < length && "?*+{".indexOf(regex.charAt(i)) >= 0) {
+				char quantifier = regex.charAt(i);
+				optional = quantifier == '?' || quantifier == '*' || regex.startsWith("{0", i);
+				i = quantifier == '{' ? regex.indexOf('}', i) + 1 : i + 1;
+				// Reluctant or possessive
+				if (i < length && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+					i++;
+				}
+			}
+			if (!optional && found < 0) {
+				found = required;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @param c
+	 *            a character
+	 * @return the character, if a normalized input never contains it, or -1
+	 */
+	private static int unmatchable(char c) {
+		String input = "a" + c + "a";
+		return GeneralParser.normalize(input).equals(input) ? -1 : c;
+	}
+
+	/**
+	 * @param regex
+	 *            a valid regular expression
+	 * @param escaped
+	 *            the letter or digit following a backslash
+	 * @param i
+	 *            the position after that letter or digit
+	 * @return the position after the escape sequence
+	 */
+	private static int skipEscape(String regex, char escaped, int i) {
+		switch (escaped) {
+		case 'p':
+		case 'P':
+		case 'x':
+			return regex.startsWith("{", i) ? regex.indexOf('}', i) + 1 : i + (escaped == 'x' ? 2 : 1);
+		case 'u':
+			return i + 4;
+		case 'c':
+			return i + 1;
+		case 'k':
+			return regex.indexOf('>', i) + 1;
+		case '0':
+			// Up to three octal digits
+			int end = Math.min(regex.length(), i + 3);
+			while (i < end && regex.charAt(i) >= '0' && regex.charAt(i) <= '7') {
+				i++;
+			}
+			return i;
+		default:
+			return i;
+		}
+	}
+
+	/**
+	 * @param regex
+	 *            a valid regular expression
+	 * @param i
+	 *            the position after the opening bracket of a character class
+	 * @return the position after its closing bracket
+	 */
+	private static int skipClass(String regex, int i) {
+		int depth = 1;
+		while (depth > 0) {
+			char c = regex.charAt(i++);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * @param regex
+	 *            a valid regular expression
+	 * @param i
+	 *            the position after the opening parenthesis of a group
+	 * @return the position after its closing parenthesis
+	 */
+	private static int skipGroup(String regex, int i) {
+		int depth = 1;
+		while (depth > 0) {
+			char c = regex.charAt(i++);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				i = skipClass(regex, i);
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * @param id1
+	 *            the id of one inventory item
+	 * @param id2
+	 *            the id of another inventory item
+	 * @return a key for the pair, no matter in which order
+	 */
+	private static long pair(int id1, int id2) {
+		return ((long) Math.min(id1, id2) << 32) | (Math.max(id1, id2) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * A pattern of a command.
+	 */
+	private static class CommandPattern {
+
+		/**
+		 * The index of the command.
+		 */
+		private final int command;
+
+		/**
+		 * The pattern.
+		 */
+		private final String pattern;
+
+		/**
+		 * @param command
+		 *            the index of the command
+		 * @param pattern
+		 *            the pattern
+		 */
+		private CommandPattern(int command, String pattern) {
+			this.command = command;
+			this.pattern = pattern;
+		}
+	}
+
+	/**
+	 * Checks a part of a list of objects, splitting it into smaller tasks if
+	 * it is large.
+	 *
+	 * @param <T>
+	 *            the type of the objects
+	 */
+	private static class CheckTask<T> extends RecursiveTask<List<Finding>> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * All objects.
+		 */
+		private final List<T> objects;
+
+		/**
+		 * The index of the first object to check.
+		 */
+		private final int from;
+
+		/**
+		 * The index after the last object to check.
+		 */
+		private final int to;
+
+		/**
+		 * Checks one object.
+		 */
+		private final BiConsumer<T, List<Finding>> check;
+
+		/**
+		 * Creates a task checking all objects.
+		 *
+		 * @param objects
+		 *            the objects
+		 * @param check
+		 *            checks one object, adding its findings
+		 */
+		private CheckTask(List<T> objects, BiConsumer<T, List<Finding>> check) {
+			this(new ArrayList<>(objects), 0, objects.size(), check);
+		}
+
+		/**
+		 * @param objects
+		 *            all objects
+		 * @param from
+		 *            the index of the first object to check
+		 * @param to
+		 *            the index after the last object to check
+		 * @param check
+		 *            checks one object, adding its findings
+		 */
+		private CheckTask(List<T> objects, int from, int to, BiConsumer<T, List<Finding>> check) {
+			this.objects = objects;
+			this.from = from;
+			this.to = to;
+			this.check = check;
+		}
+
+		@Override
+		protected List<Finding> compute() {
+			if (to - from <= OBJECTS_PER_TASK) {
+				List<Finding> findings = new ArrayList<>();
+				for (int i = from; i < to; i++) {
+					check.accept(objects.get(i), findings);
+				}
+				return findings;
+			}
+			int middle = (from + to) >>> 1;
+			CheckTask<T> left = new CheckTask<>(objects, from, middle, check);
+			left.fork();
+			List<Finding> right = new CheckTask<>(objects, middle, to, check).compute();
+			List<Finding> findings = left.join();
+			findings.addAll(right);
+			return findings;
+		}
+	}
+
+	/**
+	 * Analyzes a game db and prints the problems found. Exits with 1 if there
+	 * are any.
+	 *
+	 * @param args
+	 *            the game db
+	 */
+	public static void main(String[] args) {
+		// Initialize the logging
+		try {
+			Class.forName(logging.LoggingManager.class.getName());
+		} catch (ClassNotFoundException e) {
+			Logger.getLogger(GameAnalyzer.class.getName()).log(Level.SEVERE, "Could not initialize logging:", e);
+		}
+
+		if (args.length != 1) {
+			System.out.println("Usage: GameAnalyzer <game db>");
+			System.exit(2);
+		}
+
+		try {
+			List<Finding> findings = analyze(new File(args[0]).toURI().toURL());
+			for (Finding finding : findings) {
+				System.out.println(finding);
+			}
+			System.out.println(findings.size() + " problems found");
+			System.exit(findings.isEmpty() ? 0 : 1);
+		} catch (IOException | DBIncompatibleException e) {
+			Logger.getLogger(GameAnalyzer.class.getName()).log(Level.SEVERE, "Could not analyze the game.", e);
+			System.exit(2);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package persistence;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.mappings.DatabaseMapping;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+import org.eclipse.persistence.sessions.changesets.ChangeRecord;
+import org.eclipse.persistence.sessions.changesets.CollectionChangeRecord;
+import org.eclipse.persistence.sessions.changesets.ObjectChangeSet;
+import org.eclipse.persistence.sessions.changesets.UnitOfWorkChangeSet;
+
+/**
+ * Records the ids of all objects whose rows may be changed by the commits of
+ * a {@link PersistenceManager}, so that {@link SaveGameDelta} only needs to
+ * compare these rows.
+ *
+ * Besides the new, changed and removed objects, the elements of changed
+ * lists are recorded. The order of a list and the owner of its elements are
+ * often stored in the rows of the elements, which change without the
+ * elements themselves being changed.
+ *
+ * Changes are recorded when they are calculated, even if the commit fails
+ * afterwards. Recording too many objects does no harm.
+ *
+ * @author Satia
+ */
+class ChangeTracker extends SessionEventAdapter {
+
+	/**
+	 * The recorded ids.
+	 */
+	private final Set<Integer> ids = new HashSet<>();
+
+	/**
+	 * @return a copy of the recorded ids
+	 */
+	synchronized Set<Integer> getIds() {
+		return new HashSet<>(ids);
+	}
+
+	@Override
+	public synchronized void postCalculateUnitOfWorkChangeSet(SessionEvent event) {
+		UnitOfWorkChangeSet changeSet = (UnitOfWorkChangeSet) event.getProperty("UnitOfWorkChangeSet");
+		if (changeSet == null) {
+			return;
+		}
+		Session session = event.getSession();
+		for (Object object : changeSet.getAllChangeSets().keySet()) {
+			ObjectChangeSet objectChanges = (ObjectChangeSet) object;
+			addId(objectChanges.getId());
+			for (ChangeRecord record : objectChanges.getChanges()) {
+				if (record instanceof CollectionChangeRecord) {
+					addIds(((CollectionChangeRecord) record).getRemoveObjectList().keySet());
+					addElementIds(session, changeSet.getUOWCloneForObjectChangeSet(objectChanges),
+							record.getAttribute());
+				}
+			}
+		}
+		addIds(changeSet.getDeletedObjects().keySet());
+	}
+
+	/**
+	 * Records the ids of the elements of a list or map of an object.
+	 *
+	 * @param session
+	 *            the session of the object
+	 * @param object
+	 *            the object
+	 * @param attribute
+	 *            the name of the list or map
+	 */
+	private void addElementIds(Session session, Object object, String attribute) {
+		if (object == null) {
+			return;
+		}
+		DatabaseMapping mapping = session.getClassDescriptor(object).getMappingForAttributeName(attribute);
+		Object value = mapping.getAttributeValueFromObject(object);
+		Collection<?> elements;
+		if (value instanceof Map) {
+			elements = ((Map<?, ?>) value).entrySet();
+		} else if (value instanceof Collection) {
+			elements = (Collection<?>) value;
+		} else {
+			return;
+		}
+		for (Object element : elements) {
+			if (element instanceof Map.Entry) {
+				addEntityId(session, ((Map.Entry<?, ?>) element).getKey());
+				addEntityId(session, ((Map.Entry<?, ?>) element).getValue());
+			} else {
+				addEntityId(session, element);
+			}
+		}
+	}
+
+	/**
+	 * Records the id of an object, if it is an entity.
+	 *
+	 * @param session
+	 *            the session of the object
+	 * @param object
+	 *            the object
+	 */
+	private void addEntityId(Session session, Object object) {
+		if (object == null) {
+			return;
+		}
+		ClassDescriptor descriptor = session.getClassDescriptor(object.getClass());
+		if (descriptor != null && !descriptor.isAggregateDescriptor()) {
+			addId(session.getId(object));
+		}
+	}
+
+	/**
+	 * Records the ids of object change sets.
+	 *
+	 * @param changeSets
+	 *            the object change sets
+	 */
+	private void addIds(Collection<?> changeSets) {
+		for (Object changeSet : changeSets) {
+			addId(((ObjectChangeSet) changeSet).getId());
+		}
+	}
+
+	/**
+	 * Records an id. All objects of the model have integer ids.
+	 *
+	 * @param id
+	 *            the id
+	 */
+	private void addId(Object id) {
+		if (id instanceof Integer) {
+			ids.add((Integer) id);
+		}
+	}
+}
@@ -35,12 +35,8 @@ public class ConversationManager {
 		
 		CriteriaQuery<Conversation> query = persistenceManager.getCriteriaBuilder().createQuery(Conversation.class);
 		query.from(Conversation.class);
-		List<Conversation> resultList = persistenceManager.getEntityManager().createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for (Conversation c : resultList) {
-			persistenceManager.getEntityManager().refresh(c);
-		}
-		return resultList;
+		return persistenceManager.getRefreshedResultList(query, "layers", "additionalActions");
 	}
 
 }
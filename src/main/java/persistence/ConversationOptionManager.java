@@ -1,8 +1,12 @@
 package persistence;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 
 import data.Conversation;
 import data.ConversationOption;
@@ -37,12 +41,24 @@ public class ConversationOptionManager {
 		CriteriaQuery<ConversationOption> query = persistenceManager.getCriteriaBuilder()
 				.createQuery(ConversationOption.class);
 		query.from(Conversation.class);
-		List<ConversationOption> resultList = persistenceManager.getEntityManager().createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for (ConversationOption o : resultList) {
-			persistenceManager.getEntityManager().refresh(o);
-		}
-		return resultList;
+		return persistenceManager.getRefreshedResultList(query);
+	}
+
+	/**
+	 * Does not load the options, since loading many options is slow.
+	 * 
+	 * @return the ids of all conversation layers with enabled options.
+	 * @throws DBClosedException
+	 */
+	public Set<Integer> getIdsOfLayersWithEnabledOptions() throws DBClosedException {
+		persistenceManager.updateChanges();
+
+		CriteriaBuilder criteriaBuilder = persistenceManager.getCriteriaBuilder();
+		CriteriaQuery<Integer> query = criteriaBuilder.createQuery(Integer.class);
+		Root<ConversationOption> option = query.from(ConversationOption.class);
+		query.select(option.get("layer").get("id")).where(criteriaBuilder.isTrue(option.get("enabled")));
+		return new HashSet<>(persistenceManager.getEntityManager().createQuery(query).getResultList());
 	}
 
 }
@@ -0,0 +1,293 @@
+package persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import data.interfaces.Identifiable;
+
+/**
+ * An index over the identifiers of a number of identifiable objects, answering
+ * the same question as
+ * {@link IdentifiableObjectManager#getIdentifiableWithIdentifier(List, String)}
+ * without testing every identifier of every object.
+ * 
+ * Each object is added with a position. If several objects match an
+ * identifier, the one with the lowest position is found, just as the first
+ * matching object of a list would be. Identifiers without any regular
+ * expression meta characters are looked up in a hash map, all other
+ * identifiers are compiled once and only tested if they could beat the best
+ * literal match.
+ * 
+ * @author Satia
+ * 
+ * @param <E>
+ *            the Identifiable subclass
+ */
+public class IdentifierIndex<E extends Identifiable> {
+
+	/**
+	 * Any character with a special meaning in a regular expression.
+	 */
+	private static final Pattern META_CHARACTERS = Pattern.compile("[\\\\\\[\\](){}.*+?^$|]");
+
+	/**
+	 * The entries of literal identifiers, each list sorted by position.
+	 */
+	private final Map<String, List<Entry<E>>> literals;
+
+	/**
+	 * The entries of regular expression identifiers, sorted by position.
+	 */
+	private final List<Entry<E>> patterns;
+
+	/**
+	 * The entries of each indexed object.
+	 */
+	private final Map<E, List<Entry<E>>> entries;
+
+	/**
+	 * The position of each indexed object.
+	 */
+	private final Map<E, Long> positions;
+
+	/**
+	 * Creates an empty index.
+	 */
+	public IdentifierIndex() {
+		this.literals = new HashMap<>();
+		this.patterns = new ArrayList<>();
+		this.entries = new IdentityHashMap<>();
+		this.positions = new IdentityHashMap<>();
+	}
+
+	/**
+	 * @param identifier
+	 *            an identifier of an object
+	 * @return if the identifier only matches itself.
+	 */
+	public static boolean isLiteral(String identifier) {
+		return !META_CHARACTERS.matcher(identifier).find();
+	}
+
+	/**
+	 * Adds an object to the index. Nothing happens if it is already indexed.
+	 * 
+	 * @param object
+	 *            the object
+	 * @param position
+	 *            the position of the object. Lower positions take precedence.
+	 */
+	public void add(E object, long position) {
+		if (entries.containsKey(object)) {
+			return;
+		}
+		List<Entry<E>> objectEntries = new ArrayList<>(object.getIdentifiers().size());
+		for (String identifier : object.getIdentifiers()) {
+			if (isLiteral(identifier)) {
+				Entry<E> entry = new Entry<>(object, position, identifier, null);
+				List<Entry<E>> list = literals.get(identifier);
+				if (list == null) {
+					list = new ArrayList<>(1);
+					literals.put(identifier, list);
+				}
+				insertSorted(list, entry);
+				objectEntries.add(entry);
+			} else {
+				try {
+					Entry<E> entry = new Entry<>(object, position, identifier, Pattern.compile(identifier));
+					insertSorted(patterns, entry);
+					objectEntries.add(entry);
+				} catch (PatternSyntaxException e) {
+					Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
+							"Identifier " + identifier + " of " + object + " is not a valid regular expression", e);
+				}
+			}
+		}
+		entries.put(object, objectEntries);
+		positions.put(object, position);
+	}
+
+	/**
+	 * Removes all objects from the index.
+	 */
+	public void clear() {
+		literals.clear();
+		patterns.clear();
+		entries.clear();
+		positions.clear();
+	}
+
+	/**
+	 * @param object
+	 *            the object
+	 * @return if the object is indexed.
+	 */
+	public boolean contains(E object) {
+		return entries.containsKey(object);
+	}
+
+	/**
+	 * Gets the object with the lowest position that has an identifier matching
+	 * the given one, or {@code null}, if there is none.
+	 * 
+	 * @param identifier
+	 *            the identifier typed by the player
+	 * @return the corresponding object or {@code null}.
+	 */
+	public E find(String identifier) {
+		return find(identifier, null);
+	}
+
+	/**
+	 * Gets the object of the given type with the lowest position that has an
+	 * identifier matching the given one, or {@code null}, if there is none.
+	 * 
+	 * @param <T>
+	 *            the type of the object
+	 * @param identifier
+	 *            the identifier typed by the player
+	 * @param type
+	 *            the type of the object. If {@code null}, any indexed object
+	 *            is considered.
+	 * @return the corresponding object or {@code null}.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends E> T find(String identifier, Class<T> type) {
+		Entry<E> best = null;
+		List<Entry<E>> list = literals.get(identifier);
+		if (list != null) {
+			for (Entry<E> entry : list) {
+				if (type == null || type.isInstance(entry.object)) {
+					best = entry;
+					break;
+				}
+			}
+		}
+		for (Entry<E> entry : patterns) {
+			if (best != null && entry.position >= best.position) {
+				break;
+			}
+			if ((type == null || type.isInstance(entry.object)) && entry.pattern.matcher(identifier).matches()) {
+				best = entry;
+				break;
+			}
+		}
+		return best == null ? null : (T) best.object;
+	}
+
+	/**
+	 * @return the indexed objects
+	 */
+	public Set<E> getObjects() {
+		return entries.keySet();
+	}
+
+	/**
+	 * Removes an object from the index.
+	 * 
+	 * @param object
+	 *            the object
+	 */
+	public void remove(E object) {
+		List<Entry<E>> objectEntries = entries.remove(object);
+		if (objectEntries == null) {
+			return;
+		}
+		positions.remove(object);
+		for (Entry<E> entry : objectEntries) {
+			if (entry.pattern == null) {
+				List<Entry<E>> list = literals.get(entry.identifier);
+				list.remove(entry);
+				if (list.isEmpty()) {
+					literals.remove(entry.identifier);
+				}
+			} else {
+				patterns.remove(entry);
+			}
+		}
+	}
+
+	/**
+	 * Re-reads the identifiers of an indexed object, keeping its position.
+	 * Nothing happens if the object is not indexed.
+	 * 
+	 * @param object
+	 *            the object
+	 */
+	public void update(E object) {
+		Long position = positions.get(object);
+		if (position == null) {
+			return;
+		}
+		remove(object);
+		add(object, position);
+	}
+
+	/**
+	 * Inserts an entry into a list sorted by position, behind all entries with
+	 * the same position.
+	 * 
+	 * @param list
+	 *            the list
+	 * @param entry
+	 *            the entry
+	 */
+	private static <E extends Identifiable> void insertSorted(List<Entry<E>> list, Entry<E> entry) {
+		int i = list.size();
+		while (i > 0 && list.get(i - 1).position > entry.position) {
+			i--;
+		}
+		list.add(i, entry);
+	}
+
+	/**
+	 * An identifier of an indexed object.
+	 */
+	private static class Entry<E> {
+
+		/**
+		 * The object.
+		 */
+		private final E object;
+
+		/**
+		 * The position of the object.
+		 */
+		private final long position;
+
+		/**
+		 * The identifier.
+		 */
+		private final String identifier;
+
+		/**
+		 * The compiled identifier or {@code null} for a literal identifier.
+		 */
+		private final Pattern pattern;
+
+		/**
+		 * @param object
+		 *            the object
+		 * @param position
+		 *            the position of the object
+		 * @param identifier
+		 *            the identifier
+		 * @param pattern
+		 *            the compiled identifier or {@code null}
+		 */
+		private Entry(E object, long position, String identifier, Pattern pattern) {
+			this.object = object;
+			this.position = position;
+			this.identifier = identifier;
+			this.pattern = pattern;
+		}
+	}
+}
@@ -1,9 +1,15 @@
 package persistence;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+import data.InventoryItem;
+import data.Item;
+import data.Location;
+import data.Person;
 import data.Player;
+import data.Way;
+import data.interfaces.Identifiable;
+import data.interfaces.IdentifiablesListener;
 import data.interfaces.Inspectable;
 import exception.DBClosedException;
 import exception.DBIncompatibleException;
@@ -20,6 +26,13 @@ public class InspectableObjectManager {
 	 */
 	private PersistenceManager persistenceManager;
 
+	/**
+	 * The index of everything the player can currently refer to. Built lazily
+	 * and kept up to date by notifications of the player, the location and
+	 * the indexed objects.
+	 */
+	private Scope scope;
+
 	/**
 	 * @param persistenceManager
 	 */
@@ -41,14 +54,138 @@ public class InspectableObjectManager {
 	public Inspectable getInspectable(String identifier) throws DBClosedException, DBIncompatibleException {
 		Player player = persistenceManager.getPlayerManager().getPlayer();
 
-		List<Inspectable> inspectables = new ArrayList<>();
-		// Anything in the room
-		inspectables.addAll(player.getLocation().getInspectables());
-		// Anything in the inventory
-		inspectables.addAll(player.getInventory());
+		if (scope == null || scope.player != player) {
+			if (scope != null) {
+				scope.detach();
+			}
+			scope = new Scope(player);
+		}
+		return scope.index.find(identifier);
+	}
 
-		return IdentifiableObjectManager.getIdentifiableWithIdentifier(
-				inspectables, identifier);
+	/**
+	 * @param location
+	 *            a location
+	 * @return the index containing the persons, items and ways out of the
+	 *         location or {@code null}, if the location is not indexed.
+	 */
+	IdentifierIndex<Inspectable> getIndex(Location location) {
+		if (scope == null || location == null || scope.location != location) {
+			return null;
+		}
+		return scope.index;
 	}
 
+	/**
+	 * The persons, items and ways out of the player's location and the
+	 * inventory, indexed in that order.
+	 */
+	private static class Scope implements IdentifiablesListener {
+
+		/**
+		 * The indexed player.
+		 */
+		private final Player player;
+
+		/**
+		 * The indexed location of the player.
+		 */
+		private Location location;
+
+		/**
+		 * The index.
+		 */
+		private final IdentifierIndex<Inspectable> index;
+
+		/**
+		 * The next position for persons, items, ways and inventory items.
+		 */
+		private final int[] nextPosition;
+
+		/**
+		 * Indexes the current surroundings of a player.
+		 * 
+		 * @param player
+		 *            the player
+		 */
+		private Scope(Player player) {
+			this.player = player;
+			this.index = new IdentifierIndex<>();
+			this.nextPosition = new int[4];
+			attach();
+		}
+
+		/**
+		 * Registers as listener and indexes all objects.
+		 */
+		private void attach() {
+			location = player.getLocation();
+			player.setIdentifiablesListener(this);
+			if (location != null) {
+				location.setIdentifiablesListener(this);
+				// Same order as Location.getInspectables()
+				location.getPersons().forEach(this::identifiableAdded);
+				location.getItems().forEach(this::identifiableAdded);
+				location.getWaysOut().forEach(this::identifiableAdded);
+			}
+			player.getInventory().forEach(this::identifiableAdded);
+		}
+
+		/**
+		 * Unregisters as listener and clears the index.
+		 */
+		private void detach() {
+			player.setIdentifiablesListener(null);
+			if (location != null) {
+				location.setIdentifiablesListener(null);
+			}
+			for (Inspectable inspectable : index.getObjects()) {
+				inspectable.setIdentifiablesListener(null);
+			}
+			index.clear();
+			Arrays.fill(nextPosition, 0);
+		}
+
+		@Override
+		public void identifiableAdded(Identifiable identifiable) {
+			int segment;
+			if (identifiable instanceof Person) {
+				segment = 0;
+			} else if (identifiable instanceof Item) {
+				segment = 1;
+			} else if (identifiable instanceof Way) {
+				segment = 2;
+			} else if (identifiable instanceof InventoryItem) {
+				segment = 3;
+			} else {
+				return;
+			}
+			Inspectable inspectable = (Inspectable) identifiable;
+			if (!index.contains(inspectable)) {
+				index.add(inspectable, ((long) segment << 32) | nextPosition[segment]++);
+				inspectable.setIdentifiablesListener(this);
+			}
+		}
+
+		@Override
+		public void identifiableRemoved(Identifiable identifiable) {
+			if (identifiable instanceof Inspectable && index.contains((Inspectable) identifiable)) {
+				index.remove((Inspectable) identifiable);
+				identifiable.setIdentifiablesListener(null);
+			}
+		}
+
+		@Override
+		public void identifiersChanged(Identifiable identifiable) {
+			if (identifiable instanceof Inspectable) {
+				index.update((Inspectable) identifiable);
+			}
+		}
+
+		@Override
+		public void identifiablesReordered() {
+			detach();
+			attach();
+		}
+	}
 }
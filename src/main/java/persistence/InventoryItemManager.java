@@ -6,6 +6,7 @@ import java.util.Set;
 
 import javax.persistence.criteria.CriteriaQuery;
 
+import data.CombinationIndex;
 import data.InventoryItem;
 import exception.DBClosedException;
 
@@ -21,6 +22,17 @@ public class InventoryItemManager {
 	 */
 	private PersistenceManager persistenceManager;
 
+	/**
+	 * The index of all combinations, if already built.
+	 */
+	private CombinationIndex combinationIndex;
+
+	/**
+	 * The {@link InventoryItem#getCombinationsVersion()} the index was built
+	 * at.
+	 */
+	private int combinationIndexVersion;
+
 	/**
 	 * @param persistenceManager
 	 */
@@ -65,11 +77,41 @@ public class InventoryItemManager {
 		
 		CriteriaQuery<InventoryItem> query = persistenceManager.getCriteriaBuilder().createQuery(InventoryItem.class);
 		query.from(InventoryItem.class);
-		List<InventoryItem> resultList = persistenceManager.getEntityManager().createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for (InventoryItem i : resultList) {
-			persistenceManager.getEntityManager().refresh(i);
+		return persistenceManager.getRefreshedResultList(query,
+				"identifiers", "additionalInspectActions", "additionalUseActions", "additionalUseCommands",
+				"combineInformation", "additionalCombineCommands", "useWithInformation");
+	}
+
+	/**
+	 * Obtains the index of the information for combining inventory items and
+	 * using them with other objects. The index is built once and only built
+	 * again when information was added.
+	 * 
+	 * The inventory items are not refreshed, so that the index reflects
+	 * changes made during the game that are not yet written to the DB.
+	 * 
+	 * @return the index
+	 * @throws DBClosedException
+	 */
+	public CombinationIndex getCombinationIndex() throws DBClosedException {
+		int version = InventoryItem.getCombinationsVersion();
+		if (combinationIndex == null || combinationIndexVersion != version) {
+			CriteriaQuery<InventoryItem> query = persistenceManager.getCriteriaBuilder()
+					.createQuery(InventoryItem.class);
+			query.from(InventoryItem.class);
+			combinationIndex = new CombinationIndex(persistenceManager.getResultList(query, "combineInformation",
+					"additionalCombineCommands", "useWithInformation"));
+			combinationIndexVersion = version;
 		}
-		return resultList;
+		return combinationIndex;
+	}
+
+	/**
+	 * Discards the index, so that it will be built from the new DB after
+	 * connecting to it.
+	 */
+	public void reset() {
+		combinationIndex = null;
 	}
 }
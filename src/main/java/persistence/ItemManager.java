@@ -51,12 +51,10 @@ public class ItemManager {
 		
 		CriteriaQuery<Item> query = persistenceManager.getCriteriaBuilder().createQuery(Item.class);
 		query.from(Item.class);
-		List<Item> resultList = persistenceManager.getEntityManager().createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for (Item i : resultList) {
-			persistenceManager.getEntityManager().refresh(i);
-		}
-		return resultList;
+		return persistenceManager.getRefreshedResultList(query,
+				"identifiers", "additionalInspectActions", "additionalUseActions", "additionalUseCommands",
+				"pickUpItems", "additionalTakeActions", "additionalTakeCommands");
 	}
 
 }
@@ -0,0 +1,350 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An append-only record of the input of a running game. The game can be
+ * restored by applying the snapshot to a copy of the game database and then
+ * replaying the input.
+ *
+ * The file starts with the checksum of the game database and the snapshot, a
+ * delta savegame as written by {@link SaveGameDelta}, which is empty for a new
+ * game. The entries follow, each written and flushed as soon as it is
+ * appended. After a crash, only the last entry may be incomplete. It is
+ * ignored when reading.
+ *
+ * Playing is deterministic, so the typed text and the chosen options are the
+ * only entries needed.
+ *
+ * @author Satia
+ */
+public class Journal implements Closeable {
+
+	/**
+	 * Identifies journal files.
+	 */
+	private static final String MAGIC = "TAM-JOURNAL";
+
+	/**
+	 * The version of the file format.
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * Marks an entry with typed text.
+	 */
+	private static final byte TEXT = 'T';
+
+	/**
+	 * Marks an entry with a chosen option.
+	 */
+	private static final byte OPTION = 'O';
+
+	/**
+	 * The file.
+	 */
+	private final File file;
+
+	/**
+	 * The snapshot the entries start from. Empty for a new game.
+	 */
+	private final byte[] snapshot;
+
+	/**
+	 * The entries.
+	 */
+	private final List<Entry> entries;
+
+	/**
+	 * The stream appending to the file, or {@code null} if the journal was
+	 * only read.
+	 */
+	private DataOutputStream out;
+
+	/**
+	 * @param file
+	 *            the file
+	 * @param snapshot
+	 *            the snapshot
+	 * @param entries
+	 *            the entries
+	 */
+	private Journal(File file, byte[] snapshot, List<Entry> entries) {
+		this.file = file;
+		this.snapshot = snapshot;
+		this.entries = entries;
+	}
+
+	/**
+	 * Creates a journal file, replacing an existing one only after it has been
+	 * written completely. The returned journal can be appended to.
+	 *
+	 * @param file
+	 *            the file to write
+	 * @param baseChecksum
+	 *            the checksum of the game database, see
+	 *            {@link SaveGameDelta#checksum(java.net.URL)}
+	 * @param snapshot
+	 *            the snapshot the entries start from. Empty for a new game.
+	 * @param entries
+	 *            the entries since the snapshot
+	 * @return the journal
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static Journal create(File file, long baseChecksum, byte[] snapshot, List<Entry> entries)
+			throws IOException {
+		Path target = file.getAbsoluteFile().toPath();
+		Path temp = Files.createTempFile(target.getParent(), "tam", ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+				out.writeUTF(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeLong(baseChecksum);
+				out.writeInt(snapshot.length);
+				out.write(snapshot);
+				for (Entry entry : entries) {
+					entry.write(out);
+				}
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+		Journal result = new Journal(file, snapshot, new ArrayList<>(entries));
+		result.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+		return result;
+	}
+
+	/**
+	 * Reads a journal file. The returned journal cannot be appended to.
+	 *
+	 * @param file
+	 *            the file to read
+	 * @param baseChecksum
+	 *            the checksum of the game database
+	 * @return the journal
+	 * @throws IOException
+	 *             if the file cannot be read or belongs to another game
+	 *             database
+	 */
+	public static Journal read(File file, long baseChecksum) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (!MAGIC.equals(in.readUTF()) || in.readInt() != FORMAT_VERSION) {
+				throw new IOException("Not a journal: " + file);
+			}
+			if (in.readLong() != baseChecksum) {
+				throw new IOException("The journal belongs to another version of the game: " + file);
+			}
+			byte[] snapshot = new byte[in.readInt()];
+			in.readFully(snapshot);
+
+			List<Entry> entries = new ArrayList<>();
+			try {
+				for (int kind; (kind = in.read()) != -1;) {
+					if (kind == TEXT) {
+						entries.add(Entry.text(in.readUTF()));
+					} else if (kind == OPTION) {
+						entries.add(Entry.option(in.readInt()));
+					} else {
+						throw new IOException("Unknown journal entry in " + file);
+					}
+				}
+			} catch (EOFException e) {
+				Logger.getLogger(Journal.class.getName()).log(Level.WARNING,
+						"Ignoring the incomplete last entry of {0}", file);
+			}
+			return new Journal(file, snapshot, entries);
+		}
+	}
+
+	/**
+	 * @return the snapshot the entries start from. Empty for a new game.
+	 */
+	public byte[] getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return the entries since the snapshot
+	 */
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(entries);
+	}
+
+	/**
+	 * @return the number of entries since the snapshot
+	 */
+	public int getLength() {
+		return entries.size();
+	}
+
+	/**
+	 * Appends typed text.
+	 *
+	 * @param text
+	 *            the text
+	 * @throws IOException
+	 *             if the entry cannot be written
+	 */
+	public void appendText(String text) throws IOException {
+		append(Entry.text(text));
+	}
+
+	/**
+	 * Appends a chosen option.
+	 *
+	 * @param index
+	 *            the index of the option
+	 * @throws IOException
+	 *             if the entry cannot be written
+	 */
+	public void appendOption(int index) throws IOException {
+		append(Entry.option(index));
+	}
+
+	/**
+	 * Appends an entry and flushes it to the file.
+	 *
+	 * @param entry
+	 *            the entry
+	 * @throws IOException
+	 *             if the entry cannot be written or the journal was only read
+	 */
+	private void append(Entry entry) throws IOException {
+		if (out == null) {
+			throw new IOException("The journal is not open for appending: " + file);
+		}
+		entry.write(out);
+		out.flush();
+		entries.add(entry);
+	}
+
+	/**
+	 * Copies the journal file, e.g. to save the game.
+	 *
+	 * @param target
+	 *            the file to write
+	 * @throws IOException
+	 *             if the file cannot be copied
+	 */
+	public void copyTo(File target) throws IOException {
+		if (out != null) {
+			out.flush();
+		}
+		Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (out != null) {
+			out.close();
+			out = null;
+		}
+	}
+
+	/**
+	 * An entry of a journal: either typed text or a chosen option.
+	 */
+	public static class Entry {
+
+		/**
+		 * The typed text or {@code null}, if an option was chosen.
+		 */
+		private final String text;
+
+		/**
+		 * The index of the chosen option.
+		 */
+		private final int option;
+
+		/**
+		 * @param text
+		 *            the typed text or {@code null}, if an option was chosen
+		 * @param option
+		 *            the index of the chosen option
+		 */
+		private Entry(String text, int option) {
+			this.text = text;
+			this.option = option;
+		}
+
+		/**
+		 * @param text
+		 *            the typed text
+		 * @return an entry with typed text
+		 */
+		public static Entry text(String text) {
+			return new Entry(text, -1);
+		}
+
+		/**
+		 * @param index
+		 *            the index of the chosen option
+		 * @return an entry with a chosen option
+		 */
+		public static Entry option(int index) {
+			return new Entry(null, index);
+		}
+
+		/**
+		 * @return if an option was chosen
+		 */
+		public boolean isOption() {
+			return text == null;
+		}
+
+		/**
+		 * @return the typed text or {@code null}, if an option was chosen
+		 */
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * @return the index of the chosen option
+		 */
+		public int getOption() {
+			return option;
+		}
+
+		/**
+		 * @param out
+		 *            the stream to write the entry to
+		 * @throws IOException
+		 */
+		private void write(DataOutputStream out) throws IOException {
+			if (text != null) {
+				out.writeByte(TEXT);
+				out.writeUTF(text);
+			} else {
+				out.writeByte(OPTION);
+				out.writeInt(option);
+			}
+		}
+	}
+}
@@ -19,6 +19,16 @@ public class LocationManager {
 	 */
 	private PersistenceManager persistenceManager;
 
+	/**
+	 * The graph of the locations, if already built.
+	 */
+	private WorldGraph worldGraph;
+
+	/**
+	 * The {@link Location#getWaysVersion()} the graph was built at.
+	 */
+	private int worldGraphVersion;
+
 	/**
 	 * @param persistenceManager
 	 */
@@ -35,12 +45,38 @@ public class LocationManager {
 		
 		CriteriaQuery<Location> query = persistenceManager.getCriteriaBuilder().createQuery(Location.class);
 		query.from(Location.class);
-		List<Location> resultList = persistenceManager.getEntityManager().createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for (Location l : resultList) {
-			persistenceManager.getEntityManager().refresh(l);
+		return persistenceManager.getRefreshedResultList(query, "persons", "items", "waysOut", "waysIn");
+	}
+
+	/**
+	 * Obtains the graph of all locations and the ways between them. The graph
+	 * is built once and only built again when ways were added, removed or
+	 * changed their origin or destination.
+	 * 
+	 * The locations are not refreshed, so that the graph reflects changes
+	 * made during the game that are not yet written to the DB.
+	 * 
+	 * @return the graph
+	 * @throws DBClosedException
+	 */
+	public WorldGraph getWorldGraph() throws DBClosedException {
+		int version = Location.getWaysVersion();
+		if (worldGraph == null || worldGraphVersion != version) {
+			CriteriaQuery<Location> query = persistenceManager.getCriteriaBuilder().createQuery(Location.class);
+			query.from(Location.class);
+			worldGraph = new WorldGraph(persistenceManager.getResultList(query, "waysOut", "waysOut.moveAction"));
+			worldGraphVersion = version;
 		}
-		return resultList;
+		return worldGraph;
+	}
+
+	/**
+	 * Discards the graph, so that it will be built from the new DB after
+	 * connecting to it.
+	 */
+	public void reset() {
+		worldGraph = null;
 	}
 
 }
\ No newline at end of file
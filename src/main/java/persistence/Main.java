@@ -45,6 +45,17 @@ public class Main {
 	 * Creates a game database features every data class that exists.
 	 */
 	public static void main(String[] args) throws Exception {
+		createTestAdventure(PropertiesReader.DIRECTORY + "Test-Adventure");
+	}
+
+	/**
+	 * Creates the test adventure in the given file.
+	 * 
+	 * @param filename
+	 *            the file to create, without the ending. Any existing game in
+	 *            it is deleted.
+	 */
+	public static void createTestAdventure(String filename) throws Exception {
 		Player player = new Player();
 		Game game = new Game();
 
@@ -389,6 +400,42 @@ public class Main {
 		game.setStartLocation(flat);
 		game.setStartText("This is a little text adventure.");
 
+		setGameOptions(game);
+
+		game.setGameTitle("Test-Adventure");
+
+		PersistenceManager pm = new PersistenceManager();
+
+		// Connect to database
+		pm.connect(filename, true);
+
+		// Persist everything (Cascade.PERSIST persists the rest)
+		pm.getEntityManager().persist(player);
+		pm.getEntityManager().persist(game);
+
+		///////////////////////
+		// Additional test data
+		Location locToDel = new Location("Del me", "pls");
+		ChangeNDObjectAction cltd = new ChangeNDObjectAction("cltd", locToDel);
+		cltd.setNewName("Did ja del me?");
+		// Item thing = new Item(locToDel, "Thing", "useless");
+
+		pm.getEntityManager().persist(locToDel);
+		pm.getEntityManager().persist(cltd);
+		///////////////////////
+
+		// Updates changes and disconnect
+		pm.updateChanges();
+		pm.disconnect();
+	}
+
+	/**
+	 * Sets the texts, colors and commands of the test adventure.
+	 * 
+	 * @param game
+	 *            the game
+	 */
+	static void setGameOptions(Game game) {
 		game.setNoCommandText("I don't understand you.");
 		game.setInvalidCommandText("This doesn't make sense.");
 		game.setNoSuchInventoryItemText("You do not have a <identifier>.");
@@ -446,31 +493,5 @@ public class Main {
 		game.addUseWithCombineCommand("combine (?<o0>.+?) with (?<o1>.+?)");
 		game.addTalkToCommand("talk to (?<o0>.+?)");
 		game.addTalkToCommand("speak with (?<o0>.+?)");
-
-		game.setGameTitle("Test-Adventure");
-
-		PersistenceManager pm = new PersistenceManager();
-
-		// Connect to database
-		pm.connect(PropertiesReader.DIRECTORY + "Test-Adventure", true);
-
-		// Persist everything (Cascade.PERSIST persists the rest)
-		pm.getEntityManager().persist(player);
-		pm.getEntityManager().persist(game);
-
-		///////////////////////
-		// Additional test data
-		Location locToDel = new Location("Del me", "pls");
-		ChangeNDObjectAction cltd = new ChangeNDObjectAction("cltd", locToDel);
-		cltd.setNewName("Did ja del me?");
-		// Item thing = new Item(locToDel, "Thing", "useless");
-
-		pm.getEntityManager().persist(locToDel);
-		pm.getEntityManager().persist(cltd);
-		///////////////////////
-
-		// Updates changes and disconnect
-		pm.updateChanges();
-		pm.disconnect();
 	}
 }
\ No newline at end of file
@@ -1,10 +1,25 @@
 package persistence;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -12,13 +27,23 @@ import javax.persistence.EntityNotFoundException;
 import javax.persistence.NoResultException;
 import javax.persistence.Persistence;
 import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 
+import org.eclipse.persistence.annotations.BatchFetchType;
+import org.eclipse.persistence.config.CascadePolicy;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.jpa.JpaHelper;
+
+import configuration.PropertiesReader;
 import data.Model;
 import exception.DBClosedException;
 import exception.DBIncompatibleException;
+import logging.Instrumentation;
+import logging.SqlProfiler;
 
 /**
  * Manages connections to database files.
@@ -55,6 +80,58 @@ public class PersistenceManager {
 	 */
 	private EntityManagerFactory entityManagerFactory;
 
+	/**
+	 * The JDBC URL of the connected database. {@code null} if connected to the
+	 * database of another persistence manager.
+	 */
+	private volatile String url;
+
+	/**
+	 * If the entity manager factory belongs to another persistence manager.
+	 * Then nothing is ever written to the database.
+	 */
+	private boolean sharedFactory;
+
+	/**
+	 * Deferred changes are committed at the latest with this number of calls
+	 * to {@link #updateChangesDeferred()}.
+	 */
+	private final int writeBehindCommands;
+
+	/**
+	 * Deferred changes are committed by {@link #updateChangesDeferred()} if
+	 * the last commit is at least this number of milliseconds ago.
+	 */
+	private final long writeBehindMillis;
+
+	/**
+	 * The number of calls to {@link #updateChangesDeferred()} since the last
+	 * commit.
+	 */
+	private int deferredChanges;
+
+	/**
+	 * The time of the last commit.
+	 */
+	private long lastUpdate;
+
+	/**
+	 * The number of commits since connecting. Only written by the thread
+	 * using the DB, but read by others, e.g. the editor's background loader.
+	 */
+	private volatile long updateCount;
+
+	/**
+	 * The number of commits avoided by {@link #updateChangesDeferred()} since
+	 * connecting.
+	 */
+	private long avoidedUpdateCount;
+
+	/**
+	 * Records the objects changed by the commits since connecting.
+	 */
+	private ChangeTracker changeTracker = new ChangeTracker();
+
 	// All sub-managers responsible for certain classes in the DB
 	private AllObjectsManager allObjectsManager;
 	private GameManager gameManager;
@@ -91,6 +168,11 @@ public class PersistenceManager {
 		this.conversationOptionManager = new ConversationOptionManager(this);
 		this.actionManager = new ActionManager(this);
 		this.versioningManager = new VersioningManager(this);
+
+		this.writeBehindCommands = Integer
+				.parseInt(PropertiesReader.getProperty(PropertiesReader.WRITE_BEHIND_COMMANDS_PROPERTY));
+		this.writeBehindMillis = Long
+				.parseLong(PropertiesReader.getProperty(PropertiesReader.WRITE_BEHIND_MILLIS_PROPERTY));
 	}
 
 	/**
@@ -114,19 +196,19 @@ public class PersistenceManager {
 		String ddlGenerationValue = dropTables ? "drop-and-create-tables" : "create-tables";
 		// Create objects for database access
 		Map<String, String> properties = new HashMap<>();
-		properties.put("javax.persistence.jdbc.url", "jdbc:h2:" + filename);
+		url = "jdbc:h2:" + filename;
+		properties.put("javax.persistence.jdbc.url", url);
 		properties.put("eclipselink.ddl-generation", ddlGenerationValue);
-
-		entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, properties);
-
-		try {
-			entityManager = entityManagerFactory.createEntityManager();
-		} catch (PersistenceException e) {
-			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Could not connect to database.", e);
-			throw new IOException(e);
+		if (Instrumentation.isEnabled()) {
+			// Counts the SQL statements per command
+			properties.put("eclipselink.profiler", SqlProfiler.class.getName());
 		}
 
-		criteriaBuilder = entityManager.getCriteriaBuilder();
+		entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, properties);
+		sharedFactory = false;
+		changeTracker = new ChangeTracker();
+		JpaHelper.getServerSession(entityManagerFactory).getEventManager().addListener(changeTracker);
+		createEntityManager();
 
 		Model model = null;
 		try {
@@ -149,24 +231,155 @@ public class PersistenceManager {
 		}
 	}
 
+	/**
+	 * Connects to the database of another persistence manager, to play one of
+	 * many games of the same game definition at once.
+	 * 
+	 * The entity manager factory of the other persistence manager is reused.
+	 * The objects it has loaded into its shared cache are never changed and
+	 * only exist once, no matter how many persistence managers are connected.
+	 * This persistence manager has its own persistence context, which only
+	 * contains copies of the objects used in its game so far. Changes are
+	 * made to these copies and are never written to the database, so the
+	 * games do not see each other's changes.
+	 * 
+	 * The other persistence manager must stay connected as long as this one
+	 * is, and must not write anything to the database in the meantime.
+	 * 
+	 * @param definition
+	 *            the connected persistence manager of the game definition
+	 * @throws IOException
+	 *             if the other persistence manager is not connected
+	 */
+	public void connect(PersistenceManager definition) throws IOException {
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Connecting to shared database {0}",
+				definition.url);
+
+		if (definition.entityManagerFactory == null || !definition.entityManagerFactory.isOpen()) {
+			throw new IOException("The game definition is not connected.");
+		}
+		url = null;
+		entityManagerFactory = definition.entityManagerFactory;
+		sharedFactory = true;
+		// Nothing is ever committed
+		changeTracker = new ChangeTracker();
+		createEntityManager();
+	}
+
+	/**
+	 * Creates the entity manager and resets the commit statistics.
+	 * 
+	 * @throws IOException
+	 *             if the entity manager cannot be created
+	 */
+	private void createEntityManager() throws IOException {
+		try {
+			entityManager = entityManagerFactory.createEntityManager();
+		} catch (PersistenceException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Could not connect to database.", e);
+			throw new IOException(e);
+		}
+
+		criteriaBuilder = entityManager.getCriteriaBuilder();
+		deferredChanges = 0;
+		updateCount = 0;
+		avoidedUpdateCount = 0;
+		lastUpdate = System.currentTimeMillis();
+	}
+
 	/**
 	 * Disconnects from the database.
 	 */
 	public void disconnect() {
 		if (entityManagerFactory != null) {
 			Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Disconnecting from database");
+			if (deferredChanges > 0) {
+				Logger.getLogger(this.getClass().getName()).log(Level.INFO,
+						"Discarding changes of {0} deferred updates", deferredChanges);
+				deferredChanges = 0;
+			}
+			Logger.getLogger(this.getClass().getName()).log(Level.FINE, "{0} commits, {1} commits avoided",
+					new Object[] { updateCount, avoidedUpdateCount });
 
 			// Reset the game manager, so that it will load the new game after
 			// connecting to a new DB
 			this.gameManager.reset();
+			this.locationManager.reset();
+			this.inventoryItemManager.reset();
 
 			// Close everything
 			if (entityManager != null && entityManager.isOpen()) {
 				entityManager.close();
 			}
-			if (entityManagerFactory.isOpen()) {
+			// A shared factory is closed by its owner
+			if (!sharedFactory && entityManagerFactory.isOpen()) {
 				entityManagerFactory.close();
 			}
+			url = null;
+		}
+	}
+
+	/**
+	 * Writes a consistent copy of the connected database to a file, without
+	 * disconnecting. Only committed changes are part of the copy.
+	 * 
+	 * This uses its own JDBC connection and may therefore be called from
+	 * another thread than the one using the entity manager. The file is
+	 * replaced only after the copy is complete.
+	 * 
+	 * @param file
+	 *            the file to write. Should end with ".mv.db".
+	 * @throws IOException
+	 *             if not connected or the copy cannot be written
+	 */
+	public void backup(File file) throws IOException {
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Writing backup to {0}", file);
+
+		String connectionUrl = url;
+		if (connectionUrl == null) {
+			throw new IOException("Not connected to a database.");
+		}
+		// H2 writes the backup as a ZIP file containing the database file
+		Path zip = Files.createTempFile("tam", ".zip");
+		try {
+			try (Connection connection = DriverManager.getConnection(connectionUrl);
+					Statement statement = connection.createStatement()) {
+				statement.execute("BACKUP TO '" + zip.toString().replace("'", "''") + "'");
+			} catch (SQLException e) {
+				throw new IOException(e);
+			}
+
+			try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+				ZipEntry dbEntry = null;
+				for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements();) {
+					ZipEntry entry = entries.nextElement();
+					if (entry.getName().endsWith(".mv.db")) {
+						dbEntry = entry;
+						break;
+					}
+				}
+				if (dbEntry == null) {
+					throw new IOException("The backup does not contain a database file.");
+				}
+
+				Path target = file.getAbsoluteFile().toPath();
+				Path temp = Files.createTempFile(target.getParent(), "tam", ".tmp");
+				try {
+					try (InputStream in = zipFile.getInputStream(dbEntry)) {
+						Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+					}
+					try {
+						Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+								StandardCopyOption.ATOMIC_MOVE);
+					} catch (AtomicMoveNotSupportedException e) {
+						Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+					}
+				} finally {
+					Files.deleteIfExists(temp);
+				}
+			}
+		} finally {
+			Files.deleteIfExists(zip);
 		}
 	}
 
@@ -180,6 +393,71 @@ public class PersistenceManager {
 		entityManager.refresh(o);
 	}
 
+	/**
+	 * Obtains the results of a query, refreshed just like
+	 * {@link EntityManager#refresh(Object)} would refresh each of them. Lists
+	 * with cascade definitions are not refreshed automatically otherwise.
+	 * 
+	 * Instead of refreshing the results one by one, the query itself
+	 * refreshes all of them. The given lists are read in one batch for all
+	 * results, as soon as the list of one result is accessed.
+	 * 
+	 * @param query
+	 *            the query
+	 * @param batchFetched
+	 *            the names of list attributes of the queried class to read in
+	 *            batches
+	 * @return the refreshed results
+	 * @throws DBClosedException
+	 *             if the DB is closed
+	 */
+	<E> List<E> getRefreshedResultList(CriteriaQuery<E> query, String... batchFetched) throws DBClosedException {
+		TypedQuery<E> typedQuery = createBatchQuery(query, batchFetched);
+		typedQuery.setHint(QueryHints.REFRESH, HintValues.TRUE);
+		typedQuery.setHint(QueryHints.REFRESH_CASCADE, CascadePolicy.CascadeByMapping);
+		return typedQuery.getResultList();
+	}
+
+	/**
+	 * Obtains the results of a query without refreshing them, so that
+	 * changes not yet written to the DB are kept.
+	 * 
+	 * @param query
+	 *            the query
+	 * @param batchFetched
+	 *            the names of list attributes of the queried class to read in
+	 *            batches
+	 * @return the results
+	 * @throws DBClosedException
+	 *             if the DB is closed
+	 */
+	<E> List<E> getResultList(CriteriaQuery<E> query, String... batchFetched) throws DBClosedException {
+		return createBatchQuery(query, batchFetched).getResultList();
+	}
+
+	/**
+	 * @param query
+	 *            the query
+	 * @param batchFetched
+	 *            the names of list attributes of the queried class to read in
+	 *            batches
+	 * @return a typed query reading the given lists in batches
+	 * @throws DBClosedException
+	 *             if the DB is closed
+	 */
+	private <E> TypedQuery<E> createBatchQuery(CriteriaQuery<E> query, String... batchFetched)
+			throws DBClosedException {
+		TypedQuery<E> typedQuery = getEntityManager().createQuery(query);
+		if (batchFetched.length > 0) {
+			typedQuery.setHint(QueryHints.BATCH_TYPE, BatchFetchType.IN);
+			for (String attribute : batchFetched) {
+				// The alias is ignored by EclipseLink, but required
+				typedQuery.setHint(QueryHints.BATCH, "o." + attribute);
+			}
+		}
+		return typedQuery;
+	}
+
 	/**
 	 * Checks if an object is managed by the persistence context.
 	 * 
@@ -230,15 +508,75 @@ public class PersistenceManager {
 	 * data.
 	 */
 	public void updateChanges() {
+		if (sharedFactory) {
+			// The changes stay in the persistence context
+			deferredChanges = 0;
+			return;
+		}
 		if (entityManager != null && entityManager.isOpen()) {
 			entityManager.getTransaction().begin();
 			entityManager.getTransaction().commit();
+			deferredChanges = 0;
+			lastUpdate = System.currentTimeMillis();
+			updateCount++;
 		} else {
 			Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
 					"Trying to update changes on a closed entity manager.");
 		}
 	}
 
+	/**
+	 * Updates any changes, but only every {@link #writeBehindCommands} calls
+	 * or if the last commit is at least {@link #writeBehindMillis} ago. Until
+	 * then, the changes only live in the persistence context. Used while
+	 * playing, where every command may change persisted data.
+	 * 
+	 * Before the DB file is used by anyone else or the connection is closed,
+	 * {@link #commitDeferredChanges()} must be called.
+	 */
+	public void updateChangesDeferred() {
+		deferredChanges++;
+		if (deferredChanges >= writeBehindCommands
+				|| System.currentTimeMillis() - lastUpdate >= writeBehindMillis) {
+			updateChanges();
+		} else {
+			avoidedUpdateCount++;
+		}
+	}
+
+	/**
+	 * Commits the changes deferred by {@link #updateChangesDeferred()}, if
+	 * there are any.
+	 */
+	public void commitDeferredChanges() {
+		if (deferredChanges > 0) {
+			updateChanges();
+		}
+	}
+
+	/**
+	 * @return the number of commits since connecting.
+	 */
+	public long getUpdateCount() {
+		return updateCount;
+	}
+
+	/**
+	 * @return the ids of the objects changed by the commits since connecting,
+	 *         see {@link ChangeTracker}. Still available after disconnecting.
+	 */
+	public Set<Integer> getChangedIds() {
+		return changeTracker.getIds();
+	}
+
+	/**
+	 * @return the number of commits avoided by
+	 *         {@link #updateChangesDeferred()} since connecting.
+	 */
+	public long getAvoidedUpdateCount() {
+		return avoidedUpdateCount;
+	}
+
 	/**
 	 * @return the criteriaBuilder
 	 */
@@ -51,12 +51,9 @@ public class PersonManager {
 		
 		CriteriaQuery<Person> query = persistenceManager.getCriteriaBuilder().createQuery(Person.class);
 		query.from(Person.class);
-		List<Person> resultList = persistenceManager.getEntityManager().createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for (Person p : resultList) {
-			persistenceManager.getEntityManager().refresh(p);
-		}
-		return resultList;
+		return persistenceManager.getRefreshedResultList(query,
+				"identifiers", "additionalInspectActions", "additionalTalkToCommands");
 	}
 
 }
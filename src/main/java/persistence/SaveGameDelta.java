@@ -0,0 +1,853 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Savegames that only contain the rows that differ between the database of a
+ * running game and the pristine game database it was started from.
+ *
+ * The rows are compared as a whole, so that tables without a primary key
+ * (element collections, join tables) are covered as well. A changed row is
+ * stored as the removal of the old and the addition of the new row. Loading
+ * applies these removals and additions to a fresh copy of the game database.
+ *
+ * Only the rows of objects that may have changed are compared, see
+ * {@link PersistenceManager#getChangedIds()}. These are the rows with the id
+ * of such an object in an integer column of a primary or foreign key. Tables
+ * without such columns are compared completely.
+ *
+ * The file consists of typed values written by a {@link DataOutputStream},
+ * so that loading a savegame never creates other objects than these values.
+ *
+ * @author Satia
+ */
+public class SaveGameDelta {
+
+	/**
+	 * Identifies delta savegame files.
+	 */
+	private static final String MAGIC = "TAM-DELTA";
+
+	/**
+	 * The version of the file format.
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * Lists the tables of a database.
+	 */
+	private static final String TABLES_QUERY = "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+			+ "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'TABLE' ORDER BY TABLE_NAME";
+
+	/**
+	 * Lists the integer columns of primary and foreign keys of all tables.
+	 * These columns are indexed.
+	 */
+	private static final String KEY_COLUMNS_QUERY = "SELECT c.TABLE_NAME, c.COLUMN_NAME "
+			+ "FROM INFORMATION_SCHEMA.COLUMNS c WHERE c.TABLE_SCHEMA = 'PUBLIC' AND c.TYPE_NAME = 'INTEGER' "
+			+ "AND (EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.INDEXES i WHERE i.TABLE_SCHEMA = 'PUBLIC' "
+			+ "AND i.TABLE_NAME = c.TABLE_NAME AND i.COLUMN_NAME = c.COLUMN_NAME AND i.PRIMARY_KEY) "
+			+ "OR EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.CROSS_REFERENCES r WHERE r.FKTABLE_SCHEMA = 'PUBLIC' "
+			+ "AND r.FKTABLE_NAME = c.TABLE_NAME AND r.FKCOLUMN_NAME = c.COLUMN_NAME)) "
+			+ "ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION";
+
+	/**
+	 * The types of the values in the file.
+	 */
+	private static final byte NULL = 0;
+	private static final byte BOOLEAN = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte DECIMAL = 5;
+	private static final byte STRING = 6;
+
+	/**
+	 * The maximum length of a string in the file, in bytes.
+	 */
+	private static final int MAX_STRING_LENGTH = 1 << 24;
+
+	/**
+	 * Computes the checksum of a game database file. A delta can only be
+	 * applied to the game database it was created from.
+	 *
+	 * @param gameDB
+	 *            the game database file
+	 * @return the checksum
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static long checksum(URL gameDB) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[1 << 16];
+		try (InputStream in = gameDB.openStream()) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Writes the differences between two databases to a file.
+	 *
+	 * @param baseDB
+	 *            the path of the pristine game database, without file ending
+	 * @param baseChecksum
+	 *            the checksum of the pristine game database
+	 * @param currentDB
+	 *            the path of the database of the running game, without file
+	 *            ending. It may be in use by a {@link PersistenceManager} of
+	 *            this VM, but all changes must have been committed.
+	 * @param changedIds
+	 *            the ids of all objects that may differ between the
+	 *            databases, or {@code null} to compare all rows
+	 * @param deltaFile
+	 *            the file to write
+	 * @return the ids of the objects that differ. Together with the ids of
+	 *         the objects changed afterwards, they can be passed as
+	 *         changedIds the next time.
+	 * @throws IOException
+	 *             if the databases cannot be read, the file cannot be written
+	 *             or the schemas of the databases differ.
+	 */
+	public static Set<Integer> write(String baseDB, long baseChecksum, String currentDB, Set<Integer> changedIds,
+			File deltaFile) throws IOException {
+		Set<Integer> result;
+		try (OutputStream out = new FileOutputStream(deltaFile)) {
+			result = write(baseDB, baseChecksum, currentDB, changedIds, out);
+		}
+		Logger.getLogger(SaveGameDelta.class.getName()).log(Level.FINE, "Wrote delta to {0}", deltaFile);
+		return result;
+	}
+
+	/**
+	 * Writes the differences between two databases to a stream.
+	 *
+	 * @param baseDB
+	 *            the path of the pristine game database, without file ending
+	 * @param baseChecksum
+	 *            the checksum of the pristine game database
+	 * @param currentDB
+	 *            the path of the database of the running game, without file
+	 *            ending. It may be in use by a {@link PersistenceManager} of
+	 *            this VM, but all changes must have been committed.
+	 * @param changedIds
+	 *            the ids of all objects that may differ between the
+	 *            databases, or {@code null} to compare all rows
+	 * @param stream
+	 *            the stream to write to. It is closed if the delta has been
+	 *            written.
+	 * @return the ids of the objects that differ. Together with the ids of
+	 *         the objects changed afterwards, they can be passed as
+	 *         changedIds the next time.
+	 * @throws IOException
+	 *             if the databases cannot be read, the stream cannot be
+	 *             written or the schemas of the databases differ.
+	 */
+	public static Set<Integer> write(String baseDB, long baseChecksum, String currentDB, Set<Integer> changedIds,
+			OutputStream stream) throws IOException {
+		List<TableDelta> deltas = new ArrayList<>();
+		Set<Integer> differingIds = new HashSet<>();
+		try (Connection base = DriverManager.getConnection("jdbc:h2:" + baseDB);
+				Connection current = DriverManager.getConnection("jdbc:h2:" + currentDB)) {
+			List<String> baseTables = getTables(base);
+			List<String> currentTables = getTables(current);
+			if (!baseTables.equals(currentTables)) {
+				throw new IOException("The tables of the game and the savegame differ.");
+			}
+			Map<String, List<String>> keyColumns = getKeyColumns(current);
+			for (String table : currentTables) {
+				List<String> keys = keyColumns.getOrDefault(table, Collections.emptyList());
+				if (changedIds != null && changedIds.isEmpty() && !keys.isEmpty()) {
+					// No row of this table can differ
+					continue;
+				}
+				TableDelta delta = diff(base, current, table, keys, changedIds);
+				if (!delta.removed.isEmpty() || !delta.added.isEmpty()) {
+					deltas.add(delta);
+					addIds(delta, keys, differingIds);
+				}
+			}
+		} catch (SQLException e) {
+			throw new IOException(e);
+		}
+
+		try (DataOutputStream out = new DataOutputStream(
+				new GZIPOutputStream(new BufferedOutputStream(stream)))) {
+			out.writeUTF(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(baseChecksum);
+			out.writeInt(deltas.size());
+			for (TableDelta delta : deltas) {
+				out.writeUTF(delta.table);
+				out.writeInt(delta.columns.length);
+				for (String column : delta.columns) {
+					out.writeUTF(column);
+				}
+				writeRows(out, delta.removed);
+				writeRows(out, delta.added);
+			}
+		}
+		Logger.getLogger(SaveGameDelta.class.getName()).log(Level.FINE,
+				"Wrote delta of {0} tables, compared the rows of {1} objects",
+				new Object[] { deltas.size(), changedIds == null ? "all" : changedIds.size() });
+		return differingIds;
+	}
+
+	/**
+	 * Applies the differences stored in a file to a database. The database
+	 * must be a fresh copy of the game database the delta was created from
+	 * and must not be in use.
+	 *
+	 * @param deltaFile
+	 *            the file to read
+	 * @param baseChecksum
+	 *            the checksum of the game database
+	 * @param targetDB
+	 *            the path of the database to change, without file ending
+	 * @return the ids of the objects changed by the delta
+	 * @throws IOException
+	 *             if the file cannot be read, belongs to another game
+	 *             database or cannot be applied.
+	 */
+	public static Set<Integer> apply(File deltaFile, long baseChecksum, String targetDB) throws IOException {
+		try (InputStream in = new FileInputStream(deltaFile)) {
+			return apply(in, baseChecksum, targetDB);
+		} catch (IOException e) {
+			throw new IOException(e.getMessage() + ": " + deltaFile, e);
+		}
+	}
+
+	/**
+	 * Applies the differences read from a stream to a database. The database
+	 * must be a fresh copy of the game database the delta was created from
+	 * and must not be in use.
+	 *
+	 * @param stream
+	 *            the stream to read
+	 * @param baseChecksum
+	 *            the checksum of the game database
+	 * @param targetDB
+	 *            the path of the database to change, without file ending
+	 * @return the ids of the objects changed by the delta
+	 * @throws IOException
+	 *             if the stream cannot be read, belongs to another game
+	 *             database or cannot be applied.
+	 */
+	public static Set<Integer> apply(InputStream stream, long baseChecksum, String targetDB) throws IOException {
+		Set<Integer> changedIds = new HashSet<>();
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(stream)));
+				Connection target = DriverManager.getConnection("jdbc:h2:" + targetDB)) {
+			if (!MAGIC.equals(in.readUTF())) {
+				throw new IOException("Not a savegame");
+			}
+			if (in.readInt() != FORMAT_VERSION) {
+				throw new IOException("The savegame was written by another version of TextAdventureMaker");
+			}
+			if (in.readLong() != baseChecksum) {
+				throw new IOException("The savegame belongs to another version of the game");
+			}
+
+			Map<String, List<String>> keyColumns = getKeyColumns(target);
+			target.setAutoCommit(false);
+			try (Statement statement = target.createStatement()) {
+				// Rows are removed and added in no particular order
+				statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+				try {
+					int tables = readCount(in);
+					for (int i = 0; i < tables; i++) {
+						String table = in.readUTF();
+						List<String> columns = new ArrayList<>();
+						int columnCount = readCount(in);
+						for (int j = 0; j < columnCount; j++) {
+							columns.add(in.readUTF());
+						}
+						TableDelta delta = new TableDelta(table, columns.toArray(new String[columns.size()]));
+						readRows(in, delta.columns.length, delta.removed);
+						readRows(in, delta.columns.length, delta.added);
+						removeRows(target, table, delta.columns, delta.removed);
+						addRows(target, table, delta.columns, delta.added);
+						addIds(delta, keyColumns.getOrDefault(table, Collections.emptyList()), changedIds);
+					}
+					target.commit();
+				} catch (SQLException | IOException e) {
+					target.rollback();
+					throw e;
+				} finally {
+					statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+				}
+			}
+		} catch (SQLException e) {
+			throw new IOException(e);
+		}
+		return changedIds;
+	}
+
+	/**
+	 * @param connection
+	 *            the connection
+	 * @return the names of all tables
+	 * @throws SQLException
+	 */
+	private static List<String> getTables(Connection connection) throws SQLException {
+		List<String> result = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(TABLES_QUERY)) {
+			while (rs.next()) {
+				result.add(rs.getString(1));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param connection
+	 *            the connection
+	 * @return the integer columns of primary and foreign keys, by table.
+	 *         Tables without such columns are missing.
+	 * @throws SQLException
+	 */
+	private static Map<String, List<String>> getKeyColumns(Connection connection) throws SQLException {
+		Map<String, List<String>> result = new HashMap<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(KEY_COLUMNS_QUERY)) {
+			while (rs.next()) {
+				result.computeIfAbsent(rs.getString(1), table -> new ArrayList<>()).add(rs.getString(2));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compares the rows of a table in two databases.
+	 *
+	 * @param base
+	 *            the pristine game database
+	 * @param current
+	 *            the database of the running game
+	 * @param table
+	 *            the table
+	 * @param keyColumns
+	 *            the integer columns of primary and foreign keys of the table
+	 * @param changedIds
+	 *            only rows with one of these ids in a key column are
+	 *            compared. If {@code null} or if there are no key columns,
+	 *            all rows are compared.
+	 * @return the rows only in base and the rows only in current
+	 * @throws SQLException
+	 * @throws IOException
+	 *             if the columns of the tables differ
+	 */
+	private static TableDelta diff(Connection base, Connection current, String table, List<String> keyColumns,
+			Set<Integer> changedIds) throws SQLException, IOException {
+		List<Object[]> rows = new ArrayList<>();
+		TableDelta delta = new TableDelta(table, selectRows(base, table, keyColumns, changedIds, rows));
+		// Count how often each row occurs in base
+		Map<Row, Integer> baseRows = new HashMap<>();
+		for (Object[] row : rows) {
+			baseRows.merge(new Row(row), 1, Integer::sum);
+		}
+		rows.clear();
+		if (!Arrays.equals(delta.columns, selectRows(current, table, keyColumns, changedIds, rows))) {
+			throw new IOException("The columns of table " + table + " differ.");
+		}
+		// Rows in current, but not in base, were added
+		for (Object[] values : rows) {
+			Row row = new Row(values);
+			Integer count = baseRows.get(row);
+			if (count == null) {
+				delta.added.add(values);
+			} else if (count == 1) {
+				baseRows.remove(row);
+			} else {
+				baseRows.put(row, count - 1);
+			}
+		}
+		// Rows left over in base were removed
+		for (Map.Entry<Row, Integer> entry : baseRows.entrySet()) {
+			for (int i = 0; i < entry.getValue(); i++) {
+				delta.removed.add(entry.getKey().values);
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * Selects the rows of a table with one of the given ids in a key column.
+	 * There is one query for each key column, so that its index can be used.
+	 * Rows are only kept for the first matching key column, so that each row
+	 * is selected once.
+	 *
+	 * @param connection
+	 *            the connection
+	 * @param table
+	 *            the table
+	 * @param keyColumns
+	 *            the integer columns of primary and foreign keys of the table
+	 * @param ids
+	 *            the ids. If {@code null} or if there are no key columns, all
+	 *            rows are selected.
+	 * @param rows
+	 *            the list to add the rows to
+	 * @return the columns of the table
+	 * @throws SQLException
+	 */
+	private static String[] selectRows(Connection connection, String table, List<String> keyColumns,
+			Set<Integer> ids, List<Object[]> rows) throws SQLException {
+		if (ids == null || keyColumns.isEmpty()) {
+			try (Statement statement = connection.createStatement();
+					ResultSet rs = statement.executeQuery("SELECT * FROM " + quote(table))) {
+				String[] columns = getColumns(rs.getMetaData());
+				while (rs.next()) {
+					rows.add(readRow(rs, columns.length));
+				}
+				return columns;
+			}
+		}
+		Integer[] idArray = ids.toArray(new Integer[ids.size()]);
+		String[] columns = null;
+		int[] keyIndexes = new int[keyColumns.size()];
+		for (int i = 0; i < keyColumns.size(); i++) {
+			try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + quote(table)
+					+ " WHERE " + quote(keyColumns.get(i)) + " IN (SELECT X FROM TABLE(X INT = ?))")) {
+				statement.setObject(1, idArray);
+				try (ResultSet rs = statement.executeQuery()) {
+					if (columns == null) {
+						columns = getColumns(rs.getMetaData());
+						for (int j = 0; j < keyIndexes.length; j++) {
+							keyIndexes[j] = Arrays.asList(columns).indexOf(keyColumns.get(j));
+						}
+					}
+					while (rs.next()) {
+						Object[] row = readRow(rs, columns.length);
+						// Skip rows already selected by an earlier key column
+						boolean selected = false;
+						for (int j = 0; j < i && !selected; j++) {
+							selected = ids.contains(row[keyIndexes[j]]);
+						}
+						if (!selected) {
+							rows.add(row);
+						}
+					}
+				}
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Adds the ids in the key columns of the differing rows of a table.
+	 *
+	 * @param delta
+	 *            the differences of the table
+	 * @param keyColumns
+	 *            the integer columns of primary and foreign keys of the table
+	 * @param ids
+	 *            the ids to add to
+	 */
+	private static void addIds(TableDelta delta, List<String> keyColumns, Set<Integer> ids) {
+		List<String> columns = Arrays.asList(delta.columns);
+		for (String keyColumn : keyColumns) {
+			int index = columns.indexOf(keyColumn);
+			if (index < 0) {
+				continue;
+			}
+			for (List<Object[]> rows : Arrays.asList(delta.removed, delta.added)) {
+				for (Object[] row : rows) {
+					if (row[index] instanceof Integer) {
+						ids.add((Integer) row[index]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes rows from a table. Only one occurrence is removed per row.
+	 *
+	 * @param connection
+	 *            the connection
+	 * @param table
+	 *            the table
+	 * @param columns
+	 *            the columns
+	 * @param rows
+	 *            the rows to remove
+	 * @throws SQLException
+	 * @throws IOException
+	 *             if a row does not exist
+	 */
+	private static void removeRows(Connection connection, String table, String[] columns, List<Object[]> rows)
+			throws SQLException, IOException {
+		for (Object[] row : rows) {
+			StringBuilder sql = new StringBuilder("DELETE FROM ").append(quote(table)).append(" WHERE ");
+			List<Object> parameters = new ArrayList<>();
+			for (int i = 0; i < columns.length; i++) {
+				if (i > 0) {
+					sql.append(" AND ");
+				}
+				sql.append(quote(columns[i]));
+				if (row[i] == null) {
+					sql.append(" IS NULL");
+				} else {
+					sql.append(" = ?");
+					parameters.add(row[i]);
+				}
+			}
+			sql.append(" LIMIT 1");
+			try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+				for (int i = 0; i < parameters.size(); i++) {
+					statement.setObject(i + 1, parameters.get(i));
+				}
+				if (statement.executeUpdate() != 1) {
+					throw new IOException("The savegame does not match the game: missing row in " + table);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds rows to a table.
+	 *
+	 * @param connection
+	 *            the connection
+	 * @param table
+	 *            the table
+	 * @param columns
+	 *            the columns
+	 * @param rows
+	 *            the rows to add
+	 * @throws SQLException
+	 */
+	private static void addRows(Connection connection, String table, String[] columns, List<Object[]> rows)
+			throws SQLException {
+		if (rows.isEmpty()) {
+			return;
+		}
+		StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(table)).append(" (");
+		for (int i = 0; i < columns.length; i++) {
+			sql.append(i > 0 ? ", " : "").append(quote(columns[i]));
+		}
+		sql.append(") VALUES (");
+		for (int i = 0; i < columns.length; i++) {
+			sql.append(i > 0 ? ", ?" : "?");
+		}
+		sql.append(')');
+		try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+			for (Object[] row : rows) {
+				for (int i = 0; i < columns.length; i++) {
+					statement.setObject(i + 1, row[i]);
+				}
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+	/**
+	 * @param metaData
+	 *            the meta data of a result set
+	 * @return the column names
+	 * @throws SQLException
+	 */
+	private static String[] getColumns(ResultSetMetaData metaData) throws SQLException {
+		String[] result = new String[metaData.getColumnCount()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = metaData.getColumnName(i + 1);
+		}
+		return result;
+	}
+
+	/**
+	 * @param rs
+	 *            a result set positioned on a row
+	 * @param columns
+	 *            the number of columns
+	 * @return the values of the row
+	 * @throws SQLException
+	 */
+	private static Object[] readRow(ResultSet rs, int columns) throws SQLException {
+		Object[] result = new Object[columns];
+		for (int i = 0; i < columns; i++) {
+			result[i] = rs.getObject(i + 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes rows to the file.
+	 *
+	 * @param out
+	 *            the stream of the file
+	 * @param rows
+	 *            the rows
+	 * @throws IOException
+	 *             if the stream cannot be written or a value has an
+	 *             unsupported type
+	 */
+	private static void writeRows(DataOutputStream out, List<Object[]> rows) throws IOException {
+		out.writeInt(rows.size());
+		for (Object[] row : rows) {
+			for (Object value : row) {
+				writeValue(out, value);
+			}
+		}
+	}
+
+	/**
+	 * Reads rows from the file.
+	 *
+	 * @param in
+	 *            the stream of the file
+	 * @param columns
+	 *            the number of columns
+	 * @param rows
+	 *            the list to add the rows to
+	 * @throws IOException
+	 *             if the stream cannot be read or is no savegame
+	 */
+	private static void readRows(DataInputStream in, int columns, List<Object[]> rows) throws IOException {
+		int count = readCount(in);
+		for (int i = 0; i < count; i++) {
+			Object[] row = new Object[columns];
+			for (int j = 0; j < columns; j++) {
+				row[j] = readValue(in);
+			}
+			rows.add(row);
+		}
+	}
+
+	/**
+	 * @param in
+	 *            the stream of the file
+	 * @return a number of tables, columns or rows
+	 * @throws IOException
+	 *             if the stream cannot be read or the number is negative
+	 */
+	private static int readCount(DataInputStream in) throws IOException {
+		int result = in.readInt();
+		if (result < 0) {
+			throw new IOException("Not a savegame");
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the value of a column, preceded by its type.
+	 *
+	 * @param out
+	 *            the stream of the file
+	 * @param value
+	 *            the value
+	 * @throws IOException
+	 *             if the stream cannot be written or the value has an
+	 *             unsupported type
+	 */
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(DECIMAL);
+			writeString(out, value.toString());
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		} else {
+			throw new IOException("Values of type " + value.getClass().getName() + " cannot be saved.");
+		}
+	}
+
+	/**
+	 * Reads the value of a column, written by
+	 * {@link #writeValue(DataOutputStream, Object)}.
+	 *
+	 * @param in
+	 *            the stream of the file
+	 * @return the value
+	 * @throws IOException
+	 *             if the stream cannot be read or is no savegame
+	 */
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case BOOLEAN:
+			return in.readBoolean();
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case DOUBLE:
+			return in.readDouble();
+		case DECIMAL:
+			try {
+				return new BigDecimal(readString(in));
+			} catch (NumberFormatException e) {
+				throw new IOException("Not a savegame", e);
+			}
+		case STRING:
+			return readString(in);
+		default:
+			throw new IOException("Not a savegame");
+		}
+	}
+
+	/**
+	 * Writes a string of any length. {@link DataOutputStream#writeUTF(String)}
+	 * is limited to 64 KB.
+	 *
+	 * @param out
+	 *            the stream of the file
+	 * @param value
+	 *            the string
+	 * @throws IOException
+	 *             if the stream cannot be written
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * @param in
+	 *            the stream of the file
+	 * @return a string written by
+	 *         {@link #writeString(DataOutputStream, String)}
+	 * @throws IOException
+	 *             if the stream cannot be read or is no savegame
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > MAX_STRING_LENGTH) {
+			throw new IOException("Not a savegame");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param identifier
+	 *            a table or column name
+	 * @return the quoted name
+	 */
+	private static String quote(String identifier) {
+		return '"' + identifier.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * The values of a row, comparable by content.
+	 */
+	private static class Row {
+
+		/**
+		 * The values.
+		 */
+		private final Object[] values;
+
+		/**
+		 * @param values
+		 *            the values
+		 */
+		private Row(Object[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Row && Arrays.deepEquals(values, ((Row) obj).values);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.deepHashCode(values);
+		}
+	}
+
+	/**
+	 * The rows that differ in one table.
+	 */
+	private static class TableDelta {
+
+		/**
+		 * The table.
+		 */
+		private final String table;
+
+		/**
+		 * The columns.
+		 */
+		private final String[] columns;
+
+		/**
+		 * The rows only in the pristine game database.
+		 */
+		private final List<Object[]> removed;
+
+		/**
+		 * The rows only in the database of the running game.
+		 */
+		private final List<Object[]> added;
+
+		/**
+		 * @param table
+		 *            the table
+		 * @param columns
+		 *            the columns
+		 */
+		private TableDelta(String table, String[] columns) {
+			this.table = table;
+			this.columns = columns;
+			this.removed = new ArrayList<>();
+			this.added = new ArrayList<>();
+		}
+	}
+}
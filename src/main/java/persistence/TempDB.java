@@ -0,0 +1,110 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.h2.store.fs.FilePath;
+
+import configuration.PropertiesReader;
+
+/**
+ * Creates and deletes the temporary copies of game dbs that are played.
+ * 
+ * If configured, the copies are kept in H2's in-memory file system, so that
+ * playing does not touch the disk.
+ * 
+ * @author Satia
+ */
+public class TempDB {
+
+	/**
+	 * The ending of H2 databases.
+	 */
+	private static final String H2_ENDING = ".mv.db";
+
+	/**
+	 * The ending of the files H2 logs errors into, next to a db.
+	 */
+	private static final String TRACE_ENDING = ".trace.db";
+
+	/**
+	 * If the temporary dbs are kept in memory instead of in temp files.
+	 */
+	private static volatile boolean inMemory = Boolean
+			.parseBoolean(PropertiesReader.getProperty(PropertiesReader.PLAY_IN_MEMORY_PROPERTY));
+
+	/**
+	 * Copies a db file to a temp db.
+	 * 
+	 * @param file
+	 *            the original file.
+	 * @return the temp db, without the ending. Can be passed to
+	 *         {@link PersistenceManager#connect(String, boolean)}.
+	 * @throws IOException
+	 *             if the file could not be copied
+	 */
+	public static String copy(URL file) throws IOException {
+		String db = null;
+		if (inMemory) {
+			db = "memFS:tam-" + UUID.randomUUID();
+			// The in-memory file system of this H2 version cannot be locked
+			// on newer Java versions, which the db requires
+			try (FileChannel channel = FilePath.get(db + H2_ENDING).open("rw")) {
+				FileLock lock = channel.tryLock();
+				if (lock != null) {
+					lock.release();
+				}
+			} catch (IOException | RuntimeException e) {
+				Logger.getLogger(TempDB.class.getName()).log(Level.WARNING,
+						"Cannot play in memory, using temp files instead.", e);
+				delete(db);
+				db = null;
+				inMemory = false;
+			}
+		}
+		if (db == null) {
+			Path path = Files.createTempFile("tam", H2_ENDING);
+			// Not left behind if the game is quit while playing
+			path.toFile().deleteOnExit();
+			String name = path.toString();
+			db = name.substring(0, name.length() - H2_ENDING.length());
+		}
+		try (InputStream in = file.openStream();
+				OutputStream out = FilePath.get(db + H2_ENDING).newOutputStream(false)) {
+			IOUtils.copy(in, out);
+		} catch (IOException e) {
+			Logger.getLogger(TempDB.class.getName()).log(Level.SEVERE, "Could not copy db file.", e);
+			delete(db);
+			throw e;
+		}
+		return db;
+	}
+
+	/**
+	 * Deletes a temp db, which must not be connected.
+	 * 
+	 * @param db
+	 *            the temp db, without the ending. May be {@code null}.
+	 */
+	public static void delete(String db) {
+		if (db == null) {
+			return;
+		}
+		for (String ending : new String[] { H2_ENDING, TRACE_ENDING }) {
+			FilePath path = FilePath.get(db + ending);
+			if (path.exists()) {
+				path.delete();
+			}
+		}
+	}
+}
@@ -8,6 +8,7 @@ import javax.persistence.criteria.CriteriaQuery;
 
 import data.Location;
 import data.Way;
+import data.interfaces.Inspectable;
 import exception.DBClosedException;
 
 /**
@@ -40,6 +41,10 @@ public class WayManager {
 	 * @return the corresponding item or {@code null}.
 	 */
 	public Way getWayOutFromLocation(Location location, String identifier) {
+		IdentifierIndex<Inspectable> index = persistenceManager.getInspectableObjectManager().getIndex(location);
+		if (index != null) {
+			return index.find(identifier, Way.class);
+		}
 		return IdentifiableObjectManager.getIdentifiableWithIdentifier(location.getWaysOut(), identifier);
 	}
 
@@ -67,12 +72,8 @@ public class WayManager {
 		CriteriaQuery<Way> query = persistenceManager
 				.getCriteriaBuilder().createQuery(Way.class);
 		query.from(Way.class);
-		List<Way> resultList = persistenceManager.getEntityManager()
-				.createQuery(query).getResultList();
 		// Lists with cascade definitions are not refreshed automatically
-		for(Way w : resultList) {
-			persistenceManager.getEntityManager().refresh(w);
-		}
-		return resultList;
+		return persistenceManager.getRefreshedResultList(query,
+				"identifiers", "additionalInspectActions", "additionalMoveActions", "additionalMoveCommands");
 	}
 }
\ No newline at end of file
@@ -0,0 +1,794 @@
+package persistence;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+
+import configuration.PropertiesReader;
+import data.Conversation;
+import data.ConversationLayer;
+import data.ConversationOption;
+import data.Game;
+import data.InventoryItem;
+import data.Item;
+import data.Location;
+import data.Person;
+import data.Player;
+import data.Way;
+import data.action.AbstractAction;
+import data.action.AbstractAction.Enabling;
+import data.action.AddInventoryItemsAction;
+import data.action.ChangeActionAction;
+import data.action.ChangeCombineInformationAction;
+import data.action.ChangeConversationAction;
+import data.action.ChangeConversationOptionAction;
+import data.action.ChangeItemAction;
+import data.action.ChangeNDObjectAction;
+import data.action.ChangePersonAction;
+import data.action.ChangeUsableObjectAction;
+import data.action.ChangeUseWithInformationAction;
+import data.action.ChangeWayAction;
+import data.action.EndGameAction;
+import data.action.MoveAction;
+import data.action.MultiAction;
+import data.action.RemoveInventoryItemAction;
+import data.interfaces.HasId;
+import data.interfaces.PassivelyUsable;
+
+/**
+ * Generates synthetic games of configurable size to see how the engine and
+ * the editor behave with large worlds.
+ *
+ * The locations form a grid, connected by ways to the north, east, south and
+ * west, plus some random shortcuts. Each location has items and persons with
+ * conversations. Using items triggers trees of {@link MultiAction}s whose
+ * leaves cover all action types. The player starts with inventory items that
+ * can be combined with each other and used with items and persons.
+ *
+ * The same seed always generates the same game. Actions only refer to objects
+ * created before them. The game is persisted while it is generated, in chunks
+ * of locations, see {@link #commitChunk()}.
+ *
+ * @author Satia
+ */
+public class WorldGenerator {
+
+	/**
+	 * Adjectives for the names of items.
+	 */
+	private static final String[] ADJECTIVES = { "Red", "Blue", "Old", "Shiny", "Broken", "Heavy", "Tiny", "Dusty" };
+
+	/**
+	 * Nouns for the names of items.
+	 */
+	private static final String[] NOUNS = { "stone", "box", "lamp", "book", "key", "coin", "bottle", "rope" };
+
+	/**
+	 * The distance between two locations on the map of the editor.
+	 */
+	private static final int MAP_SPACING = 150;
+
+	/**
+	 * The number of different leaf actions, see {@link #createLeafAction()}.
+	 */
+	private static final int LEAF_ACTION_TYPES = 14;
+
+	/**
+	 * The number of locations persisted in one transaction.
+	 */
+	private static final int LOCATIONS_PER_CHUNK = 20;
+
+	/**
+	 * The number of locations.
+	 */
+	private int locations = 100;
+
+	/**
+	 * The number of items in each location.
+	 */
+	private int itemsPerLocation = 5;
+
+	/**
+	 * The number of persons in each location.
+	 */
+	private int personsPerLocation = 1;
+
+	/**
+	 * The number of ways between random locations, in addition to the grid.
+	 */
+	private int shortcuts = 10;
+
+	/**
+	 * The number of inventory items the player starts with.
+	 */
+	private int inventoryItems = 50;
+
+	/**
+	 * The depth of the trees of multi actions. 0 means no multi actions.
+	 */
+	private int actionDepth = 3;
+
+	/**
+	 * The number of actions in each multi action.
+	 */
+	private int actionFanOut = 2;
+
+	/**
+	 * The number of layers in each conversation.
+	 */
+	private int conversationLayers = 5;
+
+	/**
+	 * The number of options in each conversation layer.
+	 */
+	private int optionsPerLayer = 4;
+
+	/**
+	 * The seed of the random numbers.
+	 */
+	private long seed = 42;
+
+	/**
+	 * The random numbers while generating.
+	 */
+	private Random random;
+
+	/**
+	 * The entity manager of the game being generated.
+	 */
+	private EntityManager em;
+
+	/**
+	 * The objects generated so far. Actions only refer to these. Objects of
+	 * earlier chunks are detached, see {@link #attach(Object)}.
+	 */
+	private List<Location> allLocations;
+	private List<Item> allItems;
+	private List<Person> allPersons;
+	private List<Way> allWays;
+	private List<InventoryItem> allInventoryItems;
+	private List<Conversation> allConversations;
+	private List<ConversationOption> allOptions;
+	private List<AbstractAction> allActions;
+
+	/**
+	 * Pairs of inventory items and objects they can be used with.
+	 */
+	private List<Object[]> useWithPairs;
+
+	/**
+	 * Pairs of inventory items that can be combined.
+	 */
+	private List<InventoryItem[]> combinePairs;
+
+	/**
+	 * The number of generated actions, used for their names.
+	 */
+	private int actionCount;
+
+	/**
+	 * @param locations
+	 *            the number of locations, at least 1
+	 */
+	public void setLocations(int locations) {
+		this.locations = Math.max(1, locations);
+	}
+
+	/**
+	 * @param itemsPerLocation
+	 *            the number of items in each location
+	 */
+	public void setItemsPerLocation(int itemsPerLocation) {
+		this.itemsPerLocation = itemsPerLocation;
+	}
+
+	/**
+	 * @param personsPerLocation
+	 *            the number of persons in each location
+	 */
+	public void setPersonsPerLocation(int personsPerLocation) {
+		this.personsPerLocation = personsPerLocation;
+	}
+
+	/**
+	 * @param shortcuts
+	 *            the number of ways between random locations, in addition to
+	 *            the grid
+	 */
+	public void setShortcuts(int shortcuts) {
+		this.shortcuts = shortcuts;
+	}
+
+	/**
+	 * @param inventoryItems
+	 *            the number of inventory items the player starts with
+	 */
+	public void setInventoryItems(int inventoryItems) {
+		this.inventoryItems = inventoryItems;
+	}
+
+	/**
+	 * @param actionDepth
+	 *            the depth of the trees of multi actions. 0 means no multi
+	 *            actions.
+	 */
+	public void setActionDepth(int actionDepth) {
+		this.actionDepth = actionDepth;
+	}
+
+	/**
+	 * @param actionFanOut
+	 *            the number of actions in each multi action
+	 */
+	public void setActionFanOut(int actionFanOut) {
+		this.actionFanOut = Math.max(1, actionFanOut);
+	}
+
+	/**
+	 * @param conversationLayers
+	 *            the number of layers in each conversation, at least 1
+	 */
+	public void setConversationLayers(int conversationLayers) {
+		this.conversationLayers = Math.max(1, conversationLayers);
+	}
+
+	/**
+	 * @param optionsPerLayer
+	 *            the number of options in each conversation layer, at least 1
+	 */
+	public void setOptionsPerLayer(int optionsPerLayer) {
+		this.optionsPerLayer = Math.max(1, optionsPerLayer);
+	}
+
+	/**
+	 * @param seed
+	 *            the seed of the random numbers
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Generates a game in the given file.
+	 *
+	 * @param filename
+	 *            the file to create, without the ending. Any existing game in
+	 *            it is deleted.
+	 * @param title
+	 *            the title of the game
+	 */
+	public void generate(String filename, String title) throws Exception {
+		long start = System.currentTimeMillis();
+		random = new Random(seed);
+		allLocations = new ArrayList<>();
+		allItems = new ArrayList<>();
+		allPersons = new ArrayList<>();
+		allWays = new ArrayList<>();
+		allInventoryItems = new ArrayList<>();
+		allConversations = new ArrayList<>();
+		allOptions = new ArrayList<>();
+		allActions = new ArrayList<>();
+		useWithPairs = new ArrayList<>();
+		combinePairs = new ArrayList<>();
+		actionCount = 0;
+
+		PersistenceManager pm = new PersistenceManager();
+		pm.connect(filename, true);
+		em = pm.getEntityManager();
+		try {
+			generateAndPersist(title);
+		} finally {
+			pm.disconnect();
+			em = null;
+		}
+
+		// The many transactions leave unused pages in the file
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:" + filename);
+				Statement statement = connection.createStatement()) {
+			statement.execute("SHUTDOWN COMPACT");
+		}
+
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO,
+				"Generated {0} locations, {1} items, {2} persons, {3} ways and {4} actions in {5} ms",
+				new Object[] { allLocations.size(), allItems.size(), allPersons.size(), allWays.size(),
+						allActions.size(), System.currentTimeMillis() - start });
+	}
+
+	/**
+	 * Generates and persists the game. The inventory items come first, since
+	 * everything else refers to them. Then the locations follow in chunks and
+	 * finally the game itself.
+	 *
+	 * @param title
+	 *            the title of the game
+	 */
+	private void generateAndPersist(String title) {
+		em.getTransaction().begin();
+		Player player = new Player();
+		Game game = new Game();
+		Main.setGameOptions(game);
+		game.setGameTitle(title);
+		game.setStartText("This is a generated world with " + locations + " locations.");
+		game.setPlayer(player);
+
+		// The inventory items come first, so that they can be used with
+		// everything else
+		for (int i = 0; i < inventoryItems; i++) {
+			InventoryItem item = new InventoryItem("Carried " + itemName(i).toLowerCase(), "Inventory item " + i + ".");
+			item.setInspectionText("You carry it around since the beginning.");
+			if (i % 2 == 1) {
+				// Combine with the previous one
+				InventoryItem partner = allInventoryItems.get(i - 1);
+				InventoryItem result = new InventoryItem("Combined " + itemName(i).toLowerCase(), "A combination.");
+				item.setCombiningEnabledWith(partner, true);
+				item.setCombineWithSuccessfulText(partner, "You combine them.");
+				item.addNewCombinableWhenCombinedWith(partner, result);
+				item.addAdditionalCombineCommand(partner, "merge (?<o0>.+?) into (?<o1>.+?)");
+				item.addAdditionalActionToCombineWith(partner,
+						new RemoveInventoryItemAction(actionName("remove"), partner));
+				combinePairs.add(new InventoryItem[] { item, partner });
+			}
+			em.persist(item);
+			allInventoryItems.add(item);
+		}
+		commitChunk();
+
+		int width = (int) Math.ceil(Math.sqrt(locations));
+		for (int i = 0; i < locations; i++) {
+			createLocation(i, width);
+			if ((i + 1) % LOCATIONS_PER_CHUNK == 0) {
+				commitChunk();
+			}
+		}
+		commitChunk();
+
+		for (int i = 0; i < shortcuts; i++) {
+			Location from = randomOf(allLocations);
+			Location to = randomOf(allLocations);
+			Way way = new Way("Shortcut " + i, "A shortcut leads to " + to.getName() + ".", from, to);
+			way.addIdentifier("shortcut " + i);
+			way.addAdditionalMoveAction(createActionTree(actionDepth));
+			em.persist(way);
+			allWays.add(way);
+		}
+
+		// Using the portal in the last location ends the game
+		Item portal = new Item(attach(allLocations.get(allLocations.size() - 1)), "Portal",
+				"There is a shimmering portal.");
+		portal.setUsingEnabled(true);
+		portal.setUseSuccessfulText("You step through the portal.");
+		portal.addAdditionalUseAction(new EndGameAction(actionName("end")));
+		em.persist(portal);
+
+		game.setStartLocation(attach(allLocations.get(0)));
+		for (InventoryItem item : allInventoryItems.subList(0, inventoryItems)) {
+			game.addStartItem(attach(item));
+		}
+		em.persist(game);
+		em.getTransaction().commit();
+	}
+
+	/**
+	 * Commits the objects persisted so far and clears the entity manager, so
+	 * that neither the transaction nor the persistence context grow with the
+	 * world. The inserts are grouped by batch writing, see persistence.xml.
+	 *
+	 * Afterwards, the objects generated so far are detached. Persisting cascades
+	 * into detached objects as if they were new, so later objects must only
+	 * refer to them through {@link #attach(Object)}.
+	 */
+	private void commitChunk() {
+		em.flush();
+		em.getTransaction().commit();
+		em.clear();
+		em.getTransaction().begin();
+	}
+
+	/**
+	 * Returns the managed instance of an object generated before. Its
+	 * relations are only loaded when needed, so persisting later objects does
+	 * not cascade far through the world.
+	 *
+	 * @param object
+	 *            an object generated before
+	 * @return the managed instance, or the object itself if it is not
+	 *         persisted yet or no entity
+	 */
+	@SuppressWarnings("unchecked")
+	private <E> E attach(E object) {
+		if (!(object instanceof HasId) || ((HasId) object).getId() == 0 || em.contains(object)) {
+			return object;
+		}
+		return (E) em.find(object.getClass(), ((HasId) object).getId());
+	}
+
+	/**
+	 * Creates a location with its items and persons and the ways to its
+	 * neighbors to the west and north.
+	 *
+	 * @param index
+	 *            the index of the location
+	 * @param width
+	 *            the width of the grid
+	 */
+	private void createLocation(int index, int width) {
+		int x = index % width;
+		int y = index / width;
+		Location location = new Location("Location " + index, "You are at " + x + "/" + y + ".");
+		location.setxCoordinate(x * MAP_SPACING);
+		location.setyCoordinate(y * MAP_SPACING);
+		allLocations.add(location);
+
+		if (x > 0) {
+			connect(attach(allLocations.get(index - 1)), location, "east", "west");
+		}
+		if (y > 0) {
+			connect(attach(allLocations.get(index - width)), location, "south", "north");
+		}
+
+		for (int i = 0; i < itemsPerLocation; i++) {
+			createItem(location, index * itemsPerLocation + i);
+		}
+		for (int i = 0; i < personsPerLocation; i++) {
+			createPerson(location, index * personsPerLocation + i);
+		}
+		em.persist(location);
+	}
+
+	/**
+	 * Creates ways in both directions between two locations.
+	 *
+	 * @param a
+	 *            the one location
+	 * @param b
+	 *            the other location
+	 * @param direction
+	 *            the direction from a to b
+	 * @param back
+	 *            the direction from b to a
+	 */
+	private void connect(Location a, Location b, String direction, String back) {
+		Way there = new Way("Way " + direction, "A way leads " + direction + ".", a, b);
+		there.addIdentifier(direction);
+		there.setMoveSuccessfulText("You go " + direction + ".");
+		Way backThere = new Way("Way " + back, "A way leads " + back + ".", b, a);
+		backThere.addIdentifier(back);
+		backThere.setMoveSuccessfulText("You go " + back + ".");
+		allWays.add(there);
+		allWays.add(backThere);
+	}
+
+	/**
+	 * Creates an item. Every third item can be taken, every other one used
+	 * and some can be used with an inventory item.
+	 *
+	 * @param location
+	 *            the location of the item
+	 * @param index
+	 *            the index of the item
+	 */
+	private void createItem(Location location, int index) {
+		Item item = new Item(location, itemName(index), "There is a " + itemName(index).toLowerCase() + ".");
+		item.setInspectionText("Item " + index + ". Nothing special about it.");
+		if (index % 3 == 0) {
+			item.setTakingEnabled(true);
+			InventoryItem pickUp = new InventoryItem(item);
+			pickUp.setDescription("Taken from " + location.getName());
+			item.addPickUpItem(pickUp);
+			allInventoryItems.add(pickUp);
+		} else {
+			item.setTakeForbiddenText("It does not move.");
+		}
+		if (index % 2 == 0) {
+			item.setUsingEnabled(true);
+			item.setUseSuccessfulText("Something happens.");
+			item.addAdditionalUseAction(createActionTree(actionDepth));
+		}
+		if (index % 5 == 0 && inventoryItems > 0) {
+			InventoryItem tool = attach(allInventoryItems.get(random.nextInt(inventoryItems)));
+			tool.setUsingEnabledWith(item, true);
+			tool.setUseWithSuccessfulText(item, "That worked.");
+			tool.addAdditionalActionToUseWith(item, createLeafAction());
+			useWithPairs.add(new Object[] { tool, item });
+		}
+		item.addAdditionalInspectAction(createLeafAction());
+		allItems.add(item);
+	}
+
+	/**
+	 * Creates a person with a conversation.
+	 *
+	 * @param location
+	 *            the location of the person
+	 * @param index
+	 *            the index of the person
+	 */
+	private void createPerson(Location location, int index) {
+		Person person = new Person(location, "Person " + index, "Person " + index + " is standing around.");
+		person.setInspectionText("Looks like a generated person.");
+		person.setConversation(createConversation(index));
+		if (inventoryItems > 0) {
+			InventoryItem gift = attach(allInventoryItems.get(random.nextInt(inventoryItems)));
+			gift.setUsingEnabledWith(person, true);
+			gift.setUseWithSuccessfulText(person, "Person " + index + " is pleased.");
+			useWithPairs.add(new Object[] { gift, person });
+		}
+		allPersons.add(person);
+	}
+
+	/**
+	 * Creates a conversation. Each option leads to the next layer or back to
+	 * the start, the options of the last layer end the conversation.
+	 *
+	 * @param index
+	 *            the index of the conversation
+	 * @return the conversation
+	 */
+	private Conversation createConversation(int index) {
+		Conversation conversation = new Conversation("conversation" + index, "Hello, stranger.");
+		List<ConversationLayer> layers = new ArrayList<>();
+		for (int i = 0; i < conversationLayers; i++) {
+			ConversationLayer layer = new ConversationLayer("c" + index + "l" + i);
+			layers.add(layer);
+			conversation.addLayer(layer);
+		}
+		conversation.setStartLayer(layers.get(0));
+
+		for (int i = 0; i < conversationLayers; i++) {
+			for (int j = 0; j < optionsPerLayer; j++) {
+				ConversationLayer target;
+				if (i == conversationLayers - 1) {
+					target = null;
+				} else if (j == optionsPerLayer - 1) {
+					target = layers.get(0);
+				} else {
+					target = layers.get(i + 1);
+				}
+				ConversationOption option = new ConversationOption("c" + index + "l" + i + "o" + j,
+						"Tell me about topic " + j + " of layer " + i + ".", "Topic " + j + " is fascinating.",
+						target);
+				if (j == 0) {
+					option.addAdditionalAction(createLeafAction());
+				}
+				layers.get(i).addOption(option);
+				allOptions.add(option);
+			}
+		}
+		allConversations.add(conversation);
+		return conversation;
+	}
+
+	/**
+	 * Creates a tree of multi actions.
+	 *
+	 * @param depth
+	 *            the depth of the tree. If 0, a single leaf action is
+	 *            returned.
+	 * @return the root action
+	 */
+	private AbstractAction createActionTree(int depth) {
+		if (depth <= 0) {
+			return createLeafAction();
+		}
+		MultiAction action = new MultiAction(actionName("multi"));
+		for (int i = 0; i < actionFanOut; i++) {
+			action.addAction(createActionTree(depth - 1));
+		}
+		allActions.add(action);
+		return action;
+	}
+
+	/**
+	 * Creates an action that is no multi action. The types are used in turn.
+	 * Changes only refer to objects created before. The actions ending the
+	 * game are never executed, so that the game stays playable.
+	 *
+	 * @return the action
+	 */
+	private AbstractAction createLeafAction() {
+		AbstractAction action = null;
+		switch (actionCount % LEAF_ACTION_TYPES) {
+		case 0:
+			if (!allInventoryItems.isEmpty()) {
+				AddInventoryItemsAction add = new AddInventoryItemsAction(actionName("add"));
+				add.addPickUpItem(randomOf(allInventoryItems));
+				action = add;
+			}
+			break;
+		case 1:
+			if (!allActions.isEmpty()) {
+				action = new ChangeActionAction(actionName("changeAction"), randomOf(allActions), Enabling.DISABLE);
+			}
+			break;
+		case 2:
+			if (!combinePairs.isEmpty()) {
+				InventoryItem[] pair = randomOf(combinePairs);
+				ChangeCombineInformationAction change = new ChangeCombineInformationAction(
+						actionName("changeCombine"), attach(pair[0]), attach(pair[1]));
+				change.setNewCombineWithSuccessfulText("You combine them once more.");
+				action = change;
+			}
+			break;
+		case 3:
+			if (!allConversations.isEmpty()) {
+				ChangeConversationAction change = new ChangeConversationAction(actionName("changeConversation"),
+						randomOf(allConversations));
+				change.setNewGreeting("Hello again.");
+				action = change;
+			}
+			break;
+		case 4:
+			if (!allOptions.isEmpty()) {
+				ChangeConversationOptionAction change = new ChangeConversationOptionAction(
+						actionName("changeOption"), randomOf(allOptions));
+				change.setNewAnswer("I told you already.");
+				action = change;
+			}
+			break;
+		case 5:
+			if (!allItems.isEmpty()) {
+				ChangeItemAction change = new ChangeItemAction(actionName("changeItem"), randomOf(allItems));
+				change.setNewInspectionText("It has changed.");
+				action = change;
+			}
+			break;
+		case 6:
+			if (!allPersons.isEmpty()) {
+				ChangePersonAction change = new ChangePersonAction(actionName("changePerson"), randomOf(allPersons));
+				change.setNewInspectionText("Looks different now.");
+				action = change;
+			}
+			break;
+		case 7:
+			if (!allItems.isEmpty()) {
+				ChangeUsableObjectAction change = new ChangeUsableObjectAction(actionName("changeUsable"),
+						randomOf(allItems));
+				change.setNewUseForbiddenText("Not anymore.");
+				action = change;
+			}
+			break;
+		case 8:
+			if (!useWithPairs.isEmpty()) {
+				Object[] pair = randomOf(useWithPairs);
+				ChangeUseWithInformationAction change = new ChangeUseWithInformationAction(
+						actionName("changeUseWith"), (InventoryItem) attach(pair[0]), (PassivelyUsable) attach(pair[1]));
+				change.setNewUseWithSuccessfulText("That worked again.");
+				action = change;
+			}
+			break;
+		case 9:
+			if (!allWays.isEmpty()) {
+				ChangeWayAction change = new ChangeWayAction(actionName("changeWay"), randomOf(allWays));
+				change.setEnabling(Enabling.ENABLE);
+				action = change;
+			}
+			break;
+		case 10:
+			if (!allLocations.isEmpty()) {
+				action = new MoveAction(actionName("move"), randomOf(allLocations));
+			}
+			break;
+		case 11:
+			if (!allInventoryItems.isEmpty()) {
+				action = new RemoveInventoryItemAction(actionName("remove"), randomOf(allInventoryItems));
+			}
+			break;
+		case 12:
+			if (!allLocations.isEmpty()) {
+				ChangeNDObjectAction change = new ChangeNDObjectAction(actionName("changeLocation"),
+						randomOf(allLocations));
+				change.setNewDescription("This place has changed.");
+				action = change;
+			}
+			break;
+		default:
+			/*
+			 * Refers to an action ending the game, which is never executed.
+			 * Disabling it is not enough, since multi actions execute
+			 * disabled actions, too.
+			 */
+			EndGameAction end = new EndGameAction(actionName("unreachableEnd"));
+			end.setEnabled(false);
+			action = new ChangeActionAction(actionName("keepEnd"), end, Enabling.DO_NOT_CHANGE);
+			break;
+		}
+		actionCount++;
+		if (action == null) {
+			// Nothing to refer to yet
+			action = new AddInventoryItemsAction(actionName("empty"));
+		}
+		allActions.add(action);
+		return action;
+	}
+
+	/**
+	 * @param prefix
+	 *            describes the action
+	 * @return a unique name for an action
+	 */
+	private String actionName(String prefix) {
+		return prefix + "Action" + allActions.size();
+	}
+
+	/**
+	 * @param index
+	 *            the index of an item
+	 * @return a name for the item
+	 */
+	private static String itemName(int index) {
+		return ADJECTIVES[index % ADJECTIVES.length] + " " + NOUNS[(index / ADJECTIVES.length) % NOUNS.length]
+				+ " " + index;
+	}
+
+	/**
+	 * @param list
+	 *            a list that is not empty
+	 * @return the managed instance of a random element of the list
+	 */
+	private <E> E randomOf(List<E> list) {
+		return attach(list.get(random.nextInt(list.size())));
+	}
+
+	/**
+	 * Generates a game. The first argument is the title, which is also the
+	 * name of the file in the TextAdventureMaker directory. All others are
+	 * settings like {@code locations=10000}, named after the setters of this
+	 * class.
+	 *
+	 * @param args
+	 *            the title and the settings
+	 */
+	public static void main(String[] args) throws Exception {
+		String title = args.length > 0 ? args[0] : "Generated-Adventure";
+		WorldGenerator generator = new WorldGenerator();
+		for (int i = 1; i < args.length; i++) {
+			String[] setting = args[i].split("=", 2);
+			if (setting.length != 2) {
+				throw new IllegalArgumentException("Settings must look like name=value: " + args[i]);
+			}
+			long value = Long.parseLong(setting[1]);
+			switch (setting[0]) {
+			case "locations":
+				generator.setLocations((int) value);
+				break;
+			case "itemsPerLocation":
+				generator.setItemsPerLocation((int) value);
+				break;
+			case "personsPerLocation":
+				generator.setPersonsPerLocation((int) value);
+				break;
+			case "shortcuts":
+				generator.setShortcuts((int) value);
+				break;
+			case "inventoryItems":
+				generator.setInventoryItems((int) value);
+				break;
+			case "actionDepth":
+				generator.setActionDepth((int) value);
+				break;
+			case "actionFanOut":
+				generator.setActionFanOut((int) value);
+				break;
+			case "conversationLayers":
+				generator.setConversationLayers((int) value);
+				break;
+			case "optionsPerLayer":
+				generator.setOptionsPerLayer((int) value);
+				break;
+			case "seed":
+				generator.setSeed(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown setting: " + setting[0]);
+			}
+		}
+		generator.generate(PropertiesReader.DIRECTORY + title, title);
+	}
+}
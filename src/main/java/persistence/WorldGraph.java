@@ -0,0 +1,393 @@
+package persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import data.Location;
+import data.Way;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
+
+/**
+ * The locations of a game and the ways between them, as a graph for finding
+ * paths and reachable locations.
+ *
+ * The locations are numbered in the order of their ids, and the ways out of
+ * each location are stored in arrays of location numbers, so that a search
+ * does not navigate any entities. If moving over a way is enabled is kept up
+ * to date by listening to the ways, so changing it needs no new graph. A new
+ * graph is needed whenever {@link Location#getWaysVersion()} changes.
+ *
+ * A graph must only be used by one thread at a time.
+ *
+ * @author Satia
+ */
+public class WorldGraph {
+
+	/**
+	 * The locations, sorted by id.
+	 */
+	private final Location[] locations;
+
+	/**
+	 * The ids of the locations, ascending.
+	 */
+	private final int[] ids;
+
+	/**
+	 * The index of the first way out of each location. The ways out of
+	 * location {@code i} are those from {@code firstWay[i]} to
+	 * {@code firstWay[i + 1]}.
+	 */
+	private final int[] firstWay;
+
+	/**
+	 * The number of the origin of each way.
+	 */
+	private final int[] origins;
+
+	/**
+	 * The number of the destination of each way.
+	 */
+	private final int[] destinations;
+
+	/**
+	 * The ways.
+	 */
+	private final Way[] ways;
+
+	/**
+	 * If moving over each way is enabled.
+	 */
+	private final boolean[] movingEnabled;
+
+	/**
+	 * Updates {@link #movingEnabled}. The ways only hold weak references to
+	 * them, so that graphs no longer used can be collected.
+	 */
+	private final ChangeListener<?>[] listeners;
+
+	/**
+	 * The search in which each location was last visited.
+	 */
+	private final int[] visited;
+
+	/**
+	 * The way by which each location was reached in the last search, or -1
+	 * for the start.
+	 */
+	private final int[] reachedBy;
+
+	/**
+	 * The queue of locations to visit in a search.
+	 */
+	private final int[] queue;
+
+	/**
+	 * The number of the current search.
+	 */
+	private int search;
+
+	/**
+	 * Builds the graph. Ways leading to locations that are not given are left
+	 * out.
+	 *
+	 * @param locations
+	 *            all locations
+	 */
+	public WorldGraph(Collection<Location> locations) {
+		this.locations = locations.toArray(new Location[locations.size()]);
+		Arrays.sort(this.locations, Comparator.comparingInt(Location::getId));
+		int n = this.locations.length;
+		this.ids = new int[n];
+		this.firstWay = new int[n + 1];
+		int wayCount = 0;
+		for (int i = 0; i < n; i++) {
+			ids[i] = this.locations[i].getId();
+			wayCount += this.locations[i].getWaysOut().size();
+		}
+
+		this.origins = new int[wayCount];
+		this.destinations = new int[wayCount];
+		this.ways = new Way[wayCount];
+		this.movingEnabled = new boolean[wayCount];
+		this.listeners = new ChangeListener<?>[wayCount];
+		int way = 0;
+		for (int i = 0; i < n; i++) {
+			firstWay[i] = way;
+			for (Way wayOut : this.locations[i].getWaysOut()) {
+				int destination = indexOf(wayOut.getDestination());
+				if (destination < 0) {
+					// A way to a location that is not part of the graph
+					continue;
+				}
+				origins[way] = i;
+				destinations[way] = destination;
+				ways[way] = wayOut;
+				listenToWay(way);
+				way++;
+			}
+		}
+		firstWay[n] = way;
+
+		this.visited = new int[n];
+		this.reachedBy = new int[n];
+		this.queue = new int[n];
+	}
+
+	/**
+	 * Keeps track of moving over a way being enabled.
+	 * 
+	 * @param way
+	 *            the number of the way
+	 */
+	private void listenToWay(int way) {
+		ChangeListener<Boolean> listener = (observable, oldValue, newValue) -> movingEnabled[way] = newValue;
+		listeners[way] = listener;
+		ways[way].movingEnabledProperty().addListener(new WeakChangeListener<>(listener));
+		movingEnabled[way] = ways[way].isMovingEnabled();
+	}
+
+	/**
+	 * @param location
+	 *            a location
+	 * @return the number of the location or -1, if it is not part of the
+	 *         graph
+	 */
+	private int indexOf(Location location) {
+		if (location == null) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(ids, location.getId());
+		return index >= 0 && locations[index] == location ? index : -1;
+	}
+
+	/**
+	 * @return the number of locations
+	 */
+	public int size() {
+		return locations.length;
+	}
+
+	/**
+	 * @param location
+	 *            a location
+	 * @return if the location is part of the graph
+	 */
+	public boolean contains(Location location) {
+		return indexOf(location) >= 0;
+	}
+
+	/**
+	 * Visits the locations reachable from a start location, nearest first,
+	 * until a target is found.
+	 *
+	 * @param start
+	 *            the number of the start location
+	 * @param target
+	 *            decides which location is searched for. May be {@code null}
+	 *            to visit all reachable locations.
+	 * @param via
+	 *            decides which locations may be entered. May be {@code null}
+	 *            to allow all locations.
+	 * @param enabledOnly
+	 *            if only enabled ways may be used
+	 * @return the number of the nearest target location or -1, if none is
+	 *         reachable
+	 */
+	private int search(int start, Predicate<Location> target, Predicate<Location> via, boolean enabledOnly) {
+		return search(new int[] { start }, target, via, enabledOnly);
+	}
+
+	/**
+	 * Visits the locations reachable from any of the start locations, nearest
+	 * first, until a target is found.
+	 *
+	 * @param starts
+	 *            the numbers of the start locations
+	 * @param target
+	 *            decides which location is searched for. May be {@code null}
+	 *            to visit all reachable locations.
+	 * @param via
+	 *            decides which locations may be entered. May be {@code null}
+	 *            to allow all locations.
+	 * @param enabledOnly
+	 *            if only enabled ways may be used
+	 * @return the number of the nearest target location or -1, if none is
+	 *         reachable
+	 */
+	private int search(int[] starts, Predicate<Location> target, Predicate<Location> via, boolean enabledOnly) {
+		if (++search == 0) {
+			// All numbers were used, start from scratch
+			Arrays.fill(visited, 0);
+			search = 1;
+		}
+		int head = 0;
+		int tail = 0;
+		for (int start : starts) {
+			if (visited[start] != search) {
+				queue[tail++] = start;
+				visited[start] = search;
+				reachedBy[start] = -1;
+			}
+		}
+		while (head < tail) {
+			int location = queue[head++];
+			if (target != null && target.test(locations[location])) {
+				return location;
+			}
+			for (int way = firstWay[location]; way < firstWay[location + 1]; way++) {
+				int destination = destinations[way];
+				if (visited[destination] != search && (!enabledOnly || movingEnabled[way])
+						&& (via == null || via.test(locations[destination]))) {
+					visited[destination] = search;
+					reachedBy[destination] = way;
+					queue[tail++] = destination;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param location
+	 *            the number of a location visited in the last search
+	 * @return the ways leading from the start of the last search to the
+	 *         location
+	 */
+	private List<Way> pathTo(int location) {
+		List<Way> path = new ArrayList<>();
+		for (int way = reachedBy[location]; way >= 0; way = reachedBy[location]) {
+			path.add(ways[way]);
+			location = origins[way];
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	/**
+	 * Finds a shortest path to the nearest location matching a condition.
+	 *
+	 * @param from
+	 *            the start location
+	 * @param target
+	 *            decides which location is searched for
+	 * @param enabledOnly
+	 *            if only ways where moving is enabled may be used
+	 * @return the ways to take, empty if the start location matches, or
+	 *         {@code null} if no matching location is reachable
+	 */
+	public List<Way> findPath(Location from, Predicate<Location> target, boolean enabledOnly) {
+		return findPath(from, target, null, enabledOnly);
+	}
+
+	/**
+	 * Finds a shortest path to the nearest location matching a condition,
+	 * entering only some locations on the way.
+	 *
+	 * @param from
+	 *            the start location
+	 * @param target
+	 *            decides which location is searched for
+	 * @param via
+	 *            decides which locations may be entered, including the
+	 *            target. May be {@code null} to allow all locations.
+	 * @param enabledOnly
+	 *            if only ways where moving is enabled may be used
+	 * @return the ways to take, empty if the start location matches, or
+	 *         {@code null} if no matching location is reachable
+	 */
+	public List<Way> findPath(Location from, Predicate<Location> target, Predicate<Location> via,
+			boolean enabledOnly) {
+		int start = indexOf(from);
+		if (start < 0) {
+			return from != null && target.test(from) ? new ArrayList<>() : null;
+		}
+		int found = search(start, target, via, enabledOnly);
+		return found < 0 ? null : pathTo(found);
+	}
+
+	/**
+	 * Finds a shortest path between two locations.
+	 *
+	 * @param from
+	 *            the start location
+	 * @param to
+	 *            the target location
+	 * @param enabledOnly
+	 *            if only ways where moving is enabled may be used
+	 * @return the ways to take, empty if both locations are the same, or
+	 *         {@code null} if the target is not reachable
+	 */
+	public List<Way> findPath(Location from, Location to, boolean enabledOnly) {
+		return findPath(from, location -> location == to, enabledOnly);
+	}
+
+	/**
+	 * @param from
+	 *            the start location
+	 * @param to
+	 *            the target location
+	 * @param enabledOnly
+	 *            if only ways where moving is enabled may be used
+	 * @return if the target can be reached from the start
+	 */
+	public boolean isReachable(Location from, Location to, boolean enabledOnly) {
+		if (from == to) {
+			return true;
+		}
+		int start = indexOf(from);
+		int target = indexOf(to);
+		if (start < 0 || target < 0) {
+			return false;
+		}
+		search(start, null, null, enabledOnly);
+		return visited[target] == search;
+	}
+
+	/**
+	 * @param from
+	 *            the start location
+	 * @param enabledOnly
+	 *            if only ways where moving is enabled may be used
+	 * @return all locations reachable from the start, including the start
+	 *         itself
+	 */
+	public List<Location> getReachable(Location from, boolean enabledOnly) {
+		return getReachable(Collections.singletonList(from), enabledOnly);
+	}
+
+	/**
+	 * @param from
+	 *            the start locations
+	 * @param enabledOnly
+	 *            if only ways where moving is enabled may be used
+	 * @return all locations reachable from any of the start locations,
+	 *         including the start locations themselves
+	 */
+	public List<Location> getReachable(Collection<Location> from, boolean enabledOnly) {
+		List<Location> result = new ArrayList<>();
+		int[] starts = new int[from.size()];
+		int startCount = 0;
+		for (Location location : from) {
+			int start = indexOf(location);
+			if (start >= 0) {
+				starts[startCount++] = start;
+			} else if (location != null && !result.contains(location)) {
+				result.add(location);
+			}
+		}
+		search(Arrays.copyOf(starts, startCount), null, null, enabledOnly);
+		for (int i = 0; i < locations.length; i++) {
+			if (visited[i] == search) {
+				result.add(locations[i]);
+			}
+		}
+		return result;
+	}
+}
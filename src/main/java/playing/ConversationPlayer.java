@@ -17,6 +17,11 @@ import data.Game;
  */
 public class ConversationPlayer implements OptionIOManager {
 
+	/**
+	 * The game player.
+	 */
+	private final GamePlayer gamePlayer;
+
 	/**
 	 * The IO object.
 	 */
@@ -50,19 +55,18 @@ public class ConversationPlayer implements OptionIOManager {
 	/**
 	 * Construct a conversation player and starts the conversation.
 	 * 
-	 * @param io
-	 *            the io
-	 * @param game
-	 *            the game
+	 * @param gamePlayer
+	 *            the game player
 	 * @param conversation
 	 *            the conversation to play
 	 * @param personName
 	 *            the name of the person
 	 */
-	public ConversationPlayer(InputOutput io, Game game, Conversation conversation, String personName, MenuShower ms) {
-		this.io = io;
-		this.ms = ms;
-		this.game = game;
+	public ConversationPlayer(GamePlayer gamePlayer, Conversation conversation, String personName) {
+		this.gamePlayer = gamePlayer;
+		this.io = gamePlayer.getIo();
+		this.ms = gamePlayer.getMenuShower();
+		this.game = gamePlayer.getGame();
 		this.conversation = conversation;
 		this.personName = personName;
 		this.currentLayer = conversation.getStartLayer();
@@ -80,6 +84,7 @@ public class ConversationPlayer implements OptionIOManager {
 		}
 
 		ConversationOption chosenOption = currentLayer.getEnabledOptions().get(index);
+		gamePlayer.optionChosen(index);
 		// Trigger additional actions
 		chosenOption.choose(game);
 
@@ -93,6 +98,7 @@ public class ConversationPlayer implements OptionIOManager {
 
 		if (hasEnded()) {
 			io.exitOptionMode();
+			gamePlayer.setConversationPlayer(null);
 		} else {
 			// Display new options
 			io.setOptions(currentLayer.getOptionTexts());
@@ -122,6 +128,7 @@ public class ConversationPlayer implements OptionIOManager {
 		} else {
 			// Enter conversation mode, directly displaying the options
 			io.enterOptionMode(this, currentLayer.getOptionTexts());
+			gamePlayer.setConversationPlayer(this);
 			// Print the greeting after going into conversation mode
 			personSays(conversation.getGreeting());
 			happens(conversation.getEvent());
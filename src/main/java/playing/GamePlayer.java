@@ -1,11 +1,18 @@
 package playing;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import data.Game;
+import logging.Instrumentation;
+import logging.Instrumentation.Stage;
+import persistence.Journal;
 import persistence.PersistenceManager;
 import playing.InputOutput.GeneralIOManager;
 import playing.command.Command;
@@ -19,7 +26,9 @@ import playing.command.TalkTo;
 import playing.command.Use;
 import playing.command.UseWithCombine;
 import playing.menu.MenuShower;
+import playing.parser.CommandCache;
 import playing.parser.GeneralParser;
+import playing.parser.PatternCache;
 
 /**
  * Manages the actual commands needed to play a game and access to any classes
@@ -58,11 +67,39 @@ public class GamePlayer implements GeneralIOManager {
 	 */
 	private List<Command> commands;
 
+	/**
+	 * The parts of the commands depending only on the game definition. Kept
+	 * when loading another game state.
+	 */
+	private final CommandCache commandCache;
+
 	/**
 	 * A reference to the currently active persistenceManager
 	 */
 	private PersistenceManager persistenceManager;
 
+	/**
+	 * The conversation currently played, or {@code null}.
+	 */
+	private ConversationPlayer conversationPlayer;
+
+	/**
+	 * The journal recording the input, or {@code null}.
+	 */
+	private Journal journal;
+
+	/**
+	 * Called after each command outside of conversations, when a snapshot of
+	 * the game can be taken. May be {@code null}.
+	 */
+	private Runnable snapshotPoint;
+
+	/**
+	 * Tasks handed over by other threads, to be run on the thread handling
+	 * the input.
+	 */
+	private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+
 	/**
 	 * Creates a new game player. Can only be used properly after
 	 * {@link #setGame(Game)} has been called.
@@ -73,10 +110,45 @@ public class GamePlayer implements GeneralIOManager {
 	 *            menu shower
 	 */
 	public GamePlayer(PersistenceManager pm, MenuShower ms) {
-		this.io = new InputOutput(this, ms);
+		this(pm, ms, ioManager -> new LanternaInputOutput(ioManager, ms));
+	}
+
+	/**
+	 * Creates a new game player with a custom IO, e.g. one without a screen.
+	 * Can only be used properly after {@link #setGame(Game)} has been called.
+	 * 
+	 * @param pm
+	 *            the PersistenceManager
+	 * @param ms
+	 *            menu shower
+	 * @param ioFactory
+	 *            creates the IO for the game player
+	 */
+	public GamePlayer(PersistenceManager pm, MenuShower ms, Function<GeneralIOManager, InputOutput> ioFactory) {
+		this(pm, ms, ioFactory, new CommandCache());
+	}
+
+	/**
+	 * Creates a new game player with a custom IO, sharing the commands with
+	 * other games of the same game definition. Can only be used properly
+	 * after {@link #setGame(Game)} has been called.
+	 * 
+	 * @param pm
+	 *            the PersistenceManager
+	 * @param ms
+	 *            menu shower
+	 * @param ioFactory
+	 *            creates the IO for the game player
+	 * @param commandCache
+	 *            the cache of the game definition
+	 */
+	public GamePlayer(PersistenceManager pm, MenuShower ms, Function<GeneralIOManager, InputOutput> ioFactory,
+			CommandCache commandCache) {
+		this.io = ioFactory.apply(this);
 		this.persistenceManager = pm;
 		this.ms = ms;
 		this.currentReplacer = new PlaceholderReplacer();
+		this.commandCache = commandCache;
 	}
 
 	/**
@@ -94,7 +166,6 @@ public class GamePlayer implements GeneralIOManager {
 	 */
 	public void setGame(Game game) {
 		this.game = game;
-		this.parser = new GeneralParser(this);
 
 		/*
 		 * The ordering must be chosen carefully.
@@ -125,6 +196,9 @@ public class GamePlayer implements GeneralIOManager {
 		commands.add(new Inspect(this));
 		commands.add(new Inventory(this));
 		commands.add(new Help(this));
+
+		// The parser combines the patterns of all commands
+		this.parser = new GeneralParser(this);
 	}
 
 	/**
@@ -155,6 +229,95 @@ public class GamePlayer implements GeneralIOManager {
 		return persistenceManager;
 	}
 
+	/**
+	 * @return the patternCache
+	 */
+	public PatternCache getPatternCache() {
+		return commandCache.getPatternCache();
+	}
+
+	/**
+	 * @return the commandCache
+	 */
+	public CommandCache getCommandCache() {
+		return commandCache;
+	}
+
+	/**
+	 * Sets the journal recording the typed text and the chosen options. Only
+	 * input that is handled by the game is recorded, so that replaying it
+	 * restores the game.
+	 * 
+	 * @param journal
+	 *            the journal or {@code null}
+	 * @param snapshotPoint
+	 *            called after each command outside of conversations, when a
+	 *            snapshot of the game can be taken. May be {@code null}.
+	 */
+	public void setJournal(Journal journal, Runnable snapshotPoint) {
+		this.journal = journal;
+		this.snapshotPoint = snapshotPoint;
+	}
+
+	/**
+	 * Runs a task on the thread handling the input, after the next input has
+	 * been handled. Other threads must use this to print, since the IO is not
+	 * thread-safe. Can be called from any thread.
+	 * 
+	 * @param task
+	 *            the task
+	 */
+	public void runAfterInput(Runnable task) {
+		pendingTasks.offer(task);
+	}
+
+	/**
+	 * @return the journal or {@code null}
+	 */
+	public Journal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * @param conversationPlayer
+	 *            the conversation currently played, or {@code null}
+	 */
+	void setConversationPlayer(ConversationPlayer conversationPlayer) {
+		this.conversationPlayer = conversationPlayer;
+	}
+
+	/**
+	 * Records that an option of the current conversation was chosen.
+	 * 
+	 * @param index
+	 *            the index of the option
+	 */
+	void optionChosen(int index) {
+		if (journal != null) {
+			try {
+				journal.appendOption(index);
+			} catch (IOException e) {
+				journalFailed(e);
+			}
+		}
+	}
+
+	/**
+	 * Stops recording after the journal could not be written.
+	 * 
+	 * @param e
+	 *            the error
+	 */
+	private void journalFailed(IOException e) {
+		Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not write the journal", e);
+		try {
+			journal.close();
+		} catch (IOException e1) {
+			Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Could not close the journal", e1);
+		}
+		setJournal(null, null);
+	}
+
 	/**
 	 * @return the currentReplacer
 	 */
@@ -187,6 +350,7 @@ public class GamePlayer implements GeneralIOManager {
 	 */
 	public void start() {
 		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Starting the game");
+		conversationPlayer = null;
 		// clear the screen
 		io.clear();
 
@@ -210,6 +374,8 @@ public class GamePlayer implements GeneralIOManager {
 	public void stop() {
 		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Stopping the game");
 		io.exitIO();
+		// Nothing typed must be lost
+		persistenceManager.commitDeferredChanges();
 		persistenceManager.disconnect();
 	}
 
@@ -218,8 +384,19 @@ public class GamePlayer implements GeneralIOManager {
 	 */
 	@Override
 	public boolean handleText(String text) {
+		// Measured until the state has been updated
+		Instrumentation.beginCommand();
 		boolean cont = parser.parse(text);
 
+		// Exiting is not part of the game
+		if (cont && journal != null) {
+			try {
+				journal.appendText(text);
+			} catch (IOException e) {
+				journalFailed(e);
+			}
+		}
+
 		// Checks if the game has ended. If so, the main menu is shown, but one
 		// can not continue the game.
 		if (game.getHasEnded()) {
@@ -227,6 +404,7 @@ public class GamePlayer implements GeneralIOManager {
 		}
 
 		if (!cont) {
+			Instrumentation.endCommand();
 			stop();
 		}
 
@@ -235,6 +413,21 @@ public class GamePlayer implements GeneralIOManager {
 
 	@Override
 	public void updateState() {
-		persistenceManager.updateChanges();
+		long start = Instrumentation.enter(Stage.COMMIT);
+		try {
+			persistenceManager.updateChangesDeferred();
+		} finally {
+			Instrumentation.exit(Stage.COMMIT, start);
+		}
+		// The conversation state is not part of a snapshot
+		if (snapshotPoint != null && conversationPlayer == null) {
+			snapshotPoint.run();
+		}
+		Instrumentation.endCommand();
+
+		Runnable task;
+		while ((task = pendingTasks.poll()) != null) {
+			task.run();
+		}
 	}
 }
@@ -1,37 +1,22 @@
 package playing;
 
-import java.awt.GraphicsEnvironment;
-import java.awt.Toolkit;
-import java.awt.event.WindowAdapter;
-import java.awt.event.WindowEvent;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
-import javax.swing.JFrame;
-
-import com.googlecode.lanterna.TerminalFacade;
-import com.googlecode.lanterna.input.Key;
-import com.googlecode.lanterna.input.Key.Kind;
-import com.googlecode.lanterna.screen.Screen;
-import com.googlecode.lanterna.terminal.Terminal;
 import com.googlecode.lanterna.terminal.Terminal.Color;
-import com.googlecode.lanterna.terminal.swing.SwingTerminal;
-
-import configuration.PropertiesReader;
-import lanterna.LanternaScreenOptionChooser;
-import lanterna.LanternaScreenOptionChooser.OptionHandler;
-import lanterna.LanternaScreenTextArea;
-import lanterna.LanternaScreenTextArea.TextHandler;
-import playing.menu.MenuShower;
-import utility.WindowUtil;
 
 /**
- * Providing means to print and read input while playing.
+ * Providing means to print and read input while playing. How the game is
+ * presented and where the input comes from is up to the implementation.
+ * 
+ * The typed input must be passed to {@link GeneralIOManager#handleText(String)}
+ * and, if that returns {@code true}, followed by
+ * {@link GeneralIOManager#updateState()}. In option mode, the chosen option
+ * must be passed to {@link OptionIOManager#chooseOption(int)}, also followed by
+ * {@link GeneralIOManager#updateState()}.
  * 
  * @author Satia
  */
-public class InputOutput implements TextHandler, OptionHandler {
+public interface InputOutput {
 
 	/**
 	 * The class using this must provide these methods.
@@ -82,163 +67,10 @@ public class InputOutput implements TextHandler, OptionHandler {
 		int getNumberOfOptionLines();
 	}
 
-	/**
-	 * The io manager for this session.
-	 */
-	private final GeneralIOManager ioManager;
-
-	/**
-	 * The screen that is being used to display to game.
-	 */
-	private Screen screen;
-
-	/**
-	 * The default text area, covering the whole screen.
-	 */
-	private LanternaScreenTextArea defaultTextArea;
-
-	/**
-	 * The option io manager if currently in option mode, {@code null}
-	 * otherwise.
-	 */
-	private OptionIOManager optionIOManager;
-
-	/**
-	 * The menu shower.
-	 */
-	private MenuShower ms;
-
-	/**
-	 * The option choser if currently in option mode, {@code null} otherwise.
-	 */
-	private LanternaScreenOptionChooser optionChoser;
-
-	/**
-	 * The interrupted status of the input reader Thread is reset somehow on
-	 * Linux after calling interrupt on it. To overcome this problem, this
-	 * variable was introduced.
-	 */
-	private volatile boolean inputReaderRunning;
-
-	/**
-	 * @param ioManager
-	 *            the ioManager for this session
-	 * @param ms
-	 *            menu shower
-	 */
-	public InputOutput(GeneralIOManager ioManager, MenuShower ms) {
-		this.ioManager = ioManager;
-		this.ms = ms;
-
-		Terminal t;
-		if (GraphicsEnvironment.isHeadless()) {
-			t = TerminalFacade.createTextTerminal();
-		} else {
-			// XXX If this size is bigger than the actual screen, lanterna
-			// behaves undeterministic and probably it won't work. In that case,
-			// change the size value in the properties file for your system.
-			int cols = Integer.parseInt(PropertiesReader.getProperty(PropertiesReader.SWING_TERMINAL_COLS_PROPERTY));
-			int rows = Integer.parseInt(PropertiesReader.getProperty(PropertiesReader.SWING_TERMINAL_ROWS_PROPERTY));
-			t = TerminalFacade.createSwingTerminal(cols, rows);
-		}
-
-		this.screen = TerminalFacade.createScreen(t);
-		this.screen.startScreen();
-
-		// Then create the default text area
-		defaultTextArea = new LanternaScreenTextArea(screen, true, true, Terminal.Color.DEFAULT, Terminal.Color.DEFAULT,
-				Terminal.Color.DEFAULT, Terminal.Color.CYAN, 0, screen.getTerminalSize().getColumns(), 0,
-				screen.getTerminalSize().getRows(), InputOutput.this);
-
-
-		// Modify  the JFrame
-		if (t instanceof SwingTerminal) {
-			modifyJFrame(((SwingTerminal) t).getJFrame());
-		} 
-
-		// Start the thread reading input
-		startInputReadingThread();
-
-	}
-
-	/**
-	 * If the screen is a JFrame, modifications to it will be executed here.
-	 */
-	private void modifyJFrame(final JFrame frame) {
-		frame.addWindowListener(new WindowAdapter() {
-			@Override
-			public void windowClosing(WindowEvent e) {
-				frame.dispose();
-				ioManager.stop();
-			}
-		});
-
-		// Not resizable
-		frame.setResizable(false);
-
-		frame.setIconImage(Toolkit.getDefaultToolkit().getImage(WindowUtil.getWindowIconURL()));
-		frame.setTitle("Text-Adventure");
-	}
-
-	/**
-	 * Starts a thread that reads the input in an infinite loop.
-	 * 
-	 * XXX is this possible without busy waiting?
-	 */
-	private void startInputReadingThread() {
-		this.inputReaderRunning = true;
-
-		Thread t = new Thread(() -> {
-			while (true) {
-				// Check for interruptions
-				if (!this.inputReaderRunning) {
-					break;
-				}
-
-				Key key = screen.readInput();
-				if (key == null) {
-					continue;
-				}
-				readInput(key);
-			}
-		});
-		t.start();
-	}
-
-	/**
-	 * Reads a key and forwards them to the readInput methods of the lanterna
-	 * classes. This will also refresh the screen.
-	 * 
-	 * If ESC is typed (outside option mode) the menu will be shown.
-	 * 
-	 * @param key
-	 *            the typed key.
-	 */
-	private void readInput(Key key) {
-		if (optionIOManager == null) {
-			if (key.getKind() == Kind.Escape) {
-				// If this is escape key: show menu
-				ms.showMenu(true);
-			} else {
-				// If not in option mode, the default text area handles the
-				// key,
-				defaultTextArea.readInput(key);
-			}
-		} else {
-			// otherwise the optionChoser
-			optionChoser.readInput(key);
-		}
-
-		screen.refresh();
-	}
-
 	/**
 	 * Exits the IO.
 	 */
-	public void exitIO() {
-		this.screen.stopScreen();
-		this.inputReaderRunning = false;
-	}
+	void exitIO();
 
 	/**
 	 * Prints a line of text for the player. Default colors.
@@ -246,12 +78,7 @@ public class InputOutput implements TextHandler, OptionHandler {
 	 * @param output
 	 *            the text to be printed
 	 */
-	public void println(String output) {
-		Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Printing \"{0}\"", output);
-
-		this.defaultTextArea.println(output);
-		this.screen.refresh();
-	}
+	void println(String output);
 
 	/**
 	 * Prints a line of text for the player. Given colors.
@@ -263,19 +90,12 @@ public class InputOutput implements TextHandler, OptionHandler {
 	 * @param fgColor
 	 *            the foreground color
 	 */
-	public void println(String output, Color bgColor, Color fgColor) {
-		Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Printing \"{0}\"", output);
-
-		defaultTextArea.println(output, bgColor, fgColor);
-		this.screen.refresh();
-	}
+	void println(String output, Color bgColor, Color fgColor);
 
 	/**
 	 * Clears the text area. (Not the options!)
 	 */
-	public void clear() {
-		defaultTextArea.clear();
-	}
+	void clear();
 
 	/**
 	 * Enters option mode. Now {@link #setOptions(List)} may be called.
@@ -285,38 +105,13 @@ public class InputOutput implements TextHandler, OptionHandler {
 	 * @param options
 	 *            the first options to display.
 	 */
-	public void enterOptionMode(OptionIOManager optionIOManager, List<String> options) {
-		this.optionIOManager = optionIOManager;
-
-		int cols = screen.getTerminalSize().getColumns();
-		int rows = screen.getTerminalSize().getRows();
-
-		// The options should never cover more than half the screen!
-		int numLines = Math.min(optionIOManager.getNumberOfOptionLines(), rows / 2);
-
-		// Resize text area by cutting the last lines
-		this.defaultTextArea.setNewDimensions(0, screen.getTerminalSize().getColumns(), 0,
-				screen.getTerminalSize().getRows() - numLines);
-		// Use the last lines to display options
-		this.optionChoser = new LanternaScreenOptionChooser(screen, options, this, 0, cols, rows - numLines, rows);
-
-		// Refresh
-		this.screen.refresh();
-	}
+	void enterOptionMode(OptionIOManager optionIOManager, List<String> options);
 
 	/**
 	 * Exits option mode. Now {@link #setOptions(List)} must not be called any
 	 * more.
 	 */
-	public void exitOptionMode() {
-		this.optionIOManager = null;
-		this.optionChoser = null;
-		// Resize text area by giving back the last lines
-		this.defaultTextArea.setNewDimensions(0, screen.getTerminalSize().getColumns(), 0,
-				screen.getTerminalSize().getRows());
-		// Refresh
-		this.screen.refresh();
-	}
+	void exitOptionMode();
 
 	/**
 	 * Sets the options to display. Must only be called in option mode.
@@ -324,20 +119,5 @@ public class InputOutput implements TextHandler, OptionHandler {
 	 * @param options
 	 *            the options to display
 	 */
-	public void setOptions(List<String> options) {
-		optionChoser.setOptions(options);
-	}
-
-	@Override
-	public void chooseOption(int index) {
-		optionIOManager.chooseOption(index);
-		ioManager.updateState();
-	}
-
-	@Override
-	public void handleText(String text) {
-		if (ioManager.handleText(text)) {
-			ioManager.updateState();
-		}
-	}
+	void setOptions(List<String> options);
 }
@@ -0,0 +1,138 @@
+package playing;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import exception.DBClosedException;
+import exception.DBIncompatibleException;
+import persistence.Journal;
+import persistence.PersistenceManager;
+import playing.menu.MenuShower;
+
+/**
+ * Replays the input recorded in a {@link Journal} without printing anything,
+ * to restore a game.
+ *
+ * @author Satia
+ */
+public class JournalReplayer implements InputOutput, MenuShower {
+
+	/**
+	 * The game player as io manager.
+	 */
+	private GeneralIOManager ioManager;
+
+	/**
+	 * The option io manager if currently in option mode, {@code null}
+	 * otherwise.
+	 */
+	private OptionIOManager optionIOManager;
+
+	/**
+	 * Use {@link #replay(String, List)}.
+	 */
+	private JournalReplayer() {
+	}
+
+	/**
+	 * Replays input in a game db. Afterwards, all changes are committed and
+	 * the db is disconnected. If the input ends in a conversation, the
+	 * conversation is left.
+	 *
+	 * @param db
+	 *            the game db, without the ending. Any snapshot must have been
+	 *            applied already.
+	 * @param entries
+	 *            the input to replay
+	 * @return the ids of the objects changed by replaying, see
+	 *         {@link PersistenceManager#getChangedIds()}
+	 * @throws IOException
+	 *             if the db cannot be connected or the input does not match
+	 *             the game
+	 * @throws DBIncompatibleException
+	 *             if the db is too new
+	 * @throws DBClosedException
+	 *             if the db was closed unexpectedly
+	 */
+	public static Set<Integer> replay(String db, List<Journal.Entry> entries)
+			throws IOException, DBIncompatibleException, DBClosedException {
+		Logger.getLogger(JournalReplayer.class.getName()).log(Level.INFO, "Replaying {0} journal entries",
+				entries.size());
+
+		JournalReplayer replayer = new JournalReplayer();
+		PersistenceManager persistenceManager = new PersistenceManager();
+		persistenceManager.connect(db, false);
+		GamePlayer gamePlayer = new GamePlayer(persistenceManager, replayer, ioManager -> {
+			replayer.ioManager = ioManager;
+			return replayer;
+		});
+		boolean running = true;
+		try {
+			gamePlayer.setGame(persistenceManager.getGameManager().getGame());
+			gamePlayer.start();
+			for (Journal.Entry entry : entries) {
+				if (entry.isOption()) {
+					if (replayer.optionIOManager == null) {
+						throw new IOException("The journal does not match the game.");
+					}
+					replayer.optionIOManager.chooseOption(entry.getOption());
+				} else if (!replayer.ioManager.handleText(entry.getText())) {
+					// The game player has stopped itself
+					running = false;
+					break;
+				}
+				replayer.ioManager.updateState();
+			}
+		} finally {
+			if (running) {
+				gamePlayer.stop();
+			}
+		}
+		return persistenceManager.getChangedIds();
+	}
+
+	@Override
+	public void exitIO() {
+		// Nothing to exit
+	}
+
+	@Override
+	public void println(String output) {
+		// Nothing is printed
+	}
+
+	@Override
+	public void println(String output, Color bgColor, Color fgColor) {
+		// Nothing is printed
+	}
+
+	@Override
+	public void clear() {
+		// Nothing is printed
+	}
+
+	@Override
+	public void enterOptionMode(OptionIOManager optionIOManager, List<String> options) {
+		this.optionIOManager = optionIOManager;
+	}
+
+	@Override
+	public void exitOptionMode() {
+		this.optionIOManager = null;
+	}
+
+	@Override
+	public void setOptions(List<String> options) {
+		// Nothing is printed
+	}
+
+	@Override
+	public void showMenu(boolean gameRunning) {
+		// The game may have ended, which is noticed when it is started again
+	}
+}
@@ -0,0 +1,420 @@
+package playing;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JFrame;
+
+import com.googlecode.lanterna.TerminalFacade;
+import com.googlecode.lanterna.input.Key;
+import com.googlecode.lanterna.input.Key.Kind;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.terminal.Terminal;
+import com.googlecode.lanterna.terminal.Terminal.Color;
+import com.googlecode.lanterna.terminal.swing.SwingTerminal;
+
+import configuration.PropertiesReader;
+import lanterna.LanternaScreenOptionChooser;
+import lanterna.LanternaScreenOptionChooser.OptionHandler;
+import lanterna.LanternaScreenTextArea;
+import lanterna.LanternaScreenTextArea.TextHandler;
+import logging.Instrumentation;
+import logging.Instrumentation.Stage;
+import playing.menu.MenuShower;
+import utility.WindowUtil;
+
+/**
+ * Providing means to print and read input while playing, using a lanterna
+ * screen in a Swing or text terminal.
+ * 
+ * @author Satia
+ */
+public class LanternaInputOutput implements InputOutput, TextHandler, OptionHandler {
+
+	/**
+	 * The number of keys that can be typed ahead while a command is handled.
+	 */
+	private static final int KEY_QUEUE_CAPACITY = 256;
+
+	/**
+	 * The time to wait before polling the terminal again right after a key,
+	 * in nanoseconds. Doubled with every poll without a key.
+	 */
+	private static final long MIN_POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * The longest time to wait before polling the terminal again, in
+	 * nanoseconds. This is the delay until a key is noticed, if the terminal
+	 * cannot notify about new keys.
+	 */
+	private static final long MAX_POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+
+	/**
+	 * Put into {@link #keys} to stop the input handling thread.
+	 */
+	private static final Key STOP_KEY = new Key(Kind.Unknown);
+
+	/**
+	 * The io manager for this session.
+	 */
+	private final GeneralIOManager ioManager;
+
+	/**
+	 * The screen that is being used to display to game.
+	 */
+	private Screen screen;
+
+	/**
+	 * The default text area, covering the whole screen.
+	 */
+	private LanternaScreenTextArea defaultTextArea;
+
+	/**
+	 * The option io manager if currently in option mode, {@code null}
+	 * otherwise.
+	 */
+	private OptionIOManager optionIOManager;
+
+	/**
+	 * The menu shower.
+	 */
+	private MenuShower ms;
+
+	/**
+	 * The option choser if currently in option mode, {@code null} otherwise.
+	 */
+	private LanternaScreenOptionChooser optionChoser;
+
+	/**
+	 * The interrupted status of the input reader Thread is reset somehow on
+	 * Linux after calling interrupt on it. To overcome this problem, this
+	 * variable was introduced.
+	 */
+	private volatile boolean inputReaderRunning;
+
+	/**
+	 * The keys read from the terminal and not yet handled.
+	 */
+	private final BlockingQueue<Key> keys;
+
+	/**
+	 * The thread polling the terminal for keys.
+	 */
+	private volatile Thread inputPollingThread;
+
+	/**
+	 * The thread handling the keys.
+	 */
+	private volatile Thread inputHandlingThread;
+
+	/**
+	 * The number of times the terminal was polled.
+	 */
+	private final AtomicLong inputPolls;
+
+	/**
+	 * @param ioManager
+	 *            the ioManager for this session
+	 * @param ms
+	 *            menu shower
+	 */
+	public LanternaInputOutput(GeneralIOManager ioManager, MenuShower ms) {
+		this.ioManager = ioManager;
+		this.ms = ms;
+		this.keys = new ArrayBlockingQueue<>(KEY_QUEUE_CAPACITY);
+		this.inputPolls = new AtomicLong();
+
+		Terminal t;
+		if (GraphicsEnvironment.isHeadless()) {
+			t = TerminalFacade.createTextTerminal();
+		} else {
+			// XXX If this size is bigger than the actual screen, lanterna
+			// behaves undeterministic and probably it won't work. In that case,
+			// change the size value in the properties file for your system.
+			int cols = Integer.parseInt(PropertiesReader.getProperty(PropertiesReader.SWING_TERMINAL_COLS_PROPERTY));
+			int rows = Integer.parseInt(PropertiesReader.getProperty(PropertiesReader.SWING_TERMINAL_ROWS_PROPERTY));
+			t = TerminalFacade.createSwingTerminal(cols, rows);
+		}
+
+		this.screen = TerminalFacade.createScreen(t);
+		this.screen.startScreen();
+
+		// Then create the default text area
+		defaultTextArea = new LanternaScreenTextArea(screen, true, true, Terminal.Color.DEFAULT, Terminal.Color.DEFAULT,
+				Terminal.Color.DEFAULT, Terminal.Color.CYAN, 0, screen.getTerminalSize().getColumns(), 0,
+				screen.getTerminalSize().getRows(), LanternaInputOutput.this,
+				Integer.parseInt(PropertiesReader.getProperty(PropertiesReader.SCROLLBACK_LINES_PROPERTY)));
+
+
+		// Modify  the JFrame
+		if (t instanceof SwingTerminal) {
+			modifyJFrame(((SwingTerminal) t).getJFrame());
+		} 
+
+		// Start the thread reading input
+		startInputReadingThread();
+
+	}
+
+	/**
+	 * If the screen is a JFrame, modifications to it will be executed here.
+	 */
+	private void modifyJFrame(final JFrame frame) {
+		frame.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				frame.dispose();
+				ioManager.stop();
+			}
+		});
+
+		// Lanterna's own listener has queued the key already
+		frame.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				wakeUpInputPolling();
+			}
+
+			@Override
+			public void keyTyped(KeyEvent e) {
+				wakeUpInputPolling();
+			}
+		});
+
+		// Not resizable
+		frame.setResizable(false);
+
+		frame.setIconImage(Toolkit.getDefaultToolkit().getImage(WindowUtil.getWindowIconURL()));
+		frame.setTitle("Text-Adventure");
+	}
+
+	/**
+	 * Starts the threads reading the input. Lanterna can only be polled for
+	 * keys, so one thread polls the terminal, waiting longer and longer while
+	 * no key is typed. A Swing terminal wakes it up as soon as a key is typed.
+	 * The keys are handed to a second thread, which handles them and blocks
+	 * while there are none.
+	 */
+	private void startInputReadingThread() {
+		this.inputReaderRunning = true;
+
+		inputPollingThread = new Thread(() -> {
+			long interval = MIN_POLL_INTERVAL;
+			while (this.inputReaderRunning) {
+				Key key = screen.readInput();
+				inputPolls.incrementAndGet();
+				if (key == null) {
+					LockSupport.parkNanos(this, interval);
+					interval = Math.min(interval * 2, MAX_POLL_INTERVAL);
+					continue;
+				}
+				interval = MIN_POLL_INTERVAL;
+				try {
+					keys.put(key);
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+		}, "Input polling");
+
+		inputHandlingThread = new Thread(() -> {
+			while (this.inputReaderRunning) {
+				Key key;
+				try {
+					key = keys.take();
+				} catch (InterruptedException e) {
+					break;
+				}
+				if (key == STOP_KEY) {
+					break;
+				}
+				readInput(key);
+			}
+		}, "Input handling");
+
+		inputPollingThread.start();
+		inputHandlingThread.start();
+	}
+
+	/**
+	 * Lets the polling thread poll the terminal right away.
+	 */
+	private void wakeUpInputPolling() {
+		Thread t = inputPollingThread;
+		if (t != null) {
+			LockSupport.unpark(t);
+		}
+	}
+
+	/**
+	 * @return the number of times the terminal was polled for keys
+	 */
+	public long getInputPolls() {
+		return inputPolls.get();
+	}
+
+	/**
+	 * @return the CPU time used by the threads reading the input so far, in
+	 *         nanoseconds, or -1 if it cannot be measured
+	 */
+	public long getInputCpuTime() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (!threadMXBean.isThreadCpuTimeSupported()) {
+			return -1;
+		}
+		long polling = threadMXBean.getThreadCpuTime(inputPollingThread.getId());
+		long handling = threadMXBean.getThreadCpuTime(inputHandlingThread.getId());
+		if (polling == -1 || handling == -1) {
+			return -1;
+		}
+		return polling + handling;
+	}
+
+	/**
+	 * Reads a key and forwards them to the readInput methods of the lanterna
+	 * classes. This will also refresh the screen, once for all output of the
+	 * command that may have been typed.
+	 * 
+	 * If ESC is typed (outside option mode) the menu will be shown.
+	 * 
+	 * @param key
+	 *            the typed key.
+	 */
+	private void readInput(Key key) {
+		if (optionIOManager == null) {
+			if (key.getKind() == Kind.Escape) {
+				// If this is escape key: show menu
+				ms.showMenu(true);
+			} else {
+				// If not in option mode, the default text area handles the
+				// key,
+				defaultTextArea.readInput(key);
+			}
+		} else {
+			// otherwise the optionChoser
+			optionChoser.readInput(key);
+		}
+
+		long start = Instrumentation.enter(Stage.REFRESH);
+		screen.refresh();
+		Instrumentation.exit(Stage.REFRESH, start);
+	}
+
+	/**
+	 * Refreshes the screen, unless a key is being handled. Then the screen is
+	 * refreshed once the key has been handled.
+	 */
+	private void refresh() {
+		if (Thread.currentThread() != inputHandlingThread) {
+			this.screen.refresh();
+		}
+	}
+
+	@Override
+	public void exitIO() {
+		// Measured before the threads end
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO,
+				"Reading the input took {0} ns CPU time for {1} polls",
+				new Object[] { getInputCpuTime(), getInputPolls() });
+
+		this.screen.stopScreen();
+		this.inputReaderRunning = false;
+		// The polling thread may be parked or waiting for space in the queue
+		inputPollingThread.interrupt();
+		// The handling thread may be waiting for keys. Keys typed ahead are
+		// dropped, so that the stop key fits into the queue.
+		keys.clear();
+		try {
+			if (!keys.offer(STOP_KEY, 1, TimeUnit.SECONDS)) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
+						"Could not stop the input handling thread");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void println(String output) {
+		Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Printing \"{0}\"", output);
+
+		this.defaultTextArea.println(output);
+		refresh();
+	}
+
+	@Override
+	public void println(String output, Color bgColor, Color fgColor) {
+		Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Printing \"{0}\"", output);
+
+		defaultTextArea.println(output, bgColor, fgColor);
+		refresh();
+	}
+
+	@Override
+	public void clear() {
+		defaultTextArea.clear();
+	}
+
+	@Override
+	public void enterOptionMode(OptionIOManager optionIOManager, List<String> options) {
+		this.optionIOManager = optionIOManager;
+
+		int cols = screen.getTerminalSize().getColumns();
+		int rows = screen.getTerminalSize().getRows();
+
+		// The options should never cover more than half the screen!
+		int numLines = Math.min(optionIOManager.getNumberOfOptionLines(), rows / 2);
+
+		// Resize text area by cutting the last lines
+		this.defaultTextArea.setNewDimensions(0, screen.getTerminalSize().getColumns(), 0,
+				screen.getTerminalSize().getRows() - numLines);
+		// Use the last lines to display options
+		this.optionChoser = new LanternaScreenOptionChooser(screen, options, this, 0, cols, rows - numLines, rows);
+
+		// Refresh
+		refresh();
+	}
+
+	@Override
+	public void exitOptionMode() {
+		this.optionIOManager = null;
+		this.optionChoser = null;
+		// Resize text area by giving back the last lines
+		this.defaultTextArea.setNewDimensions(0, screen.getTerminalSize().getColumns(), 0,
+				screen.getTerminalSize().getRows());
+		// Refresh
+		refresh();
+	}
+
+	@Override
+	public void setOptions(List<String> options) {
+		optionChoser.setOptions(options);
+	}
+
+	@Override
+	public void chooseOption(int index) {
+		optionIOManager.chooseOption(index);
+		ioManager.updateState();
+	}
+
+	@Override
+	public void handleText(String text) {
+		if (ioManager.handleText(text)) {
+			ioManager.updateState();
+		}
+	}
+}
@@ -1,7 +1,14 @@
 package playing;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
+import logging.Instrumentation;
+import logging.Instrumentation.Stage;
 import utility.CommandRegExConverter;
 
 /**
@@ -18,6 +25,37 @@ public class PlaceholderReplacer {
 	public static final Pattern CONVERT_FIRST_TO_SECOND_PATTERN = Pattern
 			.compile("<(identifier|name)>", Pattern.CASE_INSENSITIVE);
 
+	/**
+	 * The pattern matching pattern placeholders:
+	 * {@literal <pattern|first|second|>}
+	 */
+	private static final Pattern PATTERN_PLACEHOLDER_PATTERN = Pattern.compile("<pattern\\|(.*?)\\|(.*?)\\|>");
+
+	/**
+	 * All other placeholders. The index divided by 3 denotes the replacement
+	 * (input, identifier, identifier2, name, name2), the remainder the case
+	 * (upper, standard, lower).
+	 */
+	private static final String[] PLACEHOLDERS = { "<INPUT>", "<Input>", "<input>", "<IDENTIFIER>",
+			"<Identifier>", "<identifier>", "<IDENTIFIER2>", "<Identifier2>", "<identifier2>", "<NAME>", "<Name>",
+			"<name>", "<NAME2>", "<Name2>", "<name2>" };
+
+	/**
+	 * The indices of the placeholders in {@link #PLACEHOLDERS}.
+	 */
+	private static final Map<String, Integer> PLACEHOLDER_INDICES = new HashMap<>();
+
+	static {
+		for (int i = 0; i < PLACEHOLDERS.length; i++) {
+			PLACEHOLDER_INDICES.put(PLACEHOLDERS[i], i);
+		}
+	}
+
+	/**
+	 * The maximum number of compiled messages to keep.
+	 */
+	private static final int MAX_TEMPLATES = 1024;
+
 	/**
 	 * Converts all placeholders for the first parameter in a String to
 	 * placeholders for the second parameter.
@@ -91,9 +129,29 @@ public class PlaceholderReplacer {
 	 */
 	private String name2;
 
+	/**
+	 * The compiled messages, least recently used first.
+	 */
+	private final Map<String, Template> templates = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+			return size() > MAX_TEMPLATES;
+		}
+	};
+
+	/**
+	 * The builder messages are rendered into.
+	 */
+	private final StringBuilder builder = new StringBuilder();
+
 	/**
 	 * Replaces placeholders in the given message with the required text.
 	 *
+	 * The message is compiled into a {@link Template} the first time it is
+	 * seen, so that no regular expressions are needed afterwards.
+	 *
 	 * @param message
 	 *            the message
 	 * @return the message with replaced placeholders where possible.
@@ -104,46 +162,28 @@ public class PlaceholderReplacer {
 			return "";
 		}
 
-		if (pattern != null) {
-			String replacement = CommandRegExConverter
-					.convertRegExToReplacementString(pattern, "\\$1", "\\$2");
+		Template template = templates.get(message);
+		if (template == null) {
+			template = new Template(message);
+			templates.put(message, template);
+		}
+
+		if (pattern != null && template.hasPatternPlaceholder) {
 			/*
 			 * If the message contains a pattern replacement, that must be done
 			 * first, because it can create more replacement strings.
 			 */
-			message = message.replaceAll("<pattern\\|(.*?)\\|(.*?)\\|>",
-					replacement);
+			template = template.withPattern(pattern);
 		}
 
-		if (input != null) {
-			message = message.replaceAll("<INPUT>", input.toUpperCase())
-					.replaceAll("<Input>", input)
-					.replaceAll("<input>", input.toLowerCase());
-		}
-		if (identifier != null) {
-			message = message
-					.replaceAll("<IDENTIFIER>", identifier.toUpperCase())
-					.replaceAll("<Identifier>", toStandardCase(identifier))
-					.replaceAll("<identifier>", identifier.toLowerCase());
+		long start = Instrumentation.enter(Stage.PLACEHOLDERS);
+		try {
+			builder.setLength(0);
+			template.render(builder, this);
+			return builder.toString();
+		} finally {
+			Instrumentation.exit(Stage.PLACEHOLDERS, start);
 		}
-		if (identifier2 != null) {
-			message = message
-					.replaceAll("<IDENTIFIER2>", identifier2.toUpperCase())
-					.replaceAll("<Identifier2>", toStandardCase(identifier2))
-					.replaceAll("<identifier2>", identifier2.toLowerCase());
-		}
-		if (name != null) {
-			message = message.replaceAll("<NAME>", name.toUpperCase())
-					.replaceAll("<Name>", toStandardCase(name))
-					.replaceAll("<name>", name.toLowerCase());
-		}
-		if (name2 != null) {
-			message = message.replaceAll("<NAME2>", name2.toUpperCase())
-					.replaceAll("<Name2>", toStandardCase(name2))
-					.replaceAll("<name2>", name2.toLowerCase());
-		}
-
-		return message;
 	}
 
 	/**
@@ -211,4 +251,150 @@ public class PlaceholderReplacer {
 	public void setName2(String name2) {
 		this.name2 = name2;
 	}
+
+	/**
+	 * @param placeholder
+	 *            the index of a placeholder in {@link #PLACEHOLDERS}
+	 * @return the text to replace the placeholder with or {@code null}, if
+	 *         it is not set.
+	 */
+	private String getReplacement(int placeholder) {
+		String value;
+		switch (placeholder / 3) {
+		case 0:
+			value = input;
+			break;
+		case 1:
+			value = identifier;
+			break;
+		case 2:
+			value = identifier2;
+			break;
+		case 3:
+			value = name;
+			break;
+		default:
+			value = name2;
+			break;
+		}
+		if (value == null) {
+			return null;
+		}
+		switch (placeholder % 3) {
+		case 0:
+			return value.toUpperCase();
+		case 1:
+			// <Input> has always been the input as typed
+			return placeholder == 1 ? value : toStandardCase(value);
+		default:
+			return value.toLowerCase();
+		}
+	}
+
+	/**
+	 * A message split into literal text and placeholders.
+	 */
+	private static class Template {
+
+		/**
+		 * The message.
+		 */
+		private final String message;
+
+		/**
+		 * The literal text before, between and after the placeholders. Has
+		 * one more entry than there are placeholders.
+		 */
+		private final String[] literals;
+
+		/**
+		 * The placeholders, as indices in
+		 * {@link PlaceholderReplacer#PLACEHOLDERS}.
+		 */
+		private final int[] placeholders;
+
+		/**
+		 * If the message contains pattern placeholders.
+		 */
+		private final boolean hasPatternPlaceholder;
+
+		/**
+		 * The templates of the message with the pattern placeholders replaced,
+		 * by the used pattern. Lazily created.
+		 */
+		private Map<String, Template> withPatterns;
+
+		/**
+		 * Compiles a message.
+		 * 
+		 * @param message
+		 *            the message
+		 */
+		private Template(String message) {
+			this.message = message;
+			List<String> literalList = new ArrayList<>();
+			List<Integer> placeholderList = new ArrayList<>();
+			int literalStart = 0;
+			int open = message.indexOf('<');
+			while (open != -1) {
+				int close = message.indexOf('>', open);
+				if (close == -1) {
+					break;
+				}
+				Integer placeholder = PLACEHOLDER_INDICES.get(message.substring(open, close + 1));
+				if (placeholder != null) {
+					literalList.add(message.substring(literalStart, open));
+					placeholderList.add(placeholder);
+					literalStart = close + 1;
+					open = message.indexOf('<', literalStart);
+				} else {
+					open = message.indexOf('<', open + 1);
+				}
+			}
+			literalList.add(message.substring(literalStart));
+
+			this.literals = literalList.toArray(new String[literalList.size()]);
+			this.placeholders = new int[placeholderList.size()];
+			for (int i = 0; i < placeholders.length; i++) {
+				placeholders[i] = placeholderList.get(i);
+			}
+			this.hasPatternPlaceholder = PATTERN_PLACEHOLDER_PATTERN.matcher(message).find();
+		}
+
+		/**
+		 * @param pattern
+		 *            the pattern that matched the user input
+		 * @return the template of the message with the pattern placeholders
+		 *         replaced.
+		 */
+		private Template withPattern(String pattern) {
+			if (withPatterns == null) {
+				withPatterns = new HashMap<>();
+			}
+			Template result = withPatterns.get(pattern);
+			if (result == null) {
+				String replacement = CommandRegExConverter.convertRegExToReplacementString(pattern, "\\$1", "\\$2");
+				result = new Template(PATTERN_PLACEHOLDER_PATTERN.matcher(message).replaceAll(replacement));
+				withPatterns.put(pattern, result);
+			}
+			return result;
+		}
+
+		/**
+		 * Appends the message with all set placeholders replaced.
+		 * 
+		 * @param sb
+		 *            the builder to append to
+		 * @param replacer
+		 *            the replacer providing the replacements
+		 */
+		private void render(StringBuilder sb, PlaceholderReplacer replacer) {
+			sb.append(literals[0]);
+			for (int i = 0; i < placeholders.length; i++) {
+				String replacement = replacer.getReplacement(placeholders[i]);
+				sb.append(replacement != null ? replacement : PLACEHOLDERS[placeholders[i]]);
+				sb.append(literals[i + 1]);
+			}
+		}
+	}
 }
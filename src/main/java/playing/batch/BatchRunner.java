@@ -0,0 +1,247 @@
+package playing.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import exception.DBClosedException;
+import exception.DBIncompatibleException;
+import logging.Instrumentation;
+import persistence.PersistenceManager;
+import persistence.TempDB;
+import playing.parser.CommandCache;
+
+/**
+ * Plays many scripts against one game in parallel, see
+ * {@link ScriptedInputOutput}. The transcript of each script is written to a
+ * directory, and the throughput and the time needed per command are reported.
+ *
+ * Each script plays a new game in its own copy of the game db, like a player
+ * of {@link playing.menu.LoadSaveManager}, so that the changes of every
+ * command are committed as in normal play. Only the commands of the game are
+ * shared.
+ *
+ * @author Satia
+ */
+public class BatchRunner {
+
+	/**
+	 * The ending of transcript files.
+	 */
+	public static final String TRANSCRIPT_ENDING = ".transcript";
+
+	/**
+	 * The result of one script.
+	 */
+	private static class Result {
+		/**
+		 * The time needed for each command, in nanoseconds.
+		 */
+		private final long[] latencies;
+
+		/**
+		 * Why the script failed or {@code null}, if it did not.
+		 */
+		private final String error;
+
+		/**
+		 * @param latencies
+		 *            the time needed for each command
+		 * @param error
+		 *            why the script failed or {@code null}, if it did not
+		 */
+		Result(long[] latencies, String error) {
+			this.latencies = latencies;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * The game db.
+	 */
+	private final URL file;
+
+	/**
+	 * The commands of the game, shared by all scripts.
+	 */
+	private final CommandCache commandCache;
+
+	/**
+	 * The directory the transcripts are written to.
+	 */
+	private final File transcriptDirectory;
+
+	/**
+	 * @param file
+	 *            the game db
+	 * @param transcriptDirectory
+	 *            the directory the transcripts are written to
+	 */
+	public BatchRunner(URL file, File transcriptDirectory) {
+		this.file = file;
+		this.commandCache = new CommandCache();
+		this.transcriptDirectory = transcriptDirectory;
+	}
+
+	/**
+	 * Plays the scripts and prints a report.
+	 *
+	 * @param scripts
+	 *            the script files
+	 * @param threads
+	 *            the number of scripts played at the same time
+	 * @return if all scripts could be played
+	 */
+	public boolean run(List<File> scripts, int threads) {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		List<Future<Result>> futures = new ArrayList<>();
+		for (File script : scripts) {
+			futures.add(executor.submit(() -> play(script)));
+		}
+
+		List<long[]> latencies = new ArrayList<>();
+		int failed = 0;
+		for (int i = 0; i < scripts.size(); i++) {
+			Result result;
+			try {
+				result = futures.get(i).get();
+			} catch (InterruptedException | ExecutionException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not play " + scripts.get(i), e);
+				result = new Result(new long[0], e.toString());
+			}
+			if (result.error != null) {
+				failed++;
+				System.out.println("FAILED " + scripts.get(i) + ": " + result.error);
+			}
+			latencies.add(result.latencies);
+		}
+		long duration = System.nanoTime() - start;
+		executor.shutdown();
+
+		report(scripts.size(), failed, latencies, duration);
+		return failed == 0;
+	}
+
+	/**
+	 * Plays one script in a new game, in a copy of the game db.
+	 *
+	 * @param script
+	 *            the script file
+	 * @return the result
+	 */
+	private Result play(File script) {
+		File transcript = new File(transcriptDirectory, script.getName() + TRANSCRIPT_ENDING);
+		PersistenceManager persistenceManager = new PersistenceManager();
+		String db = null;
+		try (Writer writer = Files.newBufferedWriter(transcript.toPath(), StandardCharsets.UTF_8)) {
+			List<String> lines = Files.readAllLines(script.toPath(), StandardCharsets.UTF_8);
+			db = TempDB.copy(file);
+			persistenceManager.connect(db, false);
+			long[] latencies = new ScriptedInputOutput(writer).play(persistenceManager,
+					persistenceManager.getGameManager().getGame(), commandCache, lines);
+			return new Result(latencies, null);
+		} catch (IOException | DBIncompatibleException | DBClosedException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Could not play " + script, e);
+			return new Result(new long[0], e.getMessage());
+		} finally {
+			// Stopping the game disconnects, but not if it failed to start
+			persistenceManager.disconnect();
+			TempDB.delete(db);
+		}
+	}
+
+	/**
+	 * Prints the number of commands per second and percentiles of the time
+	 * needed per command and, if enabled, per stage of the commands.
+	 *
+	 * @param scripts
+	 *            the number of scripts
+	 * @param failed
+	 *            the number of scripts that failed
+	 * @param latencies
+	 *            the time needed for each command of each script
+	 * @param duration
+	 *            the time needed for all scripts, in nanoseconds
+	 */
+	private void report(int scripts, int failed, List<long[]> latencies, long duration) {
+		long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+		double seconds = duration / (double) TimeUnit.SECONDS.toNanos(1);
+
+		System.out.println(String.format("%d scripts, %d failed, %d commands in %.2f s", scripts, failed,
+				all.length, seconds));
+		if (all.length == 0) {
+			return;
+		}
+		System.out.println(String.format("%.1f commands/s", all.length / seconds));
+		System.out.println(String.format("latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f", millis(all, 50),
+				millis(all, 90), millis(all, 99), millis(all, 100)));
+		if (Instrumentation.isEnabled()) {
+			Instrumentation.dump(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * @param sorted
+	 *            sorted times in nanoseconds, not empty
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the percentile of the times (nearest rank), in milliseconds
+	 */
+	private static double millis(long[] sorted, int percentile) {
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.max(0, rank - 1)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * Plays scripts against a game. The first argument is the game db, the
+	 * second the directory for the transcripts and all others are the
+	 * scripts. Exits with 1 if a script failed.
+	 *
+	 * @param args
+	 *            the game db, the transcript directory and the scripts
+	 */
+	public static void main(String[] args) {
+		// Initialize the logging
+		try {
+			Class.forName(logging.LoggingManager.class.getName());
+		} catch (ClassNotFoundException e) {
+			Logger.getLogger(BatchRunner.class.getName()).log(Level.SEVERE, "Could not initialize logging:", e);
+		}
+
+		if (args.length < 3) {
+			System.out.println("Usage: BatchRunner <game db> <transcript directory> <script>...");
+			System.exit(2);
+		}
+
+		boolean success = false;
+		try {
+			File transcriptDirectory = new File(args[1]);
+			transcriptDirectory.mkdirs();
+			List<File> scripts = new ArrayList<>();
+			for (int i = 2; i < args.length; i++) {
+				scripts.add(new File(args[i]));
+			}
+
+			BatchRunner runner = new BatchRunner(new File(args[0]).toURI().toURL(), transcriptDirectory);
+			success = runner.run(scripts, Runtime.getRuntime().availableProcessors());
+		} catch (IOException e) {
+			Logger.getLogger(BatchRunner.class.getName()).log(Level.SEVERE, "Could not run the scripts.", e);
+		}
+		System.exit(success ? 0 : 1);
+	}
+}
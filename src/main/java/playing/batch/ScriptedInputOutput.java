@@ -0,0 +1,211 @@
+package playing.batch;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import data.Game;
+import persistence.PersistenceManager;
+import playing.GamePlayer;
+import playing.InputOutput;
+import playing.menu.MenuShower;
+import playing.parser.CommandCache;
+
+/**
+ * Plays a game without a screen, feeding the lines of a script as input. All
+ * output is written to a transcript, so that playthroughs can be compared.
+ *
+ * A script has one command per line. In option mode, a line is the number of
+ * the option to choose, starting with 1. Empty lines and lines starting with
+ * {@value #COMMENT} are skipped.
+ *
+ * In the transcript, the lines of the script are prefixed with
+ * {@value #INPUT_PREFIX} and colored output with its colors, e.g.
+ * {@code [RED on DEFAULT]}. Options are numbered like in the script.
+ *
+ * @author Satia
+ */
+public class ScriptedInputOutput implements InputOutput, MenuShower {
+
+	/**
+	 * Lines of a script starting with this are skipped.
+	 */
+	public static final String COMMENT = "#";
+
+	/**
+	 * The lines of the script are written to the transcript with this prefix.
+	 */
+	public static final String INPUT_PREFIX = "> ";
+
+	/**
+	 * The transcript.
+	 */
+	private final PrintWriter transcript;
+
+	/**
+	 * The game player as io manager.
+	 */
+	private GeneralIOManager ioManager;
+
+	/**
+	 * The option io manager if currently in option mode, {@code null}
+	 * otherwise.
+	 */
+	private OptionIOManager optionIOManager;
+
+	/**
+	 * The options currently displayed.
+	 */
+	private List<String> options;
+
+	/**
+	 * If the game has ended.
+	 */
+	private boolean ended;
+
+	/**
+	 * @param transcript
+	 *            where to write all output to
+	 */
+	public ScriptedInputOutput(Writer transcript) {
+		this.transcript = new PrintWriter(transcript);
+	}
+
+	/**
+	 * Starts a new game and plays the script. Afterwards, the game is stopped,
+	 * which disconnects the persistence manager.
+	 *
+	 * @param persistenceManager
+	 *            the connected persistence manager of the game
+	 * @param game
+	 *            the game
+	 * @param commandCache
+	 *            the cache shared by all games of the game definition
+	 * @param script
+	 *            the lines of the script
+	 * @return the time needed for each command and chosen option, in
+	 *         nanoseconds
+	 * @throws IOException
+	 *             if the script does not match the game or the transcript
+	 *             cannot be written
+	 */
+	public long[] play(PersistenceManager persistenceManager, Game game, CommandCache commandCache,
+			List<String> script) throws IOException {
+		GamePlayer gamePlayer = new GamePlayer(persistenceManager, this, ioManager -> {
+			this.ioManager = ioManager;
+			return this;
+		}, commandCache);
+		gamePlayer.setGame(game);
+		gamePlayer.start();
+
+		long[] latencies = new long[script.size()];
+		int commands = 0;
+		boolean running = true;
+		try {
+			for (int i = 0; i < script.size(); i++) {
+				String line = script.get(i);
+				if (line.trim().isEmpty() || line.startsWith(COMMENT)) {
+					continue;
+				}
+				if (ended) {
+					throw new IOException("The game has ended before line " + (i + 1) + ".");
+				}
+				transcript.println(INPUT_PREFIX + line);
+
+				long start = System.nanoTime();
+				if (optionIOManager != null) {
+					optionIOManager.chooseOption(parseOption(line, i));
+				} else if (!ioManager.handleText(line)) {
+					// The game player has stopped itself
+					running = false;
+					latencies[commands++] = System.nanoTime() - start;
+					break;
+				}
+				ioManager.updateState();
+				latencies[commands++] = System.nanoTime() - start;
+			}
+		} finally {
+			if (running) {
+				gamePlayer.stop();
+			}
+			transcript.flush();
+		}
+		if (transcript.checkError()) {
+			throw new IOException("The transcript could not be written.");
+		}
+		return Arrays.copyOf(latencies, commands);
+	}
+
+	/**
+	 * @param line
+	 *            a line of the script
+	 * @param index
+	 *            the index of the line
+	 * @return the index of the option chosen in the line
+	 * @throws IOException
+	 *             if the line is not the number of an option
+	 */
+	private int parseOption(String line, int index) throws IOException {
+		try {
+			int option = Integer.parseInt(line.trim()) - 1;
+			if (option >= 0 && option < options.size()) {
+				return option;
+			}
+		} catch (NumberFormatException e) {
+			// Handled below
+		}
+		throw new IOException("Line " + (index + 1) + " must be the number of an option: " + line);
+	}
+
+	@Override
+	public void exitIO() {
+		// Nothing to exit
+	}
+
+	@Override
+	public void println(String output) {
+		transcript.println(output);
+	}
+
+	@Override
+	public void println(String output, Color bgColor, Color fgColor) {
+		transcript.println("[" + fgColor + " on " + bgColor + "] " + output);
+	}
+
+	@Override
+	public void clear() {
+		// The transcript is not cleared
+	}
+
+	@Override
+	public void enterOptionMode(OptionIOManager optionIOManager, List<String> options) {
+		this.optionIOManager = optionIOManager;
+		setOptions(options);
+	}
+
+	@Override
+	public void exitOptionMode() {
+		this.optionIOManager = null;
+		this.options = null;
+	}
+
+	@Override
+	public void setOptions(List<String> options) {
+		this.options = options;
+		for (int i = 0; i < options.size(); i++) {
+			transcript.println((i + 1) + ") " + options.get(i));
+		}
+	}
+
+	@Override
+	public void showMenu(boolean gameRunning) {
+		// There is no menu, the game can only end
+		if (!gameRunning) {
+			ended = true;
+		}
+	}
+}
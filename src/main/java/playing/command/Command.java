@@ -1,6 +1,6 @@
 package playing.command;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -11,8 +11,7 @@ import persistence.PersistenceManager;
 import playing.GamePlayer;
 import playing.InputOutput;
 import playing.PlaceholderReplacer;
-import playing.parser.PatternGenerator;
-import playing.parser.PatternGenerator.MultiPattern;
+import playing.parser.CommandCache;
 
 /**
  * Abstract class for all commands.
@@ -28,19 +27,15 @@ public abstract class Command {
 	protected final int numberOfParameters;
 
 	/**
-	 * The pattern for recognizing the commandType.
-	 */
-	protected final MultiPattern pattern;
-
-	/**
-	 * The pattern for recognizing with additional commands.
+	 * The textual commands.
 	 */
-	protected final MultiPattern additionalCommandsPattern;
+	protected final List<String> textualCommands;
 
 	/**
-	 * The textual commands.
+	 * The additional commands, defined anywhere in the game. Shared by all
+	 * games of the game definition and must not be modified.
 	 */
-	protected final List<String> textualCommands;
+	protected final List<String> additionalTextualCommands;
 
 	/**
 	 * The help text for this commandType.
@@ -86,15 +81,29 @@ public abstract class Command {
 
 		this.commandHelpText = getHelpText();
 		this.textualCommands = getCommands();
-		this.pattern = PatternGenerator.getPattern(textualCommands);
-		Set<String> commands;
+		this.additionalTextualCommands = obtainAdditionalCommands(gamePlayer.getCommandCache());
+	}
+
+	/**
+	 * Obtains the additional commands from the cache, querying them only if
+	 * no other game of the game definition has done that before.
+	 * 
+	 * @param commandCache
+	 *            the cache of the game definition
+	 * @return the additional commands
+	 */
+	private List<String> obtainAdditionalCommands(CommandCache commandCache) {
+		List<String> commands = commandCache.getAdditionalCommands(getClass());
+		if (commands != null) {
+			return commands;
+		}
 		try {
-			commands = getAdditionalCommands();
+			return commandCache.putAdditionalCommands(getClass(), new ArrayList<>(getAdditionalCommands()));
 		} catch (DBClosedException e) {
+			// Not stored, so that the next game can try again
 			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Operating on a closed DB");
-			commands = new HashSet<>();
+			return new ArrayList<>();
 		}
-		this.additionalCommandsPattern = PatternGenerator.getPattern(commands);
 	}
 
 	/**
@@ -134,6 +143,20 @@ public abstract class Command {
 		return textualCommands;
 	}
 
+	/**
+	 * @return the additional textual commands. Must not be modified.
+	 */
+	public List<String> getAdditionalTextualCommands() {
+		return additionalTextualCommands;
+	}
+
+	/**
+	 * @return the number of parameters the command expects
+	 */
+	public int getNumberOfParameters() {
+		return numberOfParameters;
+	}
+
 	/**
 	 * Creates a new command execution which can be used for further testing and
 	 * executing of the actual command with the given input.
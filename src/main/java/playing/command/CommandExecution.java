@@ -10,6 +10,7 @@ import data.interfaces.Inspectable;
 import exception.DBClosedException;
 import exception.DBIncompatibleException;
 import persistence.InspectableObjectManager;
+import playing.parser.CommandMatcher.CommandMatch;
 import playing.parser.GeneralParser;
 import playing.parser.Parameter;
 
@@ -17,7 +18,7 @@ import playing.parser.Parameter;
  * A particular execution of a command. This class has internal states and its
  * methods must be called in a particular sequence.
  * 
- * {@link #matches()} has to be called first. If that returns {@code true},
+ * {@link #setMatch(CommandMatch)} has to be called first.
  * {@link #hasObjects()} may be called next. Following {@link #execute()} may be
  * called last.
  * 
@@ -29,10 +30,9 @@ public abstract class CommandExecution {
 	protected final Command command;
 	protected final String input;
 
-	// Set during matches():
-	protected boolean isMatch;
+	// Set during setMatch():
 	protected boolean originalCommand;
-	protected Matcher usedMatcher;
+	protected String usedPattern;
 	protected Parameter[] parameters;
 
 	// Set during hasObjects():
@@ -53,38 +53,21 @@ public abstract class CommandExecution {
 	}
 
 	/**
-	 * Tests whether this command matches the provided input. Must only be
-	 * called once and as the first method after construction. If this returns
-	 * {@code false}, no further methods must be called on this object.
+	 * Applies the result of recognizing the command in the provided input. Must
+	 * only be called once and as the first method after construction.
 	 * 
-	 * @return if the command matches the input.
+	 * @param match
+	 *            the match of this execution's command
 	 */
-	public boolean matches() {
-		Matcher matcher = command.pattern.matcher(input);
-		Matcher additionalCommandsMatcher = command.additionalCommandsPattern.matcher(input);
-
-		if (matcher.matches()) {
-			isMatch = true;
-			originalCommand = true;
-			usedMatcher = matcher;
-		} else if (additionalCommandsMatcher.matches()) {
-			isMatch = true;
-			originalCommand = false;
-			usedMatcher = additionalCommandsMatcher;
-		}
-
-		// Either a normal or an additional commandType matched
-		if (isMatch) {
-			parameters = getParameters(usedMatcher, command.numberOfParameters);
-			return true;
-		}
-		// This commandType did not match
-		return false;
+	public void setMatch(CommandMatch match) {
+		originalCommand = match.isOriginalCommand();
+		usedPattern = match.getPattern();
+		parameters = match.getParameters();
 	}
 
 	/**
-	 * Must only be called after {@link #matches()} was called and returned
-	 * {@code true}. Must only be called once.
+	 * Must only be called after {@link #setMatch(CommandMatch)} was called.
+	 * Must only be called once.
 	 * 
 	 * Tests if the command finds all objects that it needs to execute. If
 	 * {@code false}, the command may still execute, but an error message will
@@ -133,7 +116,7 @@ public abstract class CommandExecution {
 	 * replacer correctly for subsequent output.
 	 */
 	protected void configureReplacer() {
-		command.gamePlayer.getCurrentReplacer().setPattern(usedMatcher.pattern().toString());
+		command.gamePlayer.getCurrentReplacer().setPattern(usedPattern);
 		if (command.numberOfParameters >= 1) {
 			String identifier = parameters[0].getIdentifier();
 			command.currentReplacer.setIdentifier(identifier);
@@ -161,6 +144,22 @@ public abstract class CommandExecution {
 	 * @return an array with the typed parameters
 	 */
 	public static Parameter[] getParameters(Matcher matcher, int numberOfParameters) {
+		return getParameters(matcher, numberOfParameters, "");
+	}
+
+	/**
+	 * Extracts the used parameters from a given matcher, whose parameter
+	 * capturing group names all start with the given prefix.
+	 *
+	 * @param matcher
+	 *            the matcher that must have matched an input
+	 * @param numberOfParameters
+	 *            the expected number of parameters
+	 * @param groupPrefix
+	 *            the prefix of the capturing group names
+	 * @return an array with the typed parameters
+	 */
+	public static Parameter[] getParameters(Matcher matcher, int numberOfParameters, String groupPrefix) {
 		/*
 		 * By convention, all capturing groups that denote parameters must be
 		 * named with o0, o1, o2, and so on, without leaving gaps. This can be
@@ -173,7 +172,7 @@ public abstract class CommandExecution {
 			for (int i = 0; i < numberOfParameters; i++) {
 				String groupName = "o" + i;
 				String identifier;
-				if ((identifier = matcher.group(groupName)) != null) {
+				if ((identifier = matcher.group(groupPrefix + groupName)) != null) {
 					parameters.add(new Parameter(identifier, groupName));
 				} else {
 					break;
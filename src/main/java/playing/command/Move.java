@@ -6,13 +6,18 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import data.Game;
+import data.Location;
+import data.Player;
+import data.Way;
 import data.interfaces.Travelable;
 import exception.DBClosedException;
 import playing.GamePlayer;
-import playing.parser.PatternGenerator;
 
 /**
- * Command to move to another location.
+ * Command to move to another location. If no way out of the current location
+ * matches, the player travels to the nearest location with the given name, if
+ * it is reachable over enabled ways. Only locations the player has already
+ * been to are entered on the way, so nothing unknown is revealed.
  * 
  * @author Satia
  */
@@ -56,6 +61,9 @@ public class Move extends Command {
 		/** The way to move by */
 		private Travelable way;
 
+		/** The ways to travel to a location further away, if no way matches */
+		private List<Way> route;
+
 		/**
 		 * @param input
 		 *            the user input
@@ -68,9 +76,61 @@ public class Move extends Command {
 		public boolean hasObjects() {
 			Game game = gamePlayer.getGame();
 			String identifier = parameters[0].getIdentifier();
-			way = persistenceManager.getWayManager().getWayOutFromLocation(game.getPlayer()
-					.getLocation(), identifier);
-			return way != null;
+			Player player = game.getPlayer();
+			Location location = player.getLocation();
+			way = persistenceManager.getWayManager().getWayOutFromLocation(location, identifier);
+			route = null;
+			if (way == null && originalCommand) {
+				try {
+					route = persistenceManager.getLocationManager().getWorldGraph().findPath(location,
+							l -> l != location && identifier.equalsIgnoreCase(l.getName()), player::hasVisited,
+							true);
+				} catch (DBClosedException e) {
+					Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Operating on a closed DB", e);
+				}
+			}
+			return way != null || route != null;
+		}
+
+		/**
+		 * Travels over the ways of the route, one after another, printing the
+		 * same as if each way was taken by a move command. Stops if a way is
+		 * not enabled, the game ended, or the player is moved somewhere else.
+		 * 
+		 * @param game
+		 *            the game
+		 */
+		private void travelRoute(Game game) {
+			Logger.getLogger(this.getClass().getName()).log(Level.FINER,
+					"Move over {0} ways", route.size());
+
+			for (Way step : route) {
+				if (game.getHasEnded() || game.getPlayer().getLocation() != step.getOrigin()) {
+					break;
+				}
+				currentReplacer.setName(step.getName());
+				if (!step.isMovingEnabled()) {
+					// Disabled after the route was found
+					String message = step.getMoveForbiddenText();
+					if (message == null) {
+						message = game.getNotTravelableText();
+					}
+					io.println(currentReplacer.replacePlaceholders(message),
+							game.getFailedBgColor(), game.getFailedFgColor());
+					step.travel(game);
+					break;
+				}
+				String message = step.getMoveSuccessfulText();
+				if (message != null) {
+					io.println(currentReplacer.replacePlaceholders(message),
+							game.getSuccessfullBgColor(),
+							game.getSuccessfullFgColor());
+				}
+				io.println(currentReplacer.replacePlaceholders(step
+						.getDestination().getEnteredText()), game
+						.getNeutralBgColor(), game.getNeutralFgColor());
+				step.travel(game);
+			}
 		}
 
 		@Override
@@ -93,7 +153,7 @@ public class Move extends Command {
 				if (!originalCommand) {
 					// Check if the additional command belongs the the chosen
 					// usable
-					if (!PatternGenerator
+					if (!gamePlayer.getPatternCache()
 							.getPattern(way.getAdditionalMoveCommands())
 							.matcher(currentReplacer.getInput()).matches()) {
 						// no match
@@ -134,6 +194,8 @@ public class Move extends Command {
 				}
 				// Effect depends on enabled status and additional actions
 				way.travel(game);
+			} else if (route != null) {
+				travelRoute(game);
 			} else {
 				Logger.getLogger(this.getClass().getName()).log(Level.FINER,
 						"Move way not found {0}", identifier);
@@ -9,7 +9,6 @@ import data.Game;
 import data.interfaces.Takeable;
 import exception.DBClosedException;
 import playing.GamePlayer;
-import playing.parser.PatternGenerator;
 
 /**
  * Command to take an item.
@@ -94,7 +93,7 @@ public class Take extends Command {
 					if (!originalCommand) {
 						// Check if the additional command belongs the the chosen
 						// usable
-						if (!PatternGenerator
+						if (!gamePlayer.getPatternCache()
 								.getPattern(item.getAdditionalTakeCommands())
 								.matcher(currentReplacer.getInput()).matches()) {
 							// no match
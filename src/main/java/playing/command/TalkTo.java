@@ -10,7 +10,6 @@ import data.interfaces.HasConversation;
 import exception.DBClosedException;
 import playing.ConversationPlayer;
 import playing.GamePlayer;
-import playing.parser.PatternGenerator;
 
 /**
  * Command to talk to a person.
@@ -91,7 +90,7 @@ public class TalkTo extends Command {
 					if (!originalCommand) {
 						// Check if the additional command belongs the the chosen
 						// usable
-						if (!PatternGenerator.getPattern(person.getAdditionalTalkToCommands())
+						if (!gamePlayer.getPatternCache().getPattern(person.getAdditionalTalkToCommands())
 								.matcher(currentReplacer.getInput()).matches()) {
 							// no match
 							String message = game.getNotTalkingToEnabledText();
@@ -106,8 +105,7 @@ public class TalkTo extends Command {
 								person.getId());
 
 						// Start the conversation
-						new ConversationPlayer(io, game, person.getConversation(), person.getName(),
-								gamePlayer.getMenuShower());
+						new ConversationPlayer(gamePlayer, person.getConversation(), person.getName());
 					} else {
 						Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Talk to {0} disabled",
 								person.getId());
@@ -9,7 +9,6 @@ import data.Game;
 import data.interfaces.Usable;
 import exception.DBClosedException;
 import playing.GamePlayer;
-import playing.parser.PatternGenerator;
 
 /**
  * The command to use one object.
@@ -90,7 +89,7 @@ public class Use extends Command {
 					if (!originalCommand) {
 						// Check if the additional command belongs to the
 						// chosen usable
-						if (!PatternGenerator.getPattern(object.getAdditionalUseCommands())
+						if (!gamePlayer.getPatternCache().getPattern(object.getAdditionalUseCommands())
 								.matcher(currentReplacer.getInput()).matches()) {
 							// no match
 							String message = game.getNotUsableText();
@@ -5,6 +5,7 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import data.CombinationIndex;
 import data.Game;
 import data.InventoryItem;
 import data.interfaces.Combinable;
@@ -14,7 +15,6 @@ import exception.DBClosedException;
 import persistence.InventoryItemManager;
 import playing.GamePlayer;
 import playing.PlaceholderReplacer;
-import playing.parser.PatternGenerator;
 
 /**
  * The command to use one object with something or to combine two objects.
@@ -84,6 +84,13 @@ public class UseWithCombine extends Command {
 		public void execute() {
 			configureReplacer();
 			Game game = gamePlayer.getGame();
+			CombinationIndex index;
+			try {
+				index = persistenceManager.getInventoryItemManager().getCombinationIndex();
+			} catch (DBClosedException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Operating on a closed DB", e);
+				return;
+			}
 			String identifier1 = parameters[0].getIdentifier();
 			String identifier2 = parameters[1].getIdentifier();
 			
@@ -101,10 +108,10 @@ public class UseWithCombine extends Command {
 					// The rawtype can be used since we know they're the same type
 
 					// Combine
-					combine(originalCommand, (Combinable) object1, (Combinable) object2, game);
+					combine(originalCommand, (Combinable) object1, (Combinable) object2, game, index);
 				} else if (object1 instanceof UsableWithSomething && object2 instanceof PassivelyUsable) {
 					// UseWith
-					useWith(originalCommand, (UsableWithSomething) object1, (PassivelyUsable) object2, game);
+					useWith(originalCommand, (UsableWithSomething) object1, (PassivelyUsable) object2, game, index);
 				} else if (object2 != null) {
 					// Error: Object2 not of correct type
 					Logger.getLogger(this.getClass().getName()).log(Level.FINER,
@@ -167,12 +174,15 @@ public class UseWithCombine extends Command {
 		 *            the second item
 		 * @param game
 		 *            the game
+		 * @param index
+		 *            the index of all combinations
 		 */
-		private <E> void combine(boolean originalCommand, Combinable<E> item1, Combinable<E> item2, Game game) {
+		private void combine(boolean originalCommand, Combinable<InventoryItem> item1, Combinable<InventoryItem> item2,
+				Game game, CombinationIndex index) {
 			if (!originalCommand) {
 				// Check if the additional command belongs the the chosen
 				// item1 with item2 (not vice versa!)
-				if (!PatternGenerator.getPattern(item1.getAdditionalCombineCommands(item2))
+				if (!gamePlayer.getPatternCache().getPattern(index.getAdditionalCombineCommands(item1, item2))
 						.matcher(currentReplacer.getInput()).matches()) {
 					// no match
 					String message = game.getNotUsableWithText();
@@ -182,12 +192,12 @@ public class UseWithCombine extends Command {
 				}
 			}
 
-			if (item1.isCombiningEnabledWith(item2)) {
+			if (index.isCombiningEnabled(item1, item2)) {
 				Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Combine enabled id {0} with {1}",
 						new Object[] { item1.getId(), item2.getId() });
 
 				// Combining was successful
-				String message = item1.getCombineWithSuccessfulText(item2);
+				String message = index.getCombineWithSuccessfulText(item1, item2);
 				if (message == null) {
 					message = game.getUsedWithText();
 				}
@@ -198,14 +208,14 @@ public class UseWithCombine extends Command {
 						new Object[] { item1.getId(), item2.getId() });
 
 				// Combining was not successful
-				String message = item1.getCombineWithForbiddenText(item2);
+				String message = index.getCombineWithForbiddenText(item1, item2);
 				if (message == null) {
 					message = game.getNotUsableWithText();
 				}
 				io.println(currentReplacer.replacePlaceholders(message), game.getFailedBgColor(), game.getFailedFgColor());
 			}
 			// Effect depends on enabled status and additional actions
-			item1.combineWith(item2, game);
+			index.combine(item1, item2, game);
 		}
 
 		/**
@@ -219,12 +229,15 @@ public class UseWithCombine extends Command {
 		 *            the object
 		 * @param game
 		 *            the game
+		 * @param index
+		 *            the index of all combinations
 		 */
-		private void useWith(boolean originalCommand, UsableWithSomething usable, PassivelyUsable object, Game game) {
+		private void useWith(boolean originalCommand, UsableWithSomething usable, PassivelyUsable object, Game game,
+				CombinationIndex index) {
 			if (!originalCommand) {
 				// Check if the additional command belongs the the chosen
 				// usable with object.
-				if (!PatternGenerator.getPattern(usable.getAdditionalUseWithCommands(object))
+				if (!gamePlayer.getPatternCache().getPattern(index.getAdditionalUseWithCommands(usable, object))
 						.matcher(currentReplacer.getInput()).matches()) {
 					// no match
 					String message = game.getNotUsableWithText();
@@ -234,12 +247,12 @@ public class UseWithCombine extends Command {
 				}
 			}
 
-			if (usable.isUsingEnabledWith(object)) {
+			if (index.isUsingEnabled(usable, object)) {
 				Logger.getLogger(this.getClass().getName()).log(Level.FINEST, "Usewith enabled id {0} with {1}",
 						new Object[] { usable.getId(), object.getId() });
 
 				// Using was successful
-				String message = usable.getUseWithSuccessfulText(object);
+				String message = index.getUseWithSuccessfulText(usable, object);
 				if (message == null) {
 					message = game.getUsedWithText();
 				}
@@ -250,14 +263,14 @@ public class UseWithCombine extends Command {
 						new Object[] { usable.getId(), object.getId() });
 
 				// Using was not successful
-				String message = usable.getUseWithForbiddenText(object);
+				String message = index.getUseWithForbiddenText(usable, object);
 				if (message == null) {
 					message = game.getNotUsableWithText();
 				}
 				io.println(currentReplacer.replacePlaceholders(message), game.getFailedBgColor(), game.getFailedFgColor());
 			}
 			// Effect depends on additional actions
-			usable.useWith(object, game);
+			index.useWith(usable, object, game);
 		}
 
 	}
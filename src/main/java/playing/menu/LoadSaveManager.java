@@ -1,19 +1,26 @@
 package playing.menu;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.apache.commons.io.FileUtils;
-
+import persistence.Journal;
 import persistence.PersistenceManager;
+import persistence.SaveGameDelta;
+import persistence.TempDB;
 import playing.GamePlayer;
+import playing.JournalReplayer;
 import configuration.PropertiesReader;
 import exception.DBClosedException;
 import exception.DBIncompatibleException;
@@ -38,6 +45,22 @@ public class LoadSaveManager implements MenuShower, LoaderSaver {
 	 */
 	public static final String H2_ENDING = ".mv.db";
 
+	/**
+	 * The ending of savegames only storing the differences to the game db.
+	 */
+	public static final String DELTA_ENDING = ".delta";
+
+	/**
+	 * The ending of savegames recording the input since a snapshot.
+	 */
+	public static final String JOURNAL_ENDING = ".journal";
+
+	/**
+	 * The name of the journal of the running game, without the ending. After a
+	 * crash, the game can be restored by loading it.
+	 */
+	public static final String RECOVERY_NAME = "recovery";
+
 	/**
 	 * The main menu
 	 */
@@ -54,15 +77,44 @@ public class LoadSaveManager implements MenuShower, LoaderSaver {
 	private URL file;
 
 	/**
-	 * The file temporarily used to play the game.
+	 * The db temporarily used to play the game, without the ending.
+	 */
+	private String tempDB;
+
+	/**
+	 * An unmodified copy of the game db to compare with when saving, without
+	 * the ending. Created on the first save after loading.
+	 */
+	private String baseDB;
+
+	/**
+	 * The checksum of the game db. Computed on the first delta save or load.
 	 */
-	private File tempFile;
+	private Long baseChecksum;
+
+	/**
+	 * The ids of the objects that may differ between the temp db and the game
+	 * db, without those changed by the running game. {@code null} if unknown,
+	 * because a full copy of a savegame was loaded.
+	 */
+	private Set<Integer> changedIds;
 
 	/**
 	 * The directory of the save games.
 	 */
 	private String saveGamesDir;
 
+	/**
+	 * The journal of the running game, or {@code null}.
+	 */
+	private Journal journal;
+
+	/**
+	 * A snapshot is taken and the journal restarted after this number of
+	 * commands. 0 disables the journal.
+	 */
+	private int journalSnapshotCommands;
+
 	/**
 	 * The name of the game.
 	 */
@@ -105,12 +157,14 @@ public class LoadSaveManager implements MenuShower, LoaderSaver {
 	}
 
 	private void init() {
+		this.journalSnapshotCommands = Integer
+				.parseInt(PropertiesReader.getProperty(PropertiesReader.JOURNAL_SNAPSHOT_COMMANDS_PROPERTY));
+
 		// Obtain the name of the game
-		File tFile = copyToTempDB(file);
-		// Connect
-		String path = tFile.getAbsolutePath();
 		try {
-			this.persistenceManager.connect(path.substring(0, path.length() - H2_ENDING.length()), false);
+			tempDB = TempDB.copy(file);
+			// Connect
+			this.persistenceManager.connect(tempDB, false);
 			this.gameName = persistenceManager.getGameManager().getGameTitle();
 		} catch (DBIncompatibleException | IOException | DBClosedException e) {
 			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Aborting init.", e);
@@ -178,61 +232,86 @@ public class LoadSaveManager implements MenuShower, LoaderSaver {
 
 	}
 
-	/**
-	 * Tries to copy the db file to a temp file.
-	 * 
-	 * @param file
-	 *            the original file.
-	 * @return the temp file.
-	 */
-	private File copyToTempDB(URL file) {
-		// Copy to temp file
-		try {
-			Path tempFile = Files.createTempFile("tam", H2_ENDING);
+	@Override
+	public void showMenu(boolean gameRunning) {
+		// The player may quit from the menu
+		persistenceManager.commitDeferredChanges();
+		mainMenu.show(gameRunning);
+	}
 
-			FileUtils.copyURLToFile(file, tempFile.toFile());
-			return tempFile.toFile();
-		} catch (IOException e) {
-			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not copy db file.", e);
-			return null;
-		}
+	@Override
+	public String getSaveGamesDir() {
+		return saveGamesDir;
 	}
 
 	/**
-	 * Tries to copy the temp db file to a file. Only logs if that fails.
-	 * 
-	 * @param file
-	 *            the file to copy to.
+	 * @return the checksum of the game db
+	 * @throws IOException
+	 *             if the game db cannot be read
 	 */
-	private void copyFromTempDB(File file) {
-		// Copy to temp file
-		try {
-			Files.copy(tempFile.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-		} catch (IOException e) {
-			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not copy db file when saving.", e);
+	private long getBaseChecksum() throws IOException {
+		if (baseChecksum == null) {
+			baseChecksum = SaveGameDelta.checksum(file);
 		}
+		return baseChecksum;
 	}
 
-	@Override
-	public void showMenu(boolean gameRunning) {
-		mainMenu.show(gameRunning);
+	/**
+	 * @return the ids of the objects that may differ between the temp db and
+	 *         the game db, or {@code null} if unknown
+	 */
+	private Set<Integer> getChangedIds() {
+		if (changedIds == null) {
+			return null;
+		}
+		Set<Integer> result = new HashSet<>(changedIds);
+		result.addAll(persistenceManager.getChangedIds());
+		return result;
 	}
 
-	@Override
-	public String getSaveGamesDir() {
-		return saveGamesDir;
+	/**
+	 * @return an unmodified copy of the game db, without the ending
+	 * @throws IOException
+	 *             if the game db cannot be copied
+	 */
+	private String getBaseDB() throws IOException {
+		if (baseDB == null) {
+			baseDB = TempDB.copy(this.file);
+		}
+		return baseDB;
 	}
 
 	@Override
 	public void newGame() throws LoadSaveException {
 		// "Load" the new file
-		load(file);
+		load(file, new byte[0], Collections.emptyList());
 	}
 
 	@Override
 	public void load(File file) throws LoadSaveException {
+		if (file.getName().endsWith(DELTA_ENDING) || file.getName().endsWith(JOURNAL_ENDING)) {
+			byte[] snapshot;
+			List<Journal.Entry> entries;
+			try {
+				if (file.getName().endsWith(DELTA_ENDING)) {
+					snapshot = Files.readAllBytes(file.toPath());
+					entries = Collections.emptyList();
+				} else {
+					Journal savedJournal = Journal.read(file, getBaseChecksum());
+					snapshot = savedJournal.getSnapshot();
+					entries = savedJournal.getEntries();
+				}
+			} catch (IOException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Error loading", e);
+				gamePlayer.getIo().println(e.getMessage());
+				throw new LoadSaveException(e);
+			}
+			// Apply the differences to the game db
+			load(this.file, snapshot, entries);
+			return;
+		}
 		try {
-			load(file.toURI().toURL());
+			load(file.toURI().toURL(), null, Collections.emptyList());
 		} catch (MalformedURLException e) {
 			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Malformed file URL.", e);
 		}
@@ -243,18 +322,38 @@ public class LoadSaveManager implements MenuShower, LoaderSaver {
 	 * 
 	 * @param file
 	 *            the file to load.
+	 * @param snapshot
+	 *            a delta savegame to apply to the file before loading, empty
+	 *            if there is none or {@code null} if the file is a full copy
+	 *            of a savegame.
+	 * @param entries
+	 *            journal entries to replay after applying the snapshot
 	 */
-	private void load(URL file) throws LoadSaveException {
+	private void load(URL file, byte[] snapshot, List<Journal.Entry> entries) throws LoadSaveException {
 		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "New game/Load game");
 
 		// Disconnect from old db
 		persistenceManager.disconnect();
-		// Copy file to a temp db
-		tempFile = copyToTempDB(file);
-		// Connect
-		String path = tempFile.getAbsolutePath();
+		stopJournal();
+		TempDB.delete(tempDB);
+		tempDB = null;
+		TempDB.delete(baseDB);
+		baseDB = null;
 		try {
-			persistenceManager.connect(path.substring(0, path.length() - H2_ENDING.length()), false);
+			// Copy file to a temp db
+			tempDB = TempDB.copy(file);
+			changedIds = snapshot == null ? null : new HashSet<>();
+			if (snapshot != null && snapshot.length > 0) {
+				changedIds.addAll(SaveGameDelta.apply(new ByteArrayInputStream(snapshot), getBaseChecksum(), tempDB));
+			}
+			if (!entries.isEmpty()) {
+				Set<Integer> replayedIds = JournalReplayer.replay(tempDB, entries);
+				if (changedIds != null) {
+					changedIds.addAll(replayedIds);
+				}
+			}
+			// Connect
+			persistenceManager.connect(tempDB, false);
 			// Set the game for the game player
 			gamePlayer.setGame(persistenceManager.getGameManager().getGame());
 		} catch (DBIncompatibleException | IOException | DBClosedException e) {
@@ -264,45 +363,132 @@ public class LoadSaveManager implements MenuShower, LoaderSaver {
 			gamePlayer.getIo().println(e.getMessage());
 			throw new LoadSaveException(e);
 		}
+		startJournal(snapshot, entries);
 		// Start a game
 		gamePlayer.start();
 	}
 
 	/**
-	 * Disconnects, does something, reconnects.
+	 * Starts recording the input of the running game in the recovery journal.
 	 * 
-	 * @param doSth
-	 *            the thing to do in between. Not related to threads!
-	 * @param path
-	 *            the path to reconnect to
-	 * @throws IOException
-	 *             if reconnecting does not work
-	 * @throws DBIncompatibleException
-	 *             if the DB is too new
+	 * @param snapshot
+	 *            the snapshot the entries start from, empty for a new game or
+	 *            {@code null} to take one now.
+	 * @param entries
+	 *            the entries since the snapshot
 	 */
-	private void disconnectDoReconnect(Runnable doSth, String path) throws IOException, DBIncompatibleException {
-		// Disconnect
-		persistenceManager.disconnect();
-		// Do whatever
-		doSth.run();
-		// Reconnect to path
-		persistenceManager.connect(path, false);
+	private void startJournal(byte[] snapshot, List<Journal.Entry> entries) {
+		stopJournal();
+		if (journalSnapshotCommands <= 0) {
+			return;
+		}
+		try {
+			if (snapshot == null) {
+				persistenceManager.commitDeferredChanges();
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				changedIds = SaveGameDelta.write(getBaseDB(), getBaseChecksum(), tempDB, getChangedIds(), out);
+				snapshot = out.toByteArray();
+			}
+			journal = Journal.create(new File(saveGamesDir + RECOVERY_NAME + JOURNAL_ENDING), getBaseChecksum(),
+					snapshot, entries);
+			gamePlayer.setJournal(journal, this::snapshotPoint);
+		} catch (IOException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not start the journal", e);
+		}
+	}
+
+	/**
+	 * Stops recording the input of the running game.
+	 */
+	private void stopJournal() {
+		gamePlayer.setJournal(null, null);
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING, "Could not close the journal", e);
+			}
+			journal = null;
+		}
+	}
+
+	/**
+	 * Called by the game player whenever a snapshot can be taken. If the
+	 * journal has become too long, it is restarted with a snapshot of the
+	 * running game, so that replaying it stays fast.
+	 */
+	private void snapshotPoint() {
+		if (journal != null && journal.getLength() >= journalSnapshotCommands) {
+			Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Taking a snapshot");
+			startJournal(null, Collections.emptyList());
+		}
 	}
 
 	@Override
 	public void save(File file) throws LoadSaveException {
 		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Save game");
 
-		String path = tempFile.getAbsolutePath();
-		try {
-			disconnectDoReconnect(() -> copyFromTempDB(file), path.substring(0, path.length() - H2_ENDING.length()));
-			// We must set the reference to the game again
-			gamePlayer.setGame(persistenceManager.getGameManager().getGame());
-		} catch (DBIncompatibleException | IOException | DBClosedException e) {
-			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Error saving", e);
-			// Show some error message
-			gamePlayer.getIo().println(e.getMessage());
-			throw new LoadSaveException(e);
+		String name = file.getPath();
+		if (journal != null && name.endsWith(DELTA_ENDING)) {
+			// Copying the journal only takes time proportional to the progress
+			File journalFile = new File(name.substring(0, name.length() - DELTA_ENDING.length()) + JOURNAL_ENDING);
+			try {
+				journal.copyTo(journalFile);
+				return;
+			} catch (IOException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
+						"Could not save the journal. Saving the differences instead.", e);
+				journalFile.delete();
+			}
 		}
+
+		// Everything up to now must be in the saved file
+		persistenceManager.commitDeferredChanges();
+		if (name.endsWith(DELTA_ENDING)) {
+			try {
+				saveDelta(file);
+				return;
+			} catch (IOException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
+						"Could not save the differences. Saving a full copy instead.", e);
+				file.delete();
+				file = new File(name.substring(0, name.length() - DELTA_ENDING.length()) + H2_ENDING);
+			}
+		}
+		saveCopy(file);
+	}
+
+	/**
+	 * Saves the differences between the running game and the game db.
+	 * 
+	 * @param file
+	 *            the file to save to
+	 * @throws IOException
+	 *             if that does not work
+	 */
+	private void saveDelta(File file) throws IOException {
+		// No need to disconnect, the running game is only read
+		changedIds = SaveGameDelta.write(getBaseDB(), getBaseChecksum(), tempDB, getChangedIds(), file);
+	}
+
+	/**
+	 * Saves a copy of the running game in the background. The game stays
+	 * connected and the player can continue meanwhile. The main menu is
+	 * notified on the thread handling the input, after the copy is complete.
+	 * 
+	 * @param file
+	 *            the file to save to
+	 */
+	private void saveCopy(File file) {
+		Thread t = new Thread(() -> {
+			try {
+				persistenceManager.backup(file);
+				gamePlayer.runAfterInput(() -> mainMenu.saveFinished(file, null));
+			} catch (IOException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Error saving", e);
+				gamePlayer.runAfterInput(() -> mainMenu.saveFinished(file, e));
+			}
+		}, "Save " + file.getName());
+		t.start();
 	}
 }
@@ -146,10 +146,10 @@ public class MainMenu implements OptionIOManager {
 				}
 
 				// Save a file, with the current date and time
-				save(new File(ls.getSaveGamesDir() + getCurrentTimeString() + LoadSaveManager.H2_ENDING));
+				save(new File(ls.getSaveGamesDir() + getCurrentTimeString() + LoadSaveManager.DELTA_ENDING));
 			} else if (index == files.size()) {
 				// Save a file, with the current date and time
-				save(new File(ls.getSaveGamesDir() + getCurrentTimeString() + LoadSaveManager.H2_ENDING));
+				save(new File(ls.getSaveGamesDir() + getCurrentTimeString() + LoadSaveManager.DELTA_ENDING));
 			} else {
 				back();
 			}
@@ -186,17 +186,32 @@ public class MainMenu implements OptionIOManager {
 	 * Lists all filenames of the savegames. Also saves the files in
 	 * {@link #files}.
 	 * 
+	 * @param withRecovery
+	 *            if the journal of the running game should be listed
 	 * @return
 	 */
-	private List<String> listFiles() {
+	private List<String> listFiles(boolean withRecovery) {
 		List<String> options = new ArrayList<>();
 		this.files = new ArrayList<>();
 
 		for (File fileEntry : new File(ls.getSaveGamesDir()).listFiles()) {
 			String name = fileEntry.getName();
-			if (!fileEntry.isDirectory() && name.endsWith(LoadSaveManager.H2_ENDING)) {
+			if (fileEntry.isDirectory()) {
+				continue;
+			}
+			// Full copies and differences to the game db
+			if (name.endsWith(LoadSaveManager.H2_ENDING)) {
 				files.add(fileEntry);
 				options.add(name.substring(0, name.length() - LoadSaveManager.H2_ENDING.length()));
+			} else if (name.endsWith(LoadSaveManager.DELTA_ENDING)) {
+				files.add(fileEntry);
+				options.add(name.substring(0, name.length() - LoadSaveManager.DELTA_ENDING.length()));
+			} else if (name.endsWith(LoadSaveManager.JOURNAL_ENDING)) {
+				// The journal of the running game must not be overwritten
+				if (withRecovery || !name.equals(LoadSaveManager.RECOVERY_NAME + LoadSaveManager.JOURNAL_ENDING)) {
+					files.add(fileEntry);
+					options.add(name.substring(0, name.length() - LoadSaveManager.JOURNAL_ENDING.length()));
+				}
 			}
 		}
 		return options;
@@ -206,7 +221,7 @@ public class MainMenu implements OptionIOManager {
 	 * Shows the load menu.
 	 */
 	private void showLoadMenu() {
-		List<String> options = listFiles();
+		List<String> options = listFiles(true);
 		// Back option
 		options.add("Back");
 
@@ -218,7 +233,7 @@ public class MainMenu implements OptionIOManager {
 	 * Shows the save menu.
 	 */
 	private void showSaveMenu() {
-		List<String> options = listFiles();
+		List<String> options = listFiles(false);
 		// New file option
 		options.add("New file");
 		// Back option
@@ -283,6 +298,23 @@ public class MainMenu implements OptionIOManager {
 		}
 	}
 
+	/**
+	 * Called when a game that was saved in the background has been written
+	 * completely. Must be called on the thread handling the input.
+	 * 
+	 * @param file
+	 *            the saved file.
+	 * @param error
+	 *            the error if saving failed, or {@code null}.
+	 */
+	public void saveFinished(File file, IOException error) {
+		if (error == null) {
+			Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Saved game {0}", file);
+		} else {
+			io.println("The game could not be saved: " + error.getMessage());
+		}
+	}
+
 	@Override
 	public int getNumberOfOptionLines() {
 		return OPTION_LINES;
@@ -0,0 +1,97 @@
+package playing.parser;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import playing.command.Command;
+
+/**
+ * The parts of the commands that only depend on the game definition, since
+ * playing never changes them: the additional commands of each command type,
+ * the matcher recognizing all commands and the compiled patterns.
+ *
+ * Obtaining the additional commands needs a query per command type and the
+ * matcher compiles one alternation of all commands. Both are therefore only
+ * done once for all games played with the same cache, e.g. after loading
+ * another game state or in all sessions of a server.
+ *
+ * A cache must only be used by games of the same game definition. It may be
+ * used by many threads at once.
+ *
+ * @author Satia
+ */
+public class CommandCache {
+
+	/**
+	 * The compiled patterns.
+	 */
+	private final PatternCache patternCache;
+
+	/**
+	 * The additional commands of each command type.
+	 */
+	private final Map<Class<? extends Command>, List<String>> additionalCommands;
+
+	/**
+	 * The matcher for all commands, once built.
+	 */
+	private CommandMatcher commandMatcher;
+
+	/**
+	 * Creates an empty cache.
+	 */
+	public CommandCache() {
+		this.patternCache = new PatternCache();
+		this.additionalCommands = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @return the compiled patterns
+	 */
+	public PatternCache getPatternCache() {
+		return patternCache;
+	}
+
+	/**
+	 * @param type
+	 *            the type of the command
+	 * @return the additional commands of the command type or {@code null}, if
+	 *         they have not been stored yet
+	 */
+	public List<String> getAdditionalCommands(Class<? extends Command> type) {
+		return additionalCommands.get(type);
+	}
+
+	/**
+	 * Stores the additional commands of a command type, unless another game
+	 * has stored them in the meantime.
+	 *
+	 * @param type
+	 *            the type of the command
+	 * @param commands
+	 *            the additional commands
+	 * @return the stored additional commands. Must not be modified.
+	 */
+	public List<String> putAdditionalCommands(Class<? extends Command> type, List<String> commands) {
+		List<String> previous = additionalCommands.putIfAbsent(type, Collections.unmodifiableList(commands));
+		return previous != null ? previous : additionalCommands.get(type);
+	}
+
+	/**
+	 * Gets the matcher for the commands of a game, building it if necessary.
+	 *
+	 * @param commands
+	 *            the commands of a game of this definition, in the order of
+	 *            their priority. The commands of all games using this cache
+	 *            must be of the same types in the same order.
+	 * @return the matcher
+	 */
+	public synchronized CommandMatcher getCommandMatcher(List<Command> commands) {
+		if (commandMatcher == null) {
+			commandMatcher = new CommandMatcher(commands, patternCache);
+		}
+		return commandMatcher;
+	}
+}
@@ -0,0 +1,372 @@
+package playing.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import playing.command.Command;
+import playing.command.CommandExecution;
+
+/**
+ * Recognizes commands by matching the input against all command patterns of a
+ * game at once.
+ *
+ * The textual and additional commands of all {@link Command}s are compiled into
+ * one alternation. Each alternative is wrapped in a tagging capturing group and
+ * its named groups are prefixed with the tag, so that a successful match can be
+ * mapped back to the owning command, to whether it was an original or an
+ * additional command, and to the parameters typed by the player.
+ *
+ * The alternatives are ordered like the commands and, within each command,
+ * original commands come before additional commands. Since the regular
+ * expression engine tries the alternatives of an alternation in order, the
+ * first alternative matching the whole input is the same that the former
+ * pattern-by-pattern matching would have chosen.
+ *
+ * A matcher only keeps the patterns of the commands, not the commands
+ * themselves, so that it can be shared by all games of a game definition, see
+ * {@link CommandCache}. It may be used by many threads at once.
+ *
+ * @author Satia
+ */
+public class CommandMatcher {
+
+	/**
+	 * Matches the start of named capturing groups: {@literal (?<name>}
+	 */
+	private static final Pattern NAMED_GROUP_PATTERN = Pattern
+			.compile("(?<!\\\\)\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+
+	/**
+	 * Matches named back references: {@literal \k<name>}
+	 */
+	private static final Pattern NAMED_BACKREFERENCE_PATTERN = Pattern
+			.compile("(?<!\\\\)\\\\k<([a-zA-Z][a-zA-Z0-9]*)>");
+
+	/**
+	 * Matches numbered back references. These cannot be used inside a combined
+	 * pattern, since the group numbers are shifted.
+	 */
+	private static final Pattern NUMBERED_BACKREFERENCE_PATTERN = Pattern.compile("(?<!\\\\)\\\\[1-9]");
+
+	/**
+	 * The number of parameters of each command, in the order of their
+	 * priority.
+	 */
+	private final int[] numberOfParameters;
+
+	/**
+	 * For each command the index of its first alternative. Has one more entry
+	 * than there are commands, denoting the total number of alternatives.
+	 */
+	private final int[] firstAlternative;
+
+	/**
+	 * The original regular expression of each alternative.
+	 */
+	private final String[] sources;
+
+	/**
+	 * The index of the command each alternative belongs to.
+	 */
+	private final int[] commandIndex;
+
+	/**
+	 * If each alternative is an original or an additional command.
+	 */
+	private final boolean[] original;
+
+	/**
+	 * The rewritten and tagged regular expression of each alternative.
+	 */
+	private final String[] tagged;
+
+	/**
+	 * The number of the tagging group of each alternative, counted from the
+	 * first alternative. Has one more entry than there are alternatives.
+	 */
+	private final int[] groupOffset;
+
+	/**
+	 * The combined patterns of all alternatives belonging to command i or any
+	 * later command. Lazily compiled, since usually only the first is needed.
+	 */
+	private final AtomicReferenceArray<Pattern> combinedPatterns;
+
+	/**
+	 * The individually compiled patterns. Only used if the alternatives cannot
+	 * be combined.
+	 */
+	private final Pattern[] singlePatterns;
+
+	/**
+	 * The cache the patterns are compiled with.
+	 */
+	private final PatternCache patternCache;
+
+	/**
+	 * Builds a matcher for the given commands.
+	 *
+	 * @param commands
+	 *            the commands in the order of their priority
+	 * @param patternCache
+	 *            the cache to compile the patterns with. If the same commands
+	 *            have been matched before, nothing needs to be compiled.
+	 */
+	public CommandMatcher(List<Command> commands, PatternCache patternCache) {
+		this.numberOfParameters = new int[commands.size()];
+		this.patternCache = patternCache;
+		this.firstAlternative = new int[commands.size() + 1];
+
+		List<String> sourceList = new ArrayList<>();
+		List<Integer> commandList = new ArrayList<>();
+		List<Boolean> originalList = new ArrayList<>();
+		for (int i = 0; i < commands.size(); i++) {
+			firstAlternative[i] = sourceList.size();
+			Command command = commands.get(i);
+			numberOfParameters[i] = command.getNumberOfParameters();
+			for (String cmd : command.getTextualCommands()) {
+				sourceList.add(cmd);
+				commandList.add(i);
+				originalList.add(true);
+			}
+			for (String cmd : command.getAdditionalTextualCommands()) {
+				sourceList.add(cmd);
+				commandList.add(i);
+				originalList.add(false);
+			}
+		}
+		int size = sourceList.size();
+		firstAlternative[commands.size()] = size;
+
+		this.sources = sourceList.toArray(new String[size]);
+		this.commandIndex = new int[size];
+		this.original = new boolean[size];
+		this.tagged = new String[size];
+		this.groupOffset = new int[size + 1];
+		this.combinedPatterns = new AtomicReferenceArray<>(commands.size());
+
+		boolean combinable = true;
+		Pattern[] compiled = new Pattern[size];
+		for (int k = 0; k < size; k++) {
+			commandIndex[k] = commandList.get(k);
+			original[k] = originalList.get(k);
+			compiled[k] = patternCache.get(sources[k]);
+			tagged[k] = "(?<" + tag(k) + ">" + rewriteGroupNames(sources[k], tag(k)) + ")";
+			// The tagging group plus all groups inside the alternative
+			groupOffset[k + 1] = groupOffset[k] + 1 + compiled[k].matcher("").groupCount();
+
+			if (NUMBERED_BACKREFERENCE_PATTERN.matcher(sources[k]).find()) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
+						"Command {0} uses numbered back references. Commands are matched one by one.", sources[k]);
+				combinable = false;
+			}
+		}
+
+		if (combinable && size > 0) {
+			try {
+				combinedPatterns.set(0, compileCombined(0));
+			} catch (PatternSyntaxException e) {
+				Logger.getLogger(this.getClass().getName()).log(Level.WARNING,
+						"Could not combine the command patterns. Commands are matched one by one.", e);
+				combinable = false;
+			}
+		}
+		this.singlePatterns = combinable ? null : compiled;
+	}
+
+	/**
+	 * Finds the first command with an index of at least {@code fromCommand}
+	 * that matches the input.
+	 *
+	 * @param input
+	 *            the normalized input
+	 * @param fromCommand
+	 *            the index of the first command to consider
+	 * @return the match or {@code null}, if no further command matches.
+	 */
+	public CommandMatch match(String input, int fromCommand) {
+		if (fromCommand >= numberOfParameters.length || firstAlternative[fromCommand] == sources.length) {
+			return null;
+		}
+
+		if (singlePatterns != null) {
+			for (int k = firstAlternative[fromCommand]; k < sources.length; k++) {
+				Matcher m = singlePatterns[k].matcher(input);
+				if (m.matches()) {
+					return newMatch(k, m, "");
+				}
+			}
+			return null;
+		}
+
+		Matcher m = getCombinedPattern(fromCommand).matcher(input);
+		if (!m.matches()) {
+			return null;
+		}
+		int first = firstAlternative[fromCommand];
+		for (int k = first; k < sources.length; k++) {
+			if (m.start(groupOffset[k] - groupOffset[first] + 1) != -1) {
+				return newMatch(k, m, tag(k));
+			}
+		}
+		// Cannot happen: one of the tagging groups must have participated
+		return null;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the command
+	 * @return the combined pattern for all commands starting at the given one.
+	 */
+	private Pattern getCombinedPattern(int index) {
+		Pattern result = combinedPatterns.get(index);
+		if (result == null) {
+			// Compiling it twice in different threads does no harm
+			result = compileCombined(index);
+			combinedPatterns.set(index, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Compiles the alternation of all alternatives of the given and later
+	 * commands.
+	 *
+	 * @param index
+	 *            the index of the command
+	 * @return the combined pattern
+	 */
+	private Pattern compileCombined(int index) {
+		StringBuilder sb = new StringBuilder();
+		for (int k = firstAlternative[index]; k < tagged.length; k++) {
+			if (sb.length() != 0) {
+				sb.append('|');
+			}
+			sb.append(tagged[k]);
+		}
+		return patternCache.get(sb.toString());
+	}
+
+	/**
+	 * Creates the match for an alternative.
+	 *
+	 * @param k
+	 *            the index of the alternative
+	 * @param matcher
+	 *            the matcher that matched the input
+	 * @param groupPrefix
+	 *            the prefix of the named groups of this alternative inside the
+	 *            matcher
+	 * @return the match
+	 */
+	private CommandMatch newMatch(int k, Matcher matcher, String groupPrefix) {
+		return new CommandMatch(commandIndex[k], original[k], sources[k], CommandExecution.getParameters(matcher,
+				numberOfParameters[commandIndex[k]], groupPrefix));
+	}
+
+	/**
+	 * @param k
+	 *            the index of an alternative
+	 * @return the name of its tagging group
+	 */
+	private static String tag(int k) {
+		return "t" + k;
+	}
+
+	/**
+	 * Prefixes all named groups and named back references in a regular
+	 * expression.
+	 *
+	 * @param regex
+	 *            the regular expression
+	 * @param prefix
+	 *            the prefix
+	 * @return the rewritten regular expression
+	 */
+	private static String rewriteGroupNames(String regex, String prefix) {
+		String result = NAMED_GROUP_PATTERN.matcher(regex).replaceAll("(?<" + prefix + "$1>");
+		return NAMED_BACKREFERENCE_PATTERN.matcher(result).replaceAll("\\\\k<" + prefix + "$1>");
+	}
+
+	/**
+	 * The result of matching an input: the index of the command, whether an
+	 * original or an additional command matched, the matching regular
+	 * expression and the typed parameters.
+	 *
+	 * @author Satia
+	 */
+	public static class CommandMatch {
+
+		/**
+		 * The index of the command.
+		 */
+		private final int commandIndex;
+
+		/**
+		 * If an original command matched (or else an additional command).
+		 */
+		private final boolean originalCommand;
+
+		/**
+		 * The regular expression that matched.
+		 */
+		private final String pattern;
+
+		/**
+		 * The typed parameters.
+		 */
+		private final Parameter[] parameters;
+
+		/**
+		 * @param commandIndex
+		 *            the index of the command
+		 * @param originalCommand
+		 *            if an original command matched
+		 * @param pattern
+		 *            the regular expression that matched
+		 * @param parameters
+		 *            the typed parameters
+		 */
+		private CommandMatch(int commandIndex, boolean originalCommand, String pattern, Parameter[] parameters) {
+			this.commandIndex = commandIndex;
+			this.originalCommand = originalCommand;
+			this.pattern = pattern;
+			this.parameters = parameters;
+		}
+
+		/**
+		 * @return the index of the matched command
+		 */
+		public int getCommandIndex() {
+			return commandIndex;
+		}
+
+		/**
+		 * @return if an original command matched (or else an additional
+		 *         command)
+		 */
+		public boolean isOriginalCommand() {
+			return originalCommand;
+		}
+
+		/**
+		 * @return the regular expression that matched
+		 */
+		public String getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * @return the parameters
+		 */
+		public Parameter[] getParameters() {
+			return parameters;
+		}
+	}
+}
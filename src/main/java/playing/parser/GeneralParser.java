@@ -1,13 +1,15 @@
 package playing.parser;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import logging.Instrumentation;
+import logging.Instrumentation.Stage;
 import playing.GamePlayer;
 import playing.command.Command;
 import playing.command.CommandExecution;
+import playing.parser.CommandMatcher.CommandMatch;
 import playing.parser.PatternGenerator.MultiPattern;
 
 /**
@@ -27,6 +29,16 @@ public class GeneralParser {
 	 */
 	private final MultiPattern exitPattern;
 
+	/**
+	 * The commands of the game player.
+	 */
+	private final List<Command> commands;
+
+	/**
+	 * The matcher recognizing all commands.
+	 */
+	private final CommandMatcher commandMatcher;
+
 	/**
 	 * Initializes this parser.
 	 *
@@ -36,7 +48,24 @@ public class GeneralParser {
 	public GeneralParser(GamePlayer gamePlayer) {
 		this.gamePlayer = gamePlayer;
 		// Build exit pattern
-		exitPattern = PatternGenerator.getPattern(gamePlayer.getGame().getExitCommands());
+		exitPattern = gamePlayer.getPatternCache().getPattern(gamePlayer.getGame().getExitCommands());
+		// Build the combined pattern of all commands
+		commands = gamePlayer.getCommands();
+		commandMatcher = gamePlayer.getCommandCache().getCommandMatcher(commands);
+	}
+
+	/**
+	 * Normalizes an input before it is matched against the commands and
+	 * identifiers.
+	 *
+	 * @param input
+	 *            the input
+	 * @return the input trimmed, in lower case, without multiple spaces and
+	 *         without punctuation
+	 */
+	public static String normalize(String input) {
+		// Trimmed, lower case, no multiple spaces, no punctuation
+		return input.trim().toLowerCase().replaceAll("\\p{Blank}+", " ").replaceAll("\\p{Punct}", "");
 	}
 
 	/**
@@ -52,8 +81,9 @@ public class GeneralParser {
 	 */
 	public boolean parse(String input) {
 		Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Parsing input: {0}", input);
-		// Trimmed, lower case, no multiple spaces, no punctuation
-		input = input.trim().toLowerCase().replaceAll("\\p{Blank}+", " ").replaceAll("\\p{Punct}", "");
+		long start = Instrumentation.enter(Stage.NORMALIZATION);
+		input = normalize(input);
+		Instrumentation.exit(Stage.NORMALIZATION, start);
 
 		// Is it an exit commandType?
 		if (exitPattern.matcher(input).matches()) {
@@ -64,36 +94,83 @@ public class GeneralParser {
 		gamePlayer.getCurrentReplacer().reset();
 		gamePlayer.getCurrentReplacer().setInput(input);
 		
-		// Obtain all execution objects
-		List<CommandExecution> executions = new ArrayList<>();
-		for (Command command : gamePlayer.getCommands()) {
-			executions.add(command.newExecution(input));
-		}
-		
-		// See if they match and filter
-		for(int i = executions.size() - 1; i >= 0; i--) {
-			CommandExecution e = executions.get(i);
-			if(!e.matches()) {
-				executions.remove(i);
-			}
-		}
-		
-		for(CommandExecution e : executions) {
-			if(e.hasObjects()) {
-				e.execute();
+		/*
+		 * The matches are obtained one after another, in the order of the
+		 * commands. Usually the first matching command also finds its objects.
+		 */
+		CommandExecution firstExecution = null;
+		for (CommandMatch match = match(input, 0); match != null; match = match(input,
+				match.getCommandIndex() + 1)) {
+			CommandExecution e = commands.get(match.getCommandIndex()).newExecution(input);
+			e.setMatch(match);
+			if (hasObjects(e)) {
+				execute(e);
 				return true;
 			}
+			if (firstExecution == null) {
+				firstExecution = e;
+			}
 		}
-		
+
 		// No execution found matching objects
-		if(!executions.isEmpty()) {
+		if (firstExecution != null) {
 			// Let the first one execute anyhow, displaying an error message to the user
-			executions.get(0).execute();
+			execute(firstExecution);
 			return true;
 		}
-		
+
 		// No command matched
 		gamePlayer.noCommand();
 		return true;
 	}
+
+	/**
+	 * Obtains the next command matching the input, see
+	 * {@link CommandMatcher#match(String, int)}.
+	 *
+	 * @param input
+	 *            the normalized input
+	 * @param fromCommand
+	 *            the index of the first command to consider
+	 * @return the match or {@code null}
+	 */
+	private CommandMatch match(String input, int fromCommand) {
+		long start = Instrumentation.enter(Stage.MATCHING);
+		try {
+			return commandMatcher.match(input, fromCommand);
+		} finally {
+			Instrumentation.exit(Stage.MATCHING, start);
+		}
+	}
+
+	/**
+	 * Tests if a command execution finds all objects it needs.
+	 *
+	 * @param execution
+	 *            the execution
+	 * @return if the execution finds all objects
+	 */
+	private boolean hasObjects(CommandExecution execution) {
+		long start = Instrumentation.enter(Stage.OBJECT_LOOKUP);
+		try {
+			return execution.hasObjects();
+		} finally {
+			Instrumentation.exit(Stage.OBJECT_LOOKUP, start);
+		}
+	}
+
+	/**
+	 * Executes a command execution.
+	 *
+	 * @param execution
+	 *            the execution
+	 */
+	private void execute(CommandExecution execution) {
+		long start = Instrumentation.enter(Stage.EXECUTION);
+		try {
+			execution.execute();
+		} finally {
+			Instrumentation.exit(Stage.EXECUTION, start);
+		}
+	}
 }
@@ -0,0 +1,67 @@
+package playing.parser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import playing.parser.PatternGenerator.MultiPattern;
+
+/**
+ * Compiles each regular expression only once. Since compiled patterns are
+ * immutable and only depend on the regular expression, they can be shared by
+ * all commands and by all games of a game definition, see
+ * {@link CommandCache}. The cache may be used by many threads at once.
+ *
+ * The number of distinct regular expressions is limited by the commands
+ * defined in the game, so the cache does not need to evict anything.
+ *
+ * @author Satia
+ */
+public class PatternCache {
+
+	/**
+	 * The compiled patterns by their regular expression.
+	 */
+	private final Map<String, Pattern> patterns;
+
+	/**
+	 * Creates an empty cache.
+	 */
+	public PatternCache() {
+		this.patterns = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Gets the compiled pattern of a regular expression, compiling it if
+	 * necessary.
+	 *
+	 * @param regex
+	 *            the regular expression
+	 * @return the compiled pattern
+	 * @throws java.util.regex.PatternSyntaxException
+	 *             if the regular expression is invalid
+	 */
+	public Pattern get(String regex) {
+		return patterns.computeIfAbsent(regex, Pattern::compile);
+	}
+
+	/**
+	 * Builds a MultiPattern that will match any of the given commands. If the
+	 * list is empty the pattern will not match anything.
+	 *
+	 * @param cmds
+	 *            the valid commands
+	 * @return a MultiPattern for the commands.
+	 * @see PatternGenerator#getPattern(Collection)
+	 */
+	public MultiPattern getPattern(Collection<String> cmds) {
+		List<Pattern> result = new ArrayList<>(cmds.size());
+		for (String cmd : cmds) {
+			result.add(get(cmd));
+		}
+		return new MultiPattern(result);
+	}
+}
@@ -50,7 +50,7 @@ public class PatternGenerator {
 		 * @param patterns
 		 *            the patterns
 		 */
-		private MultiPattern(List<Pattern> patterns) {
+		MultiPattern(List<Pattern> patterns) {
 			this.patterns = patterns;
 		}
 
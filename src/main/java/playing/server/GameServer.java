@@ -0,0 +1,354 @@
+package playing.server;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import configuration.PropertiesReader;
+import exception.DBIncompatibleException;
+import persistence.PersistenceManager;
+import persistence.TempDB;
+import playing.menu.LoadSaveManager;
+import playing.parser.CommandCache;
+
+/**
+ * Hosts one game for many players over TCP. Each connection plays with its own
+ * {@link playing.GamePlayer}. The game definition is loaded only once and
+ * shared by all of them, see {@link PersistenceManager#connect(PersistenceManager)}.
+ * The protocol is line based, so that any telnet or netcat client can be used.
+ *
+ * All sockets are handled by a single selector thread. The commands of the
+ * sessions are executed by a small pool of worker threads, so that idle
+ * sessions only cost their socket and their game state.
+ *
+ * @author Satia
+ */
+public class GameServer {
+
+	/**
+	 * The port used if none is given.
+	 */
+	public static final int DEFAULT_PORT = 4000;
+
+	/**
+	 * The size of the buffer used to read from the sockets.
+	 */
+	private static final int READ_BUFFER_SIZE = 4096;
+
+	/**
+	 * The copy of the game db.
+	 */
+	private final String db;
+
+	/**
+	 * The persistence manager of the game definition, shared by all sessions.
+	 */
+	private final PersistenceManager definition;
+
+	/**
+	 * The commands of the game definition, shared by all sessions.
+	 */
+	private final CommandCache commandCache;
+
+	/**
+	 * The selector for all sockets.
+	 */
+	private final Selector selector;
+
+	/**
+	 * The server socket.
+	 */
+	private final ServerSocketChannel serverChannel;
+
+	/**
+	 * The threads executing the commands of the sessions.
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * Sessions with output to write or that want to be closed. Processed by the
+	 * selector thread.
+	 */
+	private final Queue<ServerSession> pendingSessions;
+
+	/**
+	 * The number of open sessions.
+	 */
+	private final AtomicInteger sessionCount;
+
+	/**
+	 * If the server is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Creates a server, loads the game and binds the server to the given port.
+	 * Call {@link #run()} to accept players.
+	 *
+	 * @param file
+	 *            the game db
+	 * @param port
+	 *            the port to listen on. If 0, any free port is used.
+	 * @param workerThreads
+	 *            the number of threads executing commands
+	 * @throws IOException
+	 *             if the game cannot be loaded or the port cannot be bound
+	 * @throws DBIncompatibleException
+	 *             if the game db is too new
+	 */
+	public GameServer(URL file, int port, int workerThreads) throws IOException, DBIncompatibleException {
+		// The game db is copied, since connecting may update it
+		this.db = TempDB.copy(file);
+		this.definition = new PersistenceManager();
+		try {
+			definition.connect(db, false);
+		} catch (IOException | DBIncompatibleException e) {
+			TempDB.delete(db);
+			throw e;
+		}
+
+		this.commandCache = new CommandCache();
+		this.pendingSessions = new ConcurrentLinkedQueue<>();
+		this.sessionCount = new AtomicInteger();
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = r -> {
+			Thread t = new Thread(r, "Game server worker " + threadNumber.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+		this.workers = Executors.newFixedThreadPool(workerThreads, threadFactory);
+
+		try {
+			this.selector = Selector.open();
+			this.serverChannel = ServerSocketChannel.open();
+			serverChannel.bind(new InetSocketAddress(port));
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			workers.shutdown();
+			definition.disconnect();
+			TempDB.delete(db);
+			throw e;
+		}
+		this.running = true;
+
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Game server listening on port {0}", getPort());
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * @return the number of open sessions
+	 */
+	public int getSessionCount() {
+		return sessionCount.get();
+	}
+
+	/**
+	 * @return the persistence manager of the game definition
+	 */
+	PersistenceManager getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * @return the commands of the game definition
+	 */
+	CommandCache getCommandCache() {
+		return commandCache;
+	}
+
+	/**
+	 * Accepts players and handles their sockets until {@link #stop()} is
+	 * called.
+	 *
+	 * @throws IOException
+	 *             if the selector fails
+	 */
+	public void run() throws IOException {
+		ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+		while (running) {
+			selector.select();
+
+			// Register interest in writing or close sessions
+			for (ServerSession session; (session = pendingSessions.poll()) != null;) {
+				session.updateSelection();
+			}
+
+			Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+			while (it.hasNext()) {
+				SelectionKey key = it.next();
+				it.remove();
+				if (!key.isValid()) {
+					continue;
+				}
+				if (key.isAcceptable()) {
+					accept();
+				} else {
+					ServerSession session = (ServerSession) key.attachment();
+					try {
+						if (key.isReadable()) {
+							readBuffer.clear();
+							int read = session.getChannel().read(readBuffer);
+							if (read == -1) {
+								session.disconnected();
+								continue;
+							}
+							readBuffer.flip();
+							session.received(readBuffer);
+						}
+						if (key.isValid() && key.isWritable()) {
+							session.write();
+						}
+					} catch (IOException e) {
+						Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Connection lost", e);
+						session.disconnected();
+					}
+				}
+			}
+		}
+
+		// Shut down
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() instanceof ServerSession) {
+				((ServerSession) key.attachment()).disconnected();
+			}
+		}
+		serverChannel.close();
+		selector.close();
+		workers.shutdown();
+		try {
+			workers.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		definition.disconnect();
+		TempDB.delete(db);
+	}
+
+	/**
+	 * Stops the server. All sessions are disconnected, their games are stopped
+	 * and {@link #run()} returns.
+	 */
+	public void stop() {
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * Accepts a new connection and starts a session for it.
+	 *
+	 * @throws IOException
+	 *             if the connection cannot be accepted
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+		ServerSession session = new ServerSession(this, channel, key);
+		key.attach(session);
+		sessionCount.incrementAndGet();
+
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "New session from {0}",
+				channel.getRemoteAddress());
+		// Loading the game takes a while and is done by a worker
+		session.schedule();
+	}
+
+	/**
+	 * Executes a task of a session on a worker thread.
+	 *
+	 * @param task
+	 *            the task
+	 */
+	void execute(Runnable task) {
+		workers.execute(task);
+	}
+
+	/**
+	 * Lets the selector thread update the selection of a session. Can be
+	 * called from any thread.
+	 *
+	 * @param session
+	 *            the session with output to write or that wants to be closed
+	 */
+	void requestSelectionUpdate(ServerSession session) {
+		pendingSessions.add(session);
+		selector.wakeup();
+	}
+
+	/**
+	 * Notifies the server that a session was closed.
+	 *
+	 * @param session
+	 *            the session
+	 */
+	void sessionClosed(ServerSession session) {
+		sessionCount.decrementAndGet();
+	}
+
+	/**
+	 * Starts a game server. The first argument is the port (default
+	 * {@value #DEFAULT_PORT}). If there is a second argument, it must be the
+	 * name of a game in the TextAdventureMaker directory. Otherwise the game db
+	 * in this JAR file is used.
+	 *
+	 * @param args
+	 *            the port and the game name, both optional
+	 */
+	public static void main(String[] args) {
+		// Initialize the logging
+		try {
+			Class.forName(logging.LoggingManager.class.getName());
+		} catch (ClassNotFoundException e) {
+			Logger.getLogger(GameServer.class.getName()).log(Level.SEVERE, "Could not initialize logging:", e);
+		}
+
+		try {
+			int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+			URL file;
+			if (args.length > 1) {
+				File f = new File(PropertiesReader.DIRECTORY + args[1] + LoadSaveManager.H2_ENDING);
+				if (!f.exists()) {
+					throw new FileNotFoundException("Game DB does not exist. File: " + f);
+				}
+				file = f.toURI().toURL();
+			} else {
+				file = GameServer.class.getClassLoader().getResource("game" + LoadSaveManager.H2_ENDING);
+				if (file == null) {
+					throw new FileNotFoundException("Game DB in JAR does not exist.");
+				}
+			}
+			new GameServer(file, port, Runtime.getRuntime().availableProcessors()).run();
+		} catch (IOException | DBIncompatibleException | NumberFormatException e) {
+			Logger.getLogger(GameServer.class.getName()).log(Level.SEVERE, "Could not run the game server.", e);
+		}
+	}
+}
@@ -0,0 +1,443 @@
+package playing.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import exception.DBClosedException;
+import exception.DBIncompatibleException;
+import persistence.PersistenceManager;
+import playing.GamePlayer;
+import playing.InputOutput;
+import playing.menu.MenuShower;
+
+/**
+ * The game of one player connected to the {@link GameServer}. Printed text is
+ * sent as lines, typed lines are handled as commands. In option mode, the
+ * options are numbered and the player types a number to choose one.
+ *
+ * The socket is only read and written by the selector thread of the server.
+ * Everything else is done by one worker thread at a time.
+ *
+ * @author Satia
+ */
+class ServerSession implements InputOutput, MenuShower, Runnable {
+
+	/**
+	 * Longer lines are cut.
+	 */
+	private static final int MAX_LINE_LENGTH = 1024;
+
+	/**
+	 * Telnet: interpret as command.
+	 */
+	private static final int IAC = 255;
+
+	/**
+	 * Telnet: begin of subnegotiation.
+	 */
+	private static final int SB = 250;
+
+	/**
+	 * Telnet: end of subnegotiation.
+	 */
+	private static final int SE = 240;
+
+	/**
+	 * Telnet: the first of WILL, WONT, DO and DONT, which are followed by an
+	 * option.
+	 */
+	private static final int WILL = 251;
+
+	/**
+	 * The server.
+	 */
+	private final GameServer server;
+
+	/**
+	 * The socket.
+	 */
+	private final SocketChannel channel;
+
+	/**
+	 * The selection key of the socket.
+	 */
+	private final SelectionKey key;
+
+	/**
+	 * The line currently being received. Only used by the selector thread.
+	 */
+	private final ByteArrayOutputStream line;
+
+	/**
+	 * The state of skipping telnet commands: 0 for text, 1 after IAC, 2
+	 * before an option, 3 in a subnegotiation, 4 after IAC in a
+	 * subnegotiation. Only used by the selector thread.
+	 */
+	private int telnetState;
+
+	/**
+	 * The received lines that are not handled yet.
+	 */
+	private final Queue<String> input;
+
+	/**
+	 * The text not sent yet.
+	 */
+	private final Queue<ByteBuffer> output;
+
+	/**
+	 * If the session is scheduled for or running on a worker.
+	 */
+	private final AtomicBoolean scheduled;
+
+	/**
+	 * If the socket should be closed when all output has been sent.
+	 */
+	private volatile boolean closeRequested;
+
+	/**
+	 * If the player has disconnected.
+	 */
+	private volatile boolean disconnected;
+
+	/**
+	 * The persistence manager of this session.
+	 */
+	private PersistenceManager persistenceManager;
+
+	/**
+	 * The game player of this session.
+	 */
+	private GamePlayer gamePlayer;
+
+	/**
+	 * The game player as io manager.
+	 */
+	private GeneralIOManager ioManager;
+
+	/**
+	 * If the game has been stopped.
+	 */
+	private boolean stopped;
+
+	/**
+	 * If the game has ended, but is not stopped yet.
+	 */
+	private boolean ended;
+
+	/**
+	 * The option io manager if currently in option mode, {@code null}
+	 * otherwise.
+	 */
+	private OptionIOManager optionIOManager;
+
+	/**
+	 * The options currently displayed.
+	 */
+	private List<String> options;
+
+	/**
+	 * If the options have changed and must be printed before the player
+	 * chooses.
+	 */
+	private boolean optionsChanged;
+
+	/**
+	 * @param server
+	 *            the server
+	 * @param channel
+	 *            the socket
+	 * @param key
+	 *            the selection key of the socket
+	 */
+	ServerSession(GameServer server, SocketChannel channel, SelectionKey key) {
+		this.server = server;
+		this.channel = channel;
+		this.key = key;
+		this.line = new ByteArrayOutputStream();
+		this.input = new ConcurrentLinkedQueue<>();
+		this.output = new ConcurrentLinkedQueue<>();
+		this.scheduled = new AtomicBoolean();
+	}
+
+	/**
+	 * @return the socket
+	 */
+	SocketChannel getChannel() {
+		return channel;
+	}
+
+	/**
+	 * Lets a worker run this session, unless it is already scheduled.
+	 */
+	void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			server.execute(this);
+		}
+	}
+
+	/**
+	 * Handles received bytes, skipping telnet commands. Called by the selector
+	 * thread.
+	 *
+	 * @param buffer
+	 *            the received bytes
+	 */
+	void received(ByteBuffer buffer) {
+		boolean complete = false;
+		while (buffer.hasRemaining()) {
+			int b = buffer.get() & 0xFF;
+			switch (telnetState) {
+			case 0:
+				if (b == IAC) {
+					telnetState = 1;
+				} else if (b == '\n') {
+					input.add(new String(line.toByteArray(), StandardCharsets.UTF_8));
+					line.reset();
+					complete = true;
+				} else if (b != '\r' && line.size() < MAX_LINE_LENGTH) {
+					line.write(b);
+				}
+				break;
+			case 1:
+				telnetState = b >= WILL && b < IAC ? 2 : b == SB ? 3 : 0;
+				break;
+			case 2:
+				telnetState = 0;
+				break;
+			case 3:
+				telnetState = b == IAC ? 4 : 3;
+				break;
+			default:
+				telnetState = b == SE ? 0 : 3;
+				break;
+			}
+		}
+		if (complete) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Writes as much output as possible. Called by the selector thread.
+	 *
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void write() throws IOException {
+		for (ByteBuffer buffer; (buffer = output.peek()) != null;) {
+			channel.write(buffer);
+			if (buffer.hasRemaining()) {
+				return;
+			}
+			output.poll();
+		}
+		key.interestOps(SelectionKey.OP_READ);
+		if (closeRequested) {
+			close();
+		}
+	}
+
+	/**
+	 * Registers interest in writing if there is output or closes the socket if
+	 * requested. Called by the selector thread.
+	 */
+	void updateSelection() {
+		if (!channel.isOpen()) {
+			return;
+		}
+		if (!output.isEmpty()) {
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		} else if (closeRequested) {
+			close();
+		}
+	}
+
+	/**
+	 * The player has disconnected or the server is shut down. Closes the
+	 * socket and lets a worker stop the game. Called by the selector thread.
+	 */
+	void disconnected() {
+		disconnected = true;
+		close();
+		schedule();
+	}
+
+	/**
+	 * Closes the socket. Called by the selector thread.
+	 */
+	private void close() {
+		if (!channel.isOpen()) {
+			return;
+		}
+		key.cancel();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.FINE, "Could not close the connection", e);
+		}
+		server.sessionClosed(this);
+		Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Session closed");
+	}
+
+	/**
+	 * Starts the game if necessary and handles all received lines. Stops the
+	 * game if the player has disconnected.
+	 */
+	@Override
+	public void run() {
+		boolean running = false;
+		try {
+			if (gamePlayer == null && !stopped) {
+				if (disconnected) {
+					stopped = true;
+				} else {
+					startGame();
+				}
+			}
+			for (String text; !stopped && !ended && (text = input.poll()) != null;) {
+				handleLine(text);
+				if (optionIOManager != null && optionsChanged) {
+					// Printed after the answer, right above the prompt
+					printOptions();
+				}
+			}
+			if (!stopped && (ended || disconnected)) {
+				gamePlayer.stop();
+			}
+			running = !stopped;
+		} catch (RuntimeException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Error in session", e);
+		} finally {
+			scheduled.set(false);
+		}
+		// Lines may have been received in the meantime
+		if (running && (!input.isEmpty() || disconnected)) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Starts a new game, based on the shared game definition.
+	 */
+	private void startGame() {
+		try {
+			persistenceManager = new PersistenceManager();
+			persistenceManager.connect(server.getDefinition());
+			gamePlayer = new GamePlayer(persistenceManager, this, ioManager -> {
+				this.ioManager = ioManager;
+				return this;
+			}, server.getCommandCache());
+			gamePlayer.setGame(persistenceManager.getGameManager().getGame());
+		} catch (IOException | DBIncompatibleException | DBClosedException e) {
+			Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, "Could not load the game", e);
+			println("The game could not be loaded.");
+			persistenceManager.disconnect();
+			exitIO();
+			return;
+		}
+		gamePlayer.start();
+	}
+
+	/**
+	 * Handles a line typed by the player.
+	 *
+	 * @param text
+	 *            the line
+	 */
+	private void handleLine(String text) {
+		if (optionIOManager != null) {
+			int index;
+			try {
+				index = Integer.parseInt(text.trim()) - 1;
+			} catch (NumberFormatException e) {
+				index = -1;
+			}
+			if (index < 0 || index >= options.size()) {
+				optionsChanged = true;
+				return;
+			}
+			optionIOManager.chooseOption(index);
+			if (!stopped) {
+				ioManager.updateState();
+			}
+		} else if (ioManager.handleText(text) && !stopped) {
+			ioManager.updateState();
+		}
+	}
+
+	/**
+	 * Prints the options, numbered from 1.
+	 */
+	private void printOptions() {
+		optionsChanged = false;
+		for (int i = 0; i < options.size(); i++) {
+			println((i + 1) + ") " + options.get(i));
+		}
+	}
+
+	@Override
+	public void exitIO() {
+		stopped = true;
+		closeRequested = true;
+		server.requestSelectionUpdate(this);
+	}
+
+	@Override
+	public void println(String output) {
+		if (disconnected) {
+			return;
+		}
+		this.output.add(ByteBuffer.wrap((output + "\r\n").getBytes(StandardCharsets.UTF_8)));
+		server.requestSelectionUpdate(this);
+	}
+
+	@Override
+	public void println(String output, Color bgColor, Color fgColor) {
+		println(output);
+	}
+
+	@Override
+	public void clear() {
+		// Lines cannot be cleared
+	}
+
+	@Override
+	public void enterOptionMode(OptionIOManager optionIOManager, List<String> options) {
+		this.optionIOManager = optionIOManager;
+		setOptions(options);
+	}
+
+	@Override
+	public void exitOptionMode() {
+		this.optionIOManager = null;
+		this.options = null;
+	}
+
+	@Override
+	public void setOptions(List<String> options) {
+		this.options = options;
+		this.optionsChanged = true;
+	}
+
+	@Override
+	public void showMenu(boolean gameRunning) {
+		// There is no menu, the game can only end
+		if (!gameRunning) {
+			ended = true;
+			println("The game has ended.");
+		}
+	}
+}